@@ -0,0 +1,120 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers which card was read from each card region's pixels, so regions that haven't changed since the last time
+ * they were read don't have to be recognized again.
+ * <p>
+ * Cards are keyed by a 64-bit hash of the region's pixels and its size.  The least recently used cards are evicted
+ * once the cache is full.
+ */
+class CardCache {
+    /**
+     * The default maximum number of cards to remember, enough for every region in a game window several times over.
+     */
+    static final int DEFAULT_MAX_SIZE = 512;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private CardImageReader reader;
+    private Map<Long, String> cards;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a card cache that reads cards it hasn't seen before with the reader.
+     *
+     * @param reader  the card image reader for the game
+     * @param maxSize the maximum number of cards to remember
+     */
+    CardCache(CardImageReader reader, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Card cache size must be at least 1: " + maxSize);
+        }
+        this.reader = reader;
+        this.cards = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cards in each rectangle of the screenshot.  Only the rectangles whose pixels aren't in the cache
+     * are read with the card image reader.
+     *
+     * @param screenshot an image of the game window
+     * @param rectangles the locations of the cards within the screenshot
+     * @return the card in each rectangle, or "??" for unrecognized cards
+     */
+    synchronized List<String> cardsAt(BufferedImage screenshot, List<Rectangle> rectangles) {
+        List<String> result = new ArrayList<>(rectangles.size());
+        long[] keys = new long[rectangles.size()];
+        List<Integer> missIndexes = new ArrayList<>();
+        List<Rectangle> missRectangles = new ArrayList<>();
+        for (int i = 0; i < rectangles.size(); i++) {
+            Rectangle r = rectangles.get(i);
+            keys[i] = pixelHash(screenshot.getRGB(r.x, r.y, r.width, r.height, null, 0, r.width), r.width, r.height);
+            String card = cards.get(keys[i]);
+            if (card == null) {
+                misses++;
+                missIndexes.add(i);
+                missRectangles.add(r);
+            } else {
+                hits++;
+            }
+            result.add(card);
+        }
+        if (!missRectangles.isEmpty()) {
+            List<String> missCards = reader.cardsAt(screenshot, missRectangles);
+            for (int i = 0; i < missIndexes.size(); i++) {
+                int index = missIndexes.get(i);
+                result.set(index, missCards.get(i));
+                cards.put(keys[index], missCards.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns how many card regions were found in the cache.
+     */
+    synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns how many card regions weren't in the cache and had to be read.
+     */
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns how many cards are currently remembered.
+     */
+    synchronized int size() {
+        return cards.size();
+    }
+
+    /**
+     * Returns a 64-bit FNV-1a hash of the pixels and the size of the image they came from.
+     */
+    static long pixelHash(int[] pixels, int width, int height) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = (hash ^ width) * FNV_PRIME;
+        hash = (hash ^ height) * FNV_PRIME;
+        for (int pixel : pixels) {
+            hash = (hash ^ (pixel & 0xFFFFFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
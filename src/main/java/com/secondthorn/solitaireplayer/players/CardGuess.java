@@ -0,0 +1,34 @@
+package com.secondthorn.solitaireplayer.players;
+
+/**
+ * A guess at what card is in an image, along with how confident the guess is.
+ */
+public class CardGuess {
+    private String card;
+    private double confidence;
+
+    /**
+     * Creates a card guess.
+     *
+     * @param card       a card, or "??" if the card couldn't be recognized
+     * @param confidence how confident the guess is, from 0.0 to 1.0
+     */
+    public CardGuess(String card, double confidence) {
+        this.card = card;
+        this.confidence = confidence;
+    }
+
+    /**
+     * Returns the card that was guessed, or "??" if the card couldn't be recognized.
+     */
+    public String getCard() {
+        return card;
+    }
+
+    /**
+     * Returns how confident the guess is, from 0.0 to 1.0.
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+}
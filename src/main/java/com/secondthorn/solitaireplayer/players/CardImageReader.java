@@ -0,0 +1,405 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reads cards from images of the Microsoft Solitaire Collection window, without going through the screen.
+ * <p>
+ * First the rank and suit glyphs in the card region are looked up by their perceptual hashes (see GlyphHash) in an
+ * index of the rank and suit images for the game.  If either lookup isn't confident enough, the card region is
+ * compared against every rank and suit image using normalized cross-correlation, the same measure SikuliX uses to
+ * search the screen for images.  The best matching rank and suit are the card, as long as they're similar enough.
+ * Since it works on an in-memory image, the window only has to be captured once to read all the cards, the regions
+ * can be read in parallel, and saved screenshots can be read the same way.
+ * <p>
+ * The rank and suit images were captured from a 1440x900 window at 100% display scaling.  For windows of any other
+ * size, the images are scaled once to match the window, so cards are read at the window's native resolution.
+ */
+public class CardImageReader {
+    /**
+     * The minimum similarity score for a rank or suit image to match, the same as the SikuliX default.
+     */
+    public static final double MIN_SIMILARITY = 0.7;
+
+    /**
+     * The minimum confidence for a hash lookup to be used instead of template matching.
+     */
+    public static final double MIN_CONFIDENCE = 0.5;
+
+    /**
+     * Card image readers that have already been created, keyed by game name and scale.
+     */
+    private static final Map<String, CardImageReader> readers = new ConcurrentHashMap<>();
+
+    private List<Template> rankTemplates;
+    private List<Template> suitTemplates;
+    private GlyphIndex rankIndex;
+    private GlyphIndex suitIndex;
+
+    /**
+     * Creates a card image reader from the rank and suit images in the resources directory for the game.
+     *
+     * @param gameName the directory under src/main/resources/ for the game being played
+     * @throws PlayException if the images can't be loaded
+     */
+    public CardImageReader(String gameName) throws PlayException {
+        this(gameName, 1.0);
+    }
+
+    /**
+     * Creates a card image reader from the rank and suit images in the resources directory for the game, scaled to
+     * match a game window of a different size.
+     *
+     * @param gameName the directory under src/main/resources/ for the game being played
+     * @param scale    the size of the game window relative to 1440x900
+     * @throws PlayException if the images can't be loaded
+     */
+    public CardImageReader(String gameName, double scale) throws PlayException {
+        this(TemplateAtlas.forGame(gameName), scale);
+    }
+
+    /**
+     * Creates a card image reader from the rank and suit images in the atlas, scaled to match the game window.
+     *
+     * @param atlas the atlas of rank and suit images for the game
+     * @param scale the size of the game window relative to 1440x900
+     */
+    CardImageReader(TemplateAtlas atlas, double scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Scale must be positive: " + scale);
+        }
+        rankTemplates = loadTemplates(atlas, "A23456789TJQK", scale);
+        suitTemplates = loadTemplates(atlas, "cdhs", scale);
+        rankIndex = glyphIndex(rankTemplates);
+        suitIndex = glyphIndex(suitTemplates);
+    }
+
+    /**
+     * Returns a card image reader for the game and scale, only loading and scaling the rank and suit images the first
+     * time it's requested.
+     *
+     * @param gameName the directory under src/main/resources/ for the game being played
+     * @param scale    the size of the game window relative to 1440x900
+     * @return a card image reader with images scaled to the game window
+     * @throws PlayException if the images can't be loaded
+     */
+    public static CardImageReader forScale(String gameName, double scale) throws PlayException {
+        String key = gameName + "@" + scale;
+        CardImageReader reader = readers.get(key);
+        if (reader == null) {
+            reader = new CardImageReader(gameName, scale);
+            CardImageReader existing = readers.putIfAbsent(key, reader);
+            if (existing != null) {
+                reader = existing;
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * Returns the image resized by the scale factor, or the same image if the scale is 1.0.  Bilinear interpolation
+     * is used, similar to how the game itself draws cards at other window sizes.
+     *
+     * @param image an image captured from a 1440x900 game window
+     * @param scale the size of the game window relative to 1440x900
+     * @return the image at the size it would appear in the game window
+     */
+    public static BufferedImage scaleImage(BufferedImage image, double scale) {
+        if (scale == 1.0) {
+            return image;
+        }
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    /**
+     * Returns the card in the image, or "??" if the rank or suit can't be recognized.
+     *
+     * @param image an image containing the card rank and suit (upper left corner of the card)
+     * @return a guess at what the card is
+     */
+    public String cardAt(BufferedImage image) {
+        return guessCard(image).getCard();
+    }
+
+    /**
+     * Returns a guess at the card in the image, along with how confident the guess is.
+     *
+     * @param image an image containing the card rank and suit (upper left corner of the card)
+     * @return a guess at what the card is, or "??" if the rank or suit can't be recognized
+     */
+    public CardGuess guessCard(BufferedImage image) {
+        int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        CardGuess guess = lookupCard(pixels, image.getWidth(), image.getHeight());
+        if (guess != null) {
+            return guess;
+        }
+        return matchCard(pixels, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Returns the card found by looking up the rank and suit glyph hashes, or null if either lookup isn't confident.
+     * An image without any ink can't contain a rank or suit, so it's unknown without any template matching.
+     */
+    CardGuess lookupCard(int[] pixels, int width, int height) {
+        boolean[] ink = GlyphHash.ink(pixels);
+        List<Rectangle> glyphs = GlyphHash.glyphBounds(ink, width, height);
+        if (glyphs.isEmpty()) {
+            return new CardGuess("??", 0.0);
+        }
+        if (glyphs.size() < 2) {
+            return null;
+        }
+        GlyphIndex.Guess rank = rankIndex.lookup(GlyphHash.hash(ink, width, glyphs.get(0)));
+        GlyphIndex.Guess suit = suitIndex.lookup(GlyphHash.hash(ink, width, glyphs.get(1)));
+        double confidence = Math.min(rank.confidence, suit.confidence);
+        if (confidence < MIN_CONFIDENCE) {
+            return null;
+        }
+        return new CardGuess("" + rank.character + suit.character, confidence);
+    }
+
+    /**
+     * Returns the card found by template matching every rank and suit image against the card image.  The confidence
+     * is the lower of the rank and suit similarity scores.
+     */
+    private CardGuess matchCard(int[] pixels, int width, int height) {
+        double[] rankScores = scores(pixels, width, height, rankTemplates);
+        double[] suitScores = scores(pixels, width, height, suitTemplates);
+        int rank = bestScoreIndex(rankScores);
+        int suit = bestScoreIndex(suitScores);
+        if (rank != -1 && suit != -1) {
+            String card = "" + rankTemplates.get(rank).character + suitTemplates.get(suit).character;
+            // convenient place to hardcode card recognition mistakes
+            return new CardGuess(card, Math.min(rankScores[rank], suitScores[suit]));
+        }
+        return new CardGuess("??", 0.0);
+    }
+
+    /**
+     * Returns the cards in each rectangle of the screenshot, reading them in parallel.
+     *
+     * @param screenshot an image of the game window
+     * @param rectangles the locations of the cards within the screenshot
+     * @return the card in each rectangle, or "??" for unrecognized cards
+     */
+    public List<String> cardsAt(BufferedImage screenshot, List<Rectangle> rectangles) {
+        return rectangles.parallelStream()
+                .map(r -> cardAt(screenshot.getSubimage(r.x, r.y, r.width, r.height)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the best score for each template matched somewhere in the image.
+     */
+    private static double[] scores(int[] pixels, int width, int height, List<Template> templates) {
+        double[] scores = new double[templates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = templates.get(i).bestScore(pixels, width, height);
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the index of the highest score that's at least the minimum similarity, or -1 if there isn't one.
+     */
+    private static int bestScoreIndex(double[] scores) {
+        int best = -1;
+        double bestScore = MIN_SIMILARITY;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= bestScore) {
+                best = i;
+                bestScore = scores[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns an index of the perceptual hashes of the templates.
+     */
+    private static GlyphIndex glyphIndex(List<Template> templates) {
+        long[] hashes = new long[templates.size()];
+        char[] characters = new char[templates.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = templates.get(i).hash;
+            characters[i] = templates.get(i).character;
+        }
+        return new GlyphIndex(hashes, characters);
+    }
+
+    /**
+     * Creates templates from the atlas images for each rank or suit character, scaled to the game window.  Multiple
+     * images may map to the same character.
+     */
+    private static List<Template> loadTemplates(TemplateAtlas atlas, String characters, double scale) {
+        List<Template> templates = new ArrayList<>();
+        for (TemplateAtlas.Glyph glyph : atlas.glyphsFor(characters)) {
+            templates.add(new Template(scaleImage(glyph.image, scale), glyph.character));
+        }
+        return templates;
+    }
+
+    /**
+     * Returns a list of all the files in the src/main/resources/[game]/[rank or suit] directory.
+     * These are image files of the card rank or suit, used for guessing what cards are face up on the game window.
+     */
+    static List<String> characterImageFilenames(String resourceDir, char c) throws PlayException {
+        String imageDirectory = resourceDir + c + "/";
+        try {
+            URI uri = ClassLoader.getSystemResource(imageDirectory).toURI();
+            if (uri.getScheme().equals("jar")) {
+                try (FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap());
+                     DirectoryStream<Path> ds = Files.newDirectoryStream(fs.getPath(imageDirectory))) {
+                    return filesFromDirectoryStream(ds);
+                }
+            } else {
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(Paths.get(uri))) {
+                    return filesFromDirectoryStream(ds);
+                }
+            }
+        } catch (URISyntaxException ex) {
+            throw new PlayException("Unable to find resource directory for card-related character " + c, ex);
+        } catch (IOException ex) {
+            throw new PlayException("Unable to find image files for the card-related character " + c, ex);
+        }
+    }
+
+    /**
+     * Returns a list of files from a jar or file system directory.
+     */
+    private static List<String> filesFromDirectoryStream(DirectoryStream<Path> ds) {
+        List<String> filenames = new ArrayList<>();
+        for (Path path : ds) {
+            int nameCount = path.getNameCount();
+            filenames.add(path.subpath(nameCount - 3, nameCount).toString().replace('\\', '/'));
+        }
+        Collections.sort(filenames);
+        return filenames;
+    }
+
+    /**
+     * A rank or suit image, with its pixels stored as differences from the mean of each color channel so it can be
+     * compared quickly at every location in a card image.
+     */
+    static class Template {
+        private final char character;
+        private final int width;
+        private final int height;
+        private final double[] red;
+        private final double[] green;
+        private final double[] blue;
+        private final double norm;
+        private final long hash;
+
+        Template(BufferedImage image, char character) {
+            this.character = character;
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            red = channel(pixels, 16);
+            green = channel(pixels, 8);
+            blue = channel(pixels, 0);
+            norm = Math.sqrt(sumOfSquares(red) + sumOfSquares(green) + sumOfSquares(blue));
+            boolean[] ink = GlyphHash.ink(pixels);
+            Rectangle inkBounds = GlyphHash.inkBounds(ink, width, height);
+            hash = (inkBounds == null) ? 0L : GlyphHash.hash(ink, width, inkBounds);
+        }
+
+        /**
+         * Returns the highest normalized cross-correlation between this template and any same-sized area of the
+         * image, from -1.0 to 1.0, or 0.0 if the template doesn't fit.
+         */
+        double bestScore(int[] pixels, int imageWidth, int imageHeight) {
+            double best = 0.0;
+            for (int y = 0; y + height <= imageHeight; y++) {
+                for (int x = 0; x + width <= imageWidth; x++) {
+                    best = Math.max(best, score(pixels, imageWidth, x, y));
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Returns the normalized cross-correlation between this template and the area of the image with its upper
+         * left corner at (x, y).
+         */
+        private double score(int[] pixels, int imageWidth, int left, int top) {
+            int n = width * height;
+            double sumR = 0, sumG = 0, sumB = 0;
+            for (int y = 0; y < height; y++) {
+                int offset = (top + y) * imageWidth + left;
+                for (int x = 0; x < width; x++) {
+                    int rgb = pixels[offset + x];
+                    sumR += (rgb >> 16) & 0xFF;
+                    sumG += (rgb >> 8) & 0xFF;
+                    sumB += rgb & 0xFF;
+                }
+            }
+            double meanR = sumR / n, meanG = sumG / n, meanB = sumB / n;
+            double dot = 0, imageSumOfSquares = 0;
+            for (int y = 0, i = 0; y < height; y++) {
+                int offset = (top + y) * imageWidth + left;
+                for (int x = 0; x < width; x++, i++) {
+                    int rgb = pixels[offset + x];
+                    double r = ((rgb >> 16) & 0xFF) - meanR;
+                    double g = ((rgb >> 8) & 0xFF) - meanG;
+                    double b = (rgb & 0xFF) - meanB;
+                    dot += r * red[i] + g * green[i] + b * blue[i];
+                    imageSumOfSquares += r * r + g * g + b * b;
+                }
+            }
+            double denominator = norm * Math.sqrt(imageSumOfSquares);
+            return (denominator == 0) ? 0.0 : dot / denominator;
+        }
+
+        /**
+         * Returns one color channel of the pixels, minus the mean of the channel.
+         */
+        private static double[] channel(int[] pixels, int shift) {
+            double[] values = new double[pixels.length];
+            double sum = 0;
+            for (int i = 0; i < pixels.length; i++) {
+                values[i] = (pixels[i] >> shift) & 0xFF;
+                sum += values[i];
+            }
+            double mean = sum / pixels.length;
+            for (int i = 0; i < values.length; i++) {
+                values[i] -= mean;
+            }
+            return values;
+        }
+
+        private static double sumOfSquares(double[] values) {
+            double sum = 0;
+            for (double value : values) {
+                sum += value * value;
+            }
+            return sum;
+        }
+    }
+}
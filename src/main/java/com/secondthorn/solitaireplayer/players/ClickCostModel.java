@@ -0,0 +1,100 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Point;
+
+/**
+ * Estimates how long clicks take while playing a solution, for planning the order of clicks and telling the user how
+ * long playing will take.
+ * <p>
+ * Moving the mouse takes a minimum time plus time for each pixel of distance at a constant speed, up to a maximum, so
+ * short moves between neighboring cards are quicker than moves across the window.  Smooth mouse movement takes the
+ * same time as this estimate.  Each click is followed by waiting for the window to finish animating.
+ */
+public class ClickCostModel {
+    /**
+     * The estimated time to wait after a click for the window to stop animating, which is usually a little more than
+     * the minimum wait after a click.
+     */
+    public static final long DEFAULT_CLICK_MILLIS = 150;
+
+    /**
+     * The default time for even the shortest smooth movement of the mouse.
+     */
+    public static final long DEFAULT_MIN_MOVE_MILLIS = 100;
+
+    /**
+     * The default speed of smooth mouse movement in pixels per millisecond, on top of the minimum time.
+     */
+    public static final double DEFAULT_PIXELS_PER_MILLI = 2.5;
+
+    /**
+     * The default time for the longest smooth movement of the mouse.
+     */
+    public static final long DEFAULT_MAX_MOVE_MILLIS = 500;
+
+    private long minMoveMillis;
+    private double pixelsPerMilli;
+    private long maxMoveMillis;
+    private long clickMillis;
+
+    /**
+     * Creates a cost model where the mouse moves instantly.
+     *
+     * @param clickMillis how many milliseconds to wait after each click
+     */
+    public ClickCostModel(long clickMillis) {
+        this(0, Double.POSITIVE_INFINITY, 0, clickMillis);
+    }
+
+    /**
+     * Creates a cost model where mouse movement time depends on the distance.
+     *
+     * @param minMoveMillis  how many milliseconds the shortest movement takes
+     * @param pixelsPerMilli how many pixels the mouse moves per millisecond beyond the minimum time
+     * @param maxMoveMillis  how many milliseconds the longest movement takes, or an unknown one
+     * @param clickMillis    how many milliseconds to wait after each click
+     */
+    public ClickCostModel(long minMoveMillis, double pixelsPerMilli, long maxMoveMillis, long clickMillis) {
+        if (pixelsPerMilli <= 0) {
+            throw new IllegalArgumentException("The mouse speed must be positive: " + pixelsPerMilli);
+        }
+        if (maxMoveMillis < minMoveMillis) {
+            throw new IllegalArgumentException("The maximum move time " + maxMoveMillis +
+                    " is less than the minimum " + minMoveMillis);
+        }
+        this.minMoveMillis = minMoveMillis;
+        this.pixelsPerMilli = pixelsPerMilli;
+        this.maxMoveMillis = maxMoveMillis;
+        this.clickMillis = clickMillis;
+    }
+
+    /**
+     * Returns the estimated milliseconds to move the mouse from one location to another.  If either location is
+     * unknown, the movement takes the maximum time.
+     *
+     * @param from the location of the mouse cursor before moving, or null if unknown
+     * @param to   the location to move to, or null if unknown
+     * @return the estimated time for the movement in milliseconds, 0 if the mouse doesn't move
+     */
+    public long moveMillis(Point from, Point to) {
+        if (from == null || to == null) {
+            return maxMoveMillis;
+        }
+        if (from.equals(to)) {
+            return 0;
+        }
+        return Math.min(maxMoveMillis, minMoveMillis + Math.round(from.distance(to) / pixelsPerMilli));
+    }
+
+    /**
+     * Returns the estimated milliseconds to move from one location to another and click there.  If either location
+     * is unknown, the mouse is assumed to move as far as it can.
+     *
+     * @param from the location of the mouse cursor before the click, or null if unknown
+     * @param to   the location to click on, or null if unknown
+     * @return the estimated time for the click in milliseconds
+     */
+    public long clickMillis(Point from, Point to) {
+        return moveMillis(from, to) + clickMillis;
+    }
+}
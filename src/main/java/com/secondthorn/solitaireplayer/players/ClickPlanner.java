@@ -0,0 +1,135 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Plans the clicks for playing a solution, before playing it.
+ * <p>
+ * Clicks are on named targets such as "Stock" or a tableau index, which the game window can locate and click on.
+ * When a solution's action needs several clicks that can happen in any order, such as the two cards of a pair in
+ * Pyramid Solitaire, the planner picks the order with the lowest estimated time, and then the shortest mouse
+ * travel.  It keeps a running estimate of how long playing all the clicks will take.
+ */
+public class ClickPlanner {
+    /**
+     * The most targets to try every ordering of; larger groups are clicked in the order given.
+     */
+    private static final int MAX_PERMUTED_TARGETS = 6;
+
+    private Function<String, Point> locator;
+    private ClickCostModel costModel;
+    private Point cursor;
+    private List<String> targets = new ArrayList<>();
+    private long estimatedMillis;
+    private double travelDistance;
+
+    /**
+     * Creates a click planner.
+     *
+     * @param locator   returns the screen location of a target, or null if it can't be known in advance
+     * @param costModel estimates how long each click takes
+     * @param cursor    the current location of the mouse cursor, or null if unknown
+     */
+    public ClickPlanner(Function<String, Point> locator, ClickCostModel costModel, Point cursor) {
+        this.locator = locator;
+        this.costModel = costModel;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Adds a click on the target.
+     *
+     * @param target the name of what to click on
+     */
+    public void click(String target) {
+        Point location = locator.apply(target);
+        estimatedMillis += costModel.clickMillis(cursor, location);
+        if (cursor != null && location != null) {
+            travelDistance += cursor.distance(location);
+        }
+        cursor = location;
+        targets.add(target);
+    }
+
+    /**
+     * Adds clicks on all the targets, in the order that takes the least time and mouse travel.
+     *
+     * @param targets the names of what to click on, in any order
+     */
+    public void clickInAnyOrder(List<String> targets) {
+        List<String> best = targets;
+        if (targets.size() > 1 && targets.size() <= MAX_PERMUTED_TARGETS) {
+            List<List<String>> orders = new ArrayList<>();
+            permutations(new ArrayList<>(targets), 0, orders);
+            long bestMillis = Long.MAX_VALUE;
+            double bestDistance = Double.MAX_VALUE;
+            for (List<String> order : orders) {
+                long millis = 0;
+                double distance = 0;
+                Point from = cursor;
+                for (String target : order) {
+                    Point to = locator.apply(target);
+                    millis += costModel.clickMillis(from, to);
+                    if (from != null && to != null) {
+                        distance += from.distance(to);
+                    }
+                    from = to;
+                }
+                if (millis < bestMillis || (millis == bestMillis && distance < bestDistance)) {
+                    best = order;
+                    bestMillis = millis;
+                    bestDistance = distance;
+                }
+            }
+        }
+        for (String target : best) {
+            click(target);
+        }
+    }
+
+    /**
+     * Adds time to the estimate for waiting that isn't part of a click, such as animations after recycling the deck.
+     *
+     * @param millis how many milliseconds to add
+     */
+    public void addDelay(long millis) {
+        estimatedMillis += millis;
+    }
+
+    /**
+     * Returns the names of the targets to click on, in order.
+     */
+    public List<String> getTargets() {
+        return Collections.unmodifiableList(targets);
+    }
+
+    /**
+     * Returns the estimated time to play all the clicks, in milliseconds.
+     */
+    public long getEstimatedMillis() {
+        return estimatedMillis;
+    }
+
+    /**
+     * Returns the total distance in pixels the mouse moves between targets with known locations.
+     */
+    public double getTravelDistance() {
+        return travelDistance;
+    }
+
+    private static void permutations(List<String> items, int start, List<List<String>> result) {
+        if (start == items.size()) {
+            result.add(new ArrayList<>(items));
+            return;
+        }
+        for (int i = start; i < items.size(); i++) {
+            Collections.swap(items, start, i);
+            permutations(items, start + 1, result);
+            Collections.swap(items, start, i);
+        }
+    }
+}
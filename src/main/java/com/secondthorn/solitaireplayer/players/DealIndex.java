@@ -0,0 +1,130 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A file of deals that have been played before, so a player that recognizes a deal can skip reading the rest of it.
+ * <p>
+ * Reading every card means drawing through the whole stock pile, but the same deals come up again and again, such as
+ * daily challenges played on more than one computer.  After reading the tableau and the first few stock pile cards,
+ * the player looks up the cards it has read so far.  If exactly one deal starts with those cards, the rest of the
+ * cards are taken from the index instead of the screen.
+ * <p>
+ * The file is plain text and only ever appended to.  Each line is a game name followed by the deal's 52 cards, with
+ * "??" for cards that weren't known, so one file can be shared by all games.  When a deal is seen again with more
+ * cards known, the new line takes precedence over the old one.
+ */
+public class DealIndex {
+    /**
+     * The number of stock pile cards to read before looking up a deal, so that deals that happen to share the
+     * visible tableau cards aren't mistaken for each other.
+     */
+    public static final int PREFIX_STOCK_CARDS = 2;
+
+    private String gameName;
+    private Path file;
+    private List<List<String>> deals = new ArrayList<>();
+
+    /**
+     * Opens the index, reading the deals for the game if the file exists.
+     *
+     * @param gameName the name of the game, so deals for other games in the same file are ignored
+     * @param file     the index file, which doesn't have to exist yet
+     * @throws PlayException if the file exists but can't be read
+     */
+    public DealIndex(String gameName, Path file) throws PlayException {
+        this.gameName = gameName;
+        this.file = file;
+        if (Files.exists(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    String[] fields = line.trim().split("\\s+");
+                    if (fields.length == 53 && fields[0].equals(gameName)) {
+                        deals.add(Arrays.asList(fields).subList(1, 53));
+                    }
+                }
+            } catch (IOException ex) {
+                throw new PlayException("Unable to read the deal index " + file, ex);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of deals in the index for the game, counting each line separately.
+     */
+    public int size() {
+        return deals.size();
+    }
+
+    /**
+     * Returns the deal starting with the cards read so far, or null if there isn't exactly one.  Unknown cards in
+     * the prefix match any card.  If more than one line matches, they must all be the same deal with different
+     * cards known, otherwise it's ambiguous.
+     *
+     * @param prefix the first cards of the deal, in deck order
+     * @return the 52 cards of the deal, or null if it isn't in the index or it's ambiguous
+     */
+    public List<String> lookup(List<String> prefix) {
+        List<String> found = null;
+        for (int i = deals.size() - 1; i >= 0; i--) {
+            List<String> deal = deals.get(i);
+            if (matches(prefix, deal)) {
+                if (found == null) {
+                    found = deal;
+                } else if (!matches(deal, found)) {
+                    return null;
+                }
+            }
+        }
+        return (found == null) ? null : Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Adds a deal to the end of the index file, unless the exact same cards are already there.
+     *
+     * @param cards the 52 cards of the deal, with "??" for unknown cards
+     * @throws PlayException if the deal can't be written to the file
+     */
+    public void add(List<String> cards) throws PlayException {
+        if (cards.size() != 52) {
+            throw new IllegalArgumentException("A deal must have 52 cards: " + cards.size());
+        }
+        if (deals.contains(cards)) {
+            return;
+        }
+        String line = gameName + " " + String.join(" ", cards) + System.lineSeparator();
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            Files.write(file, line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new PlayException("Unable to write to the deal index " + file, ex);
+        }
+        deals.add(new ArrayList<>(cards));
+    }
+
+    /**
+     * Returns true if every known card in the prefix is the same card in the deal, ignoring unknown cards in both.
+     */
+    private static boolean matches(List<String> prefix, List<String> deal) {
+        for (int i = 0; i < prefix.size(); i++) {
+            String card = prefix.get(i);
+            String dealCard = deal.get(i);
+            if (!card.equals("??") && !dealCard.equals("??") && !card.equals(dealCard)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,142 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Perceptual hashes of the rank and suit glyphs in the corner of a card.
+ * <p>
+ * Pixels darker than the light card background are ink.  A glyph's ink is shrunk or stretched from its bounding box
+ * onto an 8x8 grid, and each grid cell that's mostly ink sets one bit of a 64-bit hash.  Since the hash only depends
+ * on the shape inside the bounding box, a glyph has the same hash wherever it is in the card region, and similar
+ * looking glyphs have hashes that differ by only a few bits.
+ */
+class GlyphHash {
+    /**
+     * Pixels with a luminance (0 - 255) below this are ink.
+     */
+    private static final int INK_LUMINANCE = 160;
+
+    private static final int GRID_SIZE = 8;
+
+    private GlyphHash() {
+    }
+
+    /**
+     * Returns which of the pixels are ink.
+     *
+     * @param pixels the pixels of an image, in the format returned by BufferedImage.getRGB
+     * @return an array with true for each pixel that is ink
+     */
+    static boolean[] ink(int[] pixels) {
+        boolean[] ink = new boolean[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            int rgb = pixels[i];
+            int luminance = (299 * ((rgb >> 16) & 0xFF) + 587 * ((rgb >> 8) & 0xFF) + 114 * (rgb & 0xFF)) / 1000;
+            ink[i] = luminance < INK_LUMINANCE;
+        }
+        return ink;
+    }
+
+    /**
+     * Returns the bounding boxes of the glyphs from top to bottom, where glyphs are separated by rows without ink.
+     * For the corner of a card, the first glyph is the rank and the second is the suit.
+     *
+     * @param ink    which pixels of the image are ink
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @return the bounding boxes of each group of rows containing ink
+     */
+    static List<Rectangle> glyphBounds(boolean[] ink, int width, int height) {
+        List<Rectangle> glyphs = new ArrayList<>();
+        int top = -1;
+        for (int y = 0; y <= height; y++) {
+            boolean rowHasInk = (y < height) && rowHasInk(ink, width, y);
+            if (rowHasInk && top == -1) {
+                top = y;
+            } else if (!rowHasInk && top != -1) {
+                glyphs.add(columnBounds(ink, width, top, y));
+                top = -1;
+            }
+        }
+        return glyphs;
+    }
+
+    /**
+     * Returns the bounding box of all the ink in the image.
+     *
+     * @param ink    which pixels of the image are ink
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @return the bounding box of the ink, or null if there is no ink
+     */
+    static Rectangle inkBounds(boolean[] ink, int width, int height) {
+        int top = height;
+        int bottom = 0;
+        for (int y = 0; y < height; y++) {
+            if (rowHasInk(ink, width, y)) {
+                top = Math.min(top, y);
+                bottom = y + 1;
+            }
+        }
+        return (top < bottom) ? columnBounds(ink, width, top, bottom) : null;
+    }
+
+    /**
+     * Returns the 64-bit hash of the ink inside the bounds.
+     *
+     * @param ink    which pixels of the image are ink
+     * @param width  the width of the image
+     * @param bounds the bounding box of a glyph in the image
+     * @return a perceptual hash of the glyph
+     */
+    static long hash(boolean[] ink, int width, Rectangle bounds) {
+        int[] inkCounts = new int[GRID_SIZE * GRID_SIZE];
+        int[] pixelCounts = new int[GRID_SIZE * GRID_SIZE];
+        for (int y = 0; y < bounds.height; y++) {
+            int row = y * GRID_SIZE / bounds.height;
+            int offset = (bounds.y + y) * width + bounds.x;
+            for (int x = 0; x < bounds.width; x++) {
+                int cell = row * GRID_SIZE + x * GRID_SIZE / bounds.width;
+                pixelCounts[cell]++;
+                if (ink[offset + x]) {
+                    inkCounts[cell]++;
+                }
+            }
+        }
+        long hash = 0L;
+        for (int cell = 0; cell < inkCounts.length; cell++) {
+            if (inkCounts[cell] * 2 > pixelCounts[cell]) {
+                hash |= 1L << cell;
+            }
+        }
+        return hash;
+    }
+
+    private static boolean rowHasInk(boolean[] ink, int width, int y) {
+        for (int x = 0; x < width; x++) {
+            if (ink[y * width + x]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the bounding box of the ink in the rows from top (inclusive) to bottom (exclusive).
+     */
+    private static Rectangle columnBounds(boolean[] ink, int width, int top, int bottom) {
+        int left = width;
+        int right = 0;
+        for (int y = top; y < bottom; y++) {
+            for (int x = 0; x < width; x++) {
+                if (ink[y * width + x]) {
+                    left = Math.min(left, x);
+                    right = Math.max(right, x + 1);
+                }
+            }
+        }
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+}
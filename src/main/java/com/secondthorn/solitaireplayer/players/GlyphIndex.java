@@ -0,0 +1,71 @@
+package com.secondthorn.solitaireplayer.players;
+
+/**
+ * An index of the perceptual hashes of rank or suit images, for recognizing a glyph with one lookup instead of
+ * template matching it against every image.
+ */
+class GlyphIndex {
+    /**
+     * The most bits a glyph's hash can differ from an image's hash and still be recognized as that image.
+     */
+    static final int MAX_DISTANCE = 10;
+
+    private long[] hashes;
+    private char[] characters;
+
+    /**
+     * Creates an index of the hashes of the images, each of which represents a rank or suit character.
+     *
+     * @param hashes     the perceptual hash of each image
+     * @param characters the rank or suit character of each image
+     */
+    GlyphIndex(long[] hashes, char[] characters) {
+        this.hashes = hashes;
+        this.characters = characters;
+    }
+
+    /**
+     * Returns the character of the image with the closest hash, and how confident the guess is.  The confidence is
+     * 0.0 if the closest image is too different, otherwise it depends on how much closer the closest image is than
+     * the closest image of a different character, from 0.0 if they're just as close to 1.0 for an exact match.
+     *
+     * @param hash the perceptual hash of a glyph
+     * @return the best guess for the glyph's character
+     */
+    Guess lookup(long hash) {
+        int best = 0;
+        for (int i = 1; i < hashes.length; i++) {
+            if (distance(hash, i) < distance(hash, best)) {
+                best = i;
+            }
+        }
+        int bestDistance = distance(hash, best);
+        int otherDistance = 64;
+        for (int i = 0; i < hashes.length; i++) {
+            if (characters[i] != characters[best]) {
+                otherDistance = Math.min(otherDistance, distance(hash, i));
+            }
+        }
+        double confidence = (bestDistance > MAX_DISTANCE || otherDistance == 0) ?
+                0.0 :
+                (otherDistance - bestDistance) / (double) otherDistance;
+        return new Guess(characters[best], confidence);
+    }
+
+    private int distance(long hash, int i) {
+        return Long.bitCount(hash ^ hashes[i]);
+    }
+
+    /**
+     * A guess at a glyph's rank or suit character, along with how confident the guess is from 0.0 to 1.0.
+     */
+    static class Guess {
+        final char character;
+        final double confidence;
+
+        Guess(char character, double confidence) {
+            this.character = character;
+            this.confidence = confidence;
+        }
+    }
+}
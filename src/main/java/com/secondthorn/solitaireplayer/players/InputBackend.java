@@ -0,0 +1,22 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * Sends mouse input to the operating system.  This is separate from InputDriver, which decides what to send and
+ * when, so that the input can be tested without moving the real mouse.
+ */
+interface InputBackend {
+    /**
+     * Returns the location of the mouse cursor in virtual screen coordinates, or null if it's unknown.
+     */
+    Point getCursorPosition();
+
+    /**
+     * Sends the inputs as one batch, so no other input can come between them.
+     *
+     * @param inputs the mouse inputs to send, in order
+     */
+    void send(List<MouseInput> inputs);
+}
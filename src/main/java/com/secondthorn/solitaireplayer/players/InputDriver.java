@@ -0,0 +1,171 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves the mouse and clicks on things, either by smoothly moving the cursor so the user can follow along, or by
+ * instantly moving it for unattended runs.
+ * <p>
+ * Smooth movement eases out over the time the click cost model estimates for the distance, so the planned play time
+ * matches the real one, and moves the cursor once per frame, sleeping in between instead of moving it as fast as
+ * possible.  Clicks are sent as one batch of inputs: in instant mode the move and the button
+ * press and release together, otherwise just the press and release after the movement ends.
+ * <p>
+ * This program never intentionally moves the mouse to (0, 0), so if the mouse is moved there by the user, it's used
+ * as a signal to abort the program.
+ */
+class InputDriver {
+    /**
+     * The default time between cursor movements, about 60 frames per second.
+     */
+    static final long DEFAULT_FRAME_MILLIS = 16;
+
+    private InputBackend backend;
+    private ClickCostModel costModel;
+    private long frameMillis;
+    private boolean instant;
+
+    /**
+     * Creates an input driver that moves the mouse smoothly.
+     *
+     * @param backend     sends the mouse input to the operating system
+     * @param costModel   decides how many milliseconds each smooth movement takes
+     * @param frameMillis how many milliseconds between each step of a smooth movement
+     */
+    InputDriver(InputBackend backend, ClickCostModel costModel, long frameMillis) {
+        if (frameMillis < 1) {
+            throw new IllegalArgumentException("The frame time must be at least 1 millisecond: " + frameMillis);
+        }
+        this.backend = backend;
+        this.costModel = costModel;
+        this.frameMillis = frameMillis;
+    }
+
+    /**
+     * Sets whether the mouse moves instantly (true) or smoothly (false).
+     */
+    void setInstant(boolean instant) {
+        this.instant = instant;
+    }
+
+    /**
+     * Returns true if the mouse moves instantly, or false if it moves smoothly.
+     */
+    boolean isInstant() {
+        return instant;
+    }
+
+    /**
+     * Returns the cost model that decides how long smooth movements take.
+     */
+    ClickCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * Returns the location of the mouse cursor in virtual screen coordinates, or null if it's unknown.
+     */
+    Point getCursorPosition() {
+        return backend.getCursorPosition();
+    }
+
+    /**
+     * Instantly moves the mouse cursor to the (X, Y) virtual screen coordinates.
+     *
+     * @param x the X coordinate to move to
+     * @param y the Y coordinate to move to
+     */
+    void moveInstantly(int x, int y) {
+        backend.send(Collections.singletonList(MouseInput.move(x, y)));
+    }
+
+    /**
+     * Moves the mouse cursor to the (X, Y) virtual screen coordinates, smoothly unless in instant mode.  If the cursor
+     * is already there, it doesn't move at all, so clicking the same place repeatedly doesn't wait for a movement.
+     *
+     * @param x the X coordinate to move to
+     * @param y the Y coordinate to move to
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if the user moved the mouse to (0, 0) to abort the program
+     */
+    void moveTo(int x, int y) throws InterruptedException, PlayException {
+        Point from = checkCursorPosition();
+        if (from != null && from.x == x && from.y == y) {
+            return;
+        }
+        if (instant || from == null) {
+            moveInstantly(x, y);
+            return;
+        }
+        Point to = new Point(x, y);
+        List<Point> path = path(from, to, costModel.moveMillis(from, to), frameMillis);
+        long start = System.nanoTime();
+        for (int i = 0; i < path.size(); i++) {
+            Point p = path.get(i);
+            if (i == 0 || !p.equals(path.get(i - 1))) {
+                moveInstantly(p.x, p.y);
+            }
+            long sleepMillis = (i + 1) * frameMillis - (System.nanoTime() - start) / 1000000;
+            if (i < path.size() - 1 && sleepMillis > 0) {
+                Thread.sleep(sleepMillis);
+            }
+        }
+    }
+
+    /**
+     * Moves the mouse cursor to the (X, Y) virtual screen coordinates and clicks the primary mouse button.
+     *
+     * @param x the X coordinate to click on
+     * @param y the Y coordinate to click on
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if the user moved the mouse to (0, 0) to abort the program
+     */
+    void click(int x, int y) throws InterruptedException, PlayException {
+        if (instant) {
+            checkCursorPosition();
+            backend.send(Arrays.asList(MouseInput.move(x, y), MouseInput.primaryDown(), MouseInput.primaryUp()));
+        } else {
+            moveTo(x, y);
+            backend.send(Arrays.asList(MouseInput.primaryDown(), MouseInput.primaryUp()));
+        }
+    }
+
+    /**
+     * Returns the cursor positions for each frame of a smooth movement, ending at the destination.  The movement
+     * starts quickly and slows down at the end (quartic ease out).
+     *
+     * @param from        the starting location of the cursor
+     * @param to          the destination of the cursor
+     * @param moveMillis  how many milliseconds the movement takes
+     * @param frameMillis how many milliseconds between each position
+     * @return the cursor positions, not including the starting location
+     */
+    static List<Point> path(Point from, Point to, long moveMillis, long frameMillis) {
+        int frames = (int) Math.max(1, moveMillis / frameMillis);
+        List<Point> path = new ArrayList<>(frames);
+        for (int i = 1; i <= frames; i++) {
+            double t = (double) i / frames;
+            double progress = 1 - Math.pow(1 - t, 4);
+            path.add(new Point((int) Math.round(from.x + (to.x - from.x) * progress),
+                    (int) Math.round(from.y + (to.y - from.y) * progress)));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the location of the cursor, or null if it's unknown.
+     *
+     * @throws PlayException if the user moved the mouse to (0, 0) to abort the program
+     */
+    private Point checkCursorPosition() throws PlayException {
+        Point p = backend.getCursorPosition();
+        if (p != null && p.x == 0 && p.y == 0) {
+            throw new PlayException("Mouse moved to (0, 0) to abort the program.");
+        }
+        return p;
+    }
+}
@@ -7,33 +7,20 @@ import com.sun.jna.platform.win32.WinDef;
 import com.sun.jna.platform.win32.WinNT;
 import com.sun.jna.platform.win32.WinUser;
 import com.sun.jna.win32.W32APIOptions;
-import org.sikuli.basics.Animator;
-import org.sikuli.basics.AnimatorOutQuarticEase;
-import org.sikuli.basics.AnimatorTimeBased;
 import org.sikuli.basics.Settings;
 import org.sikuli.script.App;
-import org.sikuli.script.support.IRobot;
 import org.sikuli.script.Image;
 import org.sikuli.script.Location;
 import org.sikuli.script.Match;
 import org.sikuli.script.Region;
+import org.sikuli.script.Screen;
 
 import java.awt.*;
-import java.awt.event.InputEvent;
-import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.nio.file.DirectoryStream;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Represents the Windows 10 Microsoft Solitaire Collection window and supports all interactions with it, in particular
@@ -50,27 +37,33 @@ public abstract class MSCWindow {
     /**
      * The location of the Undo Board buttons.
      */
-    private Image undoBoardImage = loadImage("Common/UndoBoard.png");
+    private Image undoBoardImage;
 
     /**
      * The location of the Undo Board button, used when the first one doesn't exist.
      */
-    private Image undoBoardImage2 = loadImage("Common/UndoBoard2.png");
+    private Image undoBoardImage2;
     
     /**
      * The location of the OK button to confirm undoing the board.
      */
-    private Region okButton = new Region(529, 547, 41, 23);
+    private Region okButton;
 
     /**
-     * A mapping between images and a rank character - multiple images may map to the same rank.
+     * Reads cards from captured images of the window, using the rank and suit images for the game, and remembers
+     * them so card regions that haven't changed don't have to be read again.
      */
-    private Map<org.sikuli.script.Image, Character> rankImages;
+    private CardCache cardCache;
 
     /**
-     * A mapping between images and a suit character - multiple images may map to the same suit.
+     * Waits for animations in the window to finish, instead of sleeping for a fixed amount of time.
      */
-    private Map<Image, Character> suitImages;
+    private StableFrameWaiter frameWaiter;
+
+    /**
+     * Moves the mouse and clicks on things in the window.
+     */
+    private InputDriver inputDriver;
 
     /**
      * Regions of the screen to interact with for searching for images and clicking. These are loaded from various
@@ -78,27 +71,76 @@ public abstract class MSCWindow {
      */
     protected Regions regions;
 
+    /**
+     * The minimum time to wait for the cards to be dealt again after undoing the board.
+     */
+    public static final long UNDO_BOARD_MIN_MILLIS = 500;
+
+    /**
+     * How long to wait for a click to start changing the window before deciding it didn't change anything.
+     */
+    private static final long CLICK_SETTLE_MILLIS = 100;
+
+    /**
+     * The size of the game window relative to 1440x900, detected once when the window is set up.  Images and regions
+     * are scaled by this so the program works without the window being exactly 1440x900.
+     */
+    protected double windowScale = 1.0;
+
     private static final int WINDOW_WIDTH = 1440;
     private static final int WINDOW_HEIGHT = 900;
     private static final String WINDOW_SIZE = "" + WINDOW_WIDTH + "x" + WINDOW_HEIGHT;
 
+    /**
+     * How far apart the width and height scales can be, after rounding to the nearest percent, before the window is
+     * considered the wrong shape.
+     */
+    private static final double MAX_SCALE_DIFFERENCE = 0.02;
+
+    /**
+     * The Java system property for how many identical frames in a row the window must show to be considered done
+     * animating, e.g. -Dsolitaireplayer.stableFrames=5 for slower computers.
+     */
+    private static final String STABLE_FRAMES_PROPERTY = "solitaireplayer.stableFrames";
+
     /**
      * Common setup for subclasses - since this class is abstract and cannot be instantiated, the subclasses must call
-     * super to run this initialization code.
+     * super to run this initialization code.  The mouse is controlled with the Windows SendInput function.
      *
      * @param gameName the directory under src/main/resources/ for the game being played
      * @throws PlayException if there is a problem during resource loading or interaction with the game window
      */
     protected MSCWindow(String gameName) throws InterruptedException, PlayException {
+        this(gameName, new Win32InputBackend(virtualScreenBounds()));
+    }
+
+    /**
+     * Common setup for subclasses, controlling the mouse with the given backend.
+     *
+     * @param gameName     the directory under src/main/resources/ for the game being played
+     * @param inputBackend sends the mouse input for moving and clicking
+     * @throws PlayException if there is a problem during resource loading or interaction with the game window
+     */
+    MSCWindow(String gameName, InputBackend inputBackend) throws InterruptedException, PlayException {
+        ClickCostModel costModel = new ClickCostModel(ClickCostModel.DEFAULT_MIN_MOVE_MILLIS,
+                ClickCostModel.DEFAULT_PIXELS_PER_MILLI, ClickCostModel.DEFAULT_MAX_MOVE_MILLIS,
+                ClickCostModel.DEFAULT_CLICK_MILLIS);
+        inputDriver = new InputDriver(inputBackend, costModel, InputDriver.DEFAULT_FRAME_MILLIS);
         positionForPlay();
+        windowScale = detectWindowScale();
+        int stableFrames = Integer.getInteger(STABLE_FRAMES_PROPERTY, StableFrameWaiter.DEFAULT_STABLE_FRAMES);
+        frameWaiter = new StableFrameWaiter(this::capture, stableFrames,
+                StableFrameWaiter.DEFAULT_FRAME_INTERVAL_MILLIS);
         systemReport();
         Settings.InputFontSize = 14;
         okDialogImage = loadImage("Common/OKDialog.png");
-        String gameResourceDir = gameName + "/";
+        undoBoardImage = loadImage("Common/UndoBoard.png");
+        undoBoardImage2 = loadImage("Common/UndoBoard2.png");
+        okButton = scaled(new Region(529, 547, 41, 23));
         validateGameBeingPlayed(gameName);
-        rankImages = loadCharacterImages(gameResourceDir, "A23456789TJQK");
-        suitImages = loadCharacterImages(gameResourceDir, "cdhs");
-        regions = RegionDeserializer.createRegions(gameResourceDir + "regions.json");
+        cardCache = new CardCache(CardImageReader.forScale(gameName, windowScale), CardCache.DEFAULT_MAX_SIZE);
+        regions = RegionDeserializer.createRegions(TemplateAtlas.forGame(gameName).getRegionsJson())
+                .scaled(windowScale);
     }
 
     private void validateGameBeingPlayed(String gameName) throws InterruptedException, PlayException {
@@ -137,11 +179,12 @@ public abstract class MSCWindow {
         String sizeString = getSizeString();
         WinDef.UINT dpi = DpiUser32.INSTANCE.GetDpiForWindow(getHWND());
         System.out.println("System Report:");
-        System.out.println("    Window Size (after adjustment) = " + sizeString);
-        System.out.println("    Expected Window Size = " + WINDOW_SIZE);
+        System.out.println("    Window Size = " + sizeString);
+        System.out.println("    Expected Window Size = " + WINDOW_SIZE + " or the same shape");
         System.out.println("    DPI = " + dpi);
         System.out.println("    Expected DPI = 96");
         System.out.println("    Scaling Factor = " + (100 * dpi.longValue() / 96.0) + "%");
+        System.out.println("    Window Scale For Card Recognition = " + (100 * windowScale) + "%");
         String unaware = primaryScreenSize(DPI_AWARENESS_CONTEXT.UNAWARE);
         String actual = primaryScreenSize(DPI_AWARENESS_CONTEXT.PER_MONITOR_AWARE_V2);
         System.out.println("    Primary Screen Size (Adjusted for Scaling Factor) = " + unaware);
@@ -163,53 +206,58 @@ public abstract class MSCWindow {
         if (appRegion().exists(okDialogImage, 3.0d) != null) {
             clickRegion(okButton);
         }
-        Thread.sleep(3000);
+        waitForStableWindow(UNDO_BOARD_MIN_MILLIS, 3000);
     }
 
     /**
      * Instantly move the mouse cursor to the given (X, Y) virtual screen coordinates. The virtual screen is a
      * bounding box around all the monitors, where (0, 0) is the top left corner of the primary monitor, not the
      * virtual screen.  So virtual screen coordinates can be negative.
-     * <p>
-     * Cursor movement already exists in the java.awt.Robot class but with JDK 8 it has issues with multi-monitor and
-     * HiDPI setups.  This is a workaround until we can require users to have JDK 11.
      *
      * @param x the virtual screen X coordinate to move the mouse cursor to
      * @param y the virtual screen Y coordinate to move the mouse cursor to
      */
     public void moveMouse(int x, int y) {
-        final int MOUSEEVENTF_MOVE = 0x0001;
-        final int MOUSEEVENTF_ABSOLUTE = 0x8000;
-        final int MOUSEEVENTF_VIRTUALDESK = 0x4000;
+        inputDriver.moveInstantly(x, y);
+    }
 
-        DPI_AWARENESS_CONTEXT oldContext = DpiUser32.INSTANCE.SetThreadDpiAwarenessContext(DPI_AWARENESS_CONTEXT.PER_MONITOR_AWARE_V2);
-        int left = User32.INSTANCE.GetSystemMetrics(WinUser.SM_XVIRTUALSCREEN);
-        int top = User32.INSTANCE.GetSystemMetrics(WinUser.SM_YVIRTUALSCREEN);
-        int width = User32.INSTANCE.GetSystemMetrics(WinUser.SM_CXVIRTUALSCREEN);
-        int height = User32.INSTANCE.GetSystemMetrics(WinUser.SM_CYVIRTUALSCREEN);
-
-        WinUser.INPUT input = new WinUser.INPUT();
-        input.type = new WinDef.DWORD(WinUser.INPUT.INPUT_MOUSE);
-        input.input.setType("mi");
-        input.input.mi.dx = new WinDef.LONG((((x - left) * 65536L) / width) + 1);
-        input.input.mi.dy = new WinDef.LONG((((y - top) * 65536L) / height) + 1);
-        input.input.mi.mouseData = new WinDef.DWORD(0);
-        input.input.mi.dwFlags = new WinDef.DWORD(MOUSEEVENTF_MOVE | MOUSEEVENTF_ABSOLUTE | MOUSEEVENTF_VIRTUALDESK);
-        input.input.mi.time = new WinDef.DWORD(0);
-        User32.INSTANCE.SendInput(new WinDef.DWORD(1), (WinUser.INPUT[]) input.toArray(1), input.size());
+    /**
+     * Returns the location of the mouse cursor in virtual screen coordinates, or null if it's unknown.
+     */
+    public Point getCursorPosition() {
+        return inputDriver.getCursorPosition();
+    }
 
-        DpiUser32.INSTANCE.SetThreadDpiAwarenessContext(oldContext);
+    /**
+     * Returns a model of how long clicking on things in this window takes, depending on how the mouse moves.
+     */
+    public ClickCostModel getClickCostModel() {
+        if (inputDriver.isInstant()) {
+            return new ClickCostModel(ClickCostModel.DEFAULT_CLICK_MILLIS);
+        }
+        return inputDriver.getCostModel();
+    }
+
+    /**
+     * Sets whether the mouse moves instantly to the things it clicks on, for unattended runs, or moves smoothly so
+     * the user can follow along.
+     *
+     * @param instant true to move the mouse instantly, false to move it smoothly
+     */
+    public void setInstantMouse(boolean instant) {
+        inputDriver.setInstant(instant);
     }
 
     /**
-     * Moves the Microsoft Solitaire Collection window to the foreground, undo minimize/maximize, and resize it.
+     * Moves the Microsoft Solitaire Collection window to the foreground and undo minimize/maximize.  The window
+     * keeps the size the user gave it.
      */
     public void positionForPlay() throws InterruptedException, PlayException {
         WinDef.HWND hwnd = getHWND();
         if ((hwnd == null) || !showWindow(hwnd) || !moveWindow(hwnd) || !setForegroundWindow(hwnd)) {
             throw new PlayException("Unable to find, move, or show the Microsoft Solitaire Collection window.");
         }
-        Thread.sleep(250);
+        waitForStableWindow(0, 250);
     }
 
     /**
@@ -219,14 +267,30 @@ public abstract class MSCWindow {
      * @return a guess at what the card is at the region of the screen
      */
     protected String cardAt(Region region) {
-        Character rank = bestCardCharacter(region, rankImages);
-        Character suit = bestCardCharacter(region, suitImages);
-        if (rank != null && suit != null) {
-            String card = rank.toString() + suit.toString();
-            // convenient place to hardcode card recognition mistakes
-            return card;
+        return cardsAt(Collections.singletonList(region)).get(0);
+    }
+
+    /**
+     * Guesses the cards at each of the given regions.  The screen is captured once, and then the cards are read from
+     * the captured image in parallel, except for regions whose pixels are the same as a region that was already read.
+     * Some guesses may be wrong and some may be "??" to represent unknown cards.
+     *
+     * @param regions the regions containing the card rank and suit images (upper left corner)
+     * @return a guess at what each card is, in the same order as the regions
+     */
+    protected List<String> cardsAt(List<Region> regions) {
+        Rectangle bounds = new Rectangle(regions.get(0).getRect());
+        for (Region region : regions) {
+            bounds.add(region.getRect());
         }
-        return "??";
+        BufferedImage screenshot = regions.get(0).getScreen().capture(bounds).getImage();
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (Region region : regions) {
+            Rectangle rectangle = region.getRect();
+            rectangle.translate(-bounds.x, -bounds.y);
+            rectangles.add(rectangle);
+        }
+        return cardCache.cardsAt(screenshot, rectangles);
     }
 
     /**
@@ -237,27 +301,122 @@ public abstract class MSCWindow {
      * @return an Image from the file
      */
     protected Image loadImage(String filename) {
-        return Image.create(ClassLoader.getSystemResource(filename));
+        Image image = Image.create(ClassLoader.getSystemResource(filename));
+        if (windowScale == 1.0) {
+            return image;
+        }
+        return new Image(CardImageReader.scaleImage(image.get(), windowScale), filename);
+    }
+
+    /**
+     * Returns the region of a 1440x900 game window scaled to the actual game window.
+     *
+     * @param region a region in a 1440x900 game window
+     * @return the region in the actual game window
+     */
+    protected Region scaled(Region region) {
+        return Regions.scale(region, windowScale);
     }
 
     /**
      * Clicks the primary mouse button on the center of the SikuliX region.
      * <p>
      * SikuliX already has a region click but due to mouse movement issues with JDK 8 and multi-monitor / HiDPI setups,
-     * it is currently re-implemented here using a custom mouse movement method.  This may be revisited after we begin
-     * to require JDK 11.
+     * it is currently re-implemented here using a custom input driver.  This may be revisited after we begin to
+     * require JDK 11.
      *
      * @param region the region to click on
      * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if the user moved the mouse to (0, 0) to abort the program
      */
     protected void clickRegion(Region region) throws InterruptedException, PlayException {
         Location center = region.getCenter();
-        moveMouseSmoothly(center.x, center.y);
-        IRobot robot = center.getScreen().getRobot();
-        robot.mouseDown(InputEvent.BUTTON1_DOWN_MASK);
-        robot.mouseUp(InputEvent.BUTTON1_DOWN_MASK);
-        robot.waitForIdle();
-        Thread.sleep(400);
+        inputDriver.click(center.x, center.y);
+        waitForStableRegions(regionsChangedByClicking(region), CLICK_SETTLE_MILLIS, 400);
+    }
+
+    /**
+     * Returns the regions of the window that clicking on the region may change and that the next action may look at
+     * or click on: the region itself and the card regions.  Clicking a card can also remove the card it pairs with or
+     * turn over the cards it was covering, and every action afterwards reads or clicks on a card region.
+     *
+     * @param region the region being clicked on
+     * @return the regions to wait for after the click
+     */
+    protected List<Region> regionsChangedByClicking(Region region) {
+        List<Region> changed = new ArrayList<>();
+        changed.add(region);
+        if (regions != null) {
+            changed.addAll(Arrays.asList(regions.getTableau()));
+            if (regions.getStock() != null) {
+                changed.add(regions.getStock());
+            }
+            if (regions.getWaste() != null) {
+                changed.add(regions.getWaste());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the screen location that clicking on the region clicks on.
+     *
+     * @param region a region of the window
+     * @return the center of the region
+     */
+    protected Point centerOf(Region region) {
+        Location center = region.getCenter();
+        return new Point(center.x, center.y);
+    }
+
+    /**
+     * Waits until the whole window stops changing, for actions like undoing the board that change everything.  If
+     * nothing changes, the wait lasts the settle time, and the timeout is a fallback in case the window keeps
+     * changing.  Before the window is fully set up, this just sleeps until the timeout.
+     *
+     * @param settleMillis  how many milliseconds to wait for the window to start changing
+     * @param timeoutMillis the maximum number of milliseconds to wait
+     * @throws InterruptedException if the thread is interrupted
+     */
+    protected void waitForStableWindow(long settleMillis, long timeoutMillis) throws InterruptedException {
+        Rectangle window = new Rectangle(0, 0, (int) Math.round(WINDOW_WIDTH * windowScale),
+                (int) Math.round(WINDOW_HEIGHT * windowScale));
+        waitForStable(Collections.singletonList(window), settleMillis, timeoutMillis);
+    }
+
+    /**
+     * Waits until the regions of the window stop changing, for actions that only change part of the window.  Only
+     * these regions are captured and compared, so they should include everything the next action depends on.
+     *
+     * @param watched       the regions of the window to wait for
+     * @param settleMillis  how many milliseconds to wait for the regions to start changing
+     * @param timeoutMillis the maximum number of milliseconds to wait
+     * @throws InterruptedException if the thread is interrupted
+     */
+    protected void waitForStableRegions(List<Region> watched, long settleMillis, long timeoutMillis)
+            throws InterruptedException {
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (Region region : watched) {
+            rectangles.add(region.getRect());
+        }
+        waitForStable(rectangles, settleMillis, timeoutMillis);
+    }
+
+    private void waitForStable(List<Rectangle> rectangles, long settleMillis, long timeoutMillis)
+            throws InterruptedException {
+        if (frameWaiter == null) {
+            Thread.sleep(timeoutMillis);
+        } else {
+            frameWaiter.waitUntilStable(rectangles, settleMillis, timeoutMillis);
+        }
+    }
+
+    /**
+     * Returns a capture of a rectangle of the Microsoft Solitaire Collection window, which is at the top left corner
+     * of the primary display.
+     */
+    private BufferedImage capture(Rectangle rect) {
+        return Screen.getPrimaryScreen().capture(rect).getImage();
     }
 
     /**
@@ -280,20 +439,6 @@ public abstract class MSCWindow {
         return false;
     }
 
-    /**
-     * Returns a mapping between images and the rank / suit characters they represent.  Multiple images may map to
-     * the same character.
-     */
-    private Map<Image, Character> loadCharacterImages(String resourceDir, String characters) throws PlayException {
-        Map<Image, Character> images = new HashMap<>();
-        for (char c : characters.toCharArray()) {
-            for (String path : characterImageFilenames(resourceDir, c)) {
-                images.put(loadImage(path), c);
-            }
-        }
-        return images;
-    }
-
     /**
      * Return the SikuliX region representing the Microsoft Solitaire Collection window location.
      */
@@ -303,63 +448,56 @@ public abstract class MSCWindow {
     }
 
     /**
-     * Returns the best card rank / suit character for the card in the given region.
+     * Returns the size in [width]x[height] format for the Microsoft Solitaire Collection window.
      */
-    private Character bestCardCharacter(Region region, Map<Image, Character> imageToCharacter) {
-        Match match = region.findBest(imageToCharacter.keySet().toArray());
-        if (match == null) {
-            return null;
-        }
-        return imageToCharacter.get(match.getImage());
-    }
-
-    /**
-     * Returns a list of all the files in the src/main/resources/[game]/[resolution]/[rank or suit] directory.
-     * These are image files of the card rank or suit, used for guessing what cards are face up on the game window.
-     */
-    private java.util.List<String> characterImageFilenames(String resourceDir, char c) throws PlayException {
-        String imageDirectory = resourceDir + c + "/";
-        try {
-            URI uri = ClassLoader.getSystemResource(imageDirectory).toURI();
-            if (uri.getScheme().equals("jar")) {
-                try (FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap());
-                     DirectoryStream<Path> ds = Files.newDirectoryStream(fs.getPath(imageDirectory))) {
-                    return filesFromDirectoryStream(ds);
-                }
-            } else {
-                try (DirectoryStream<Path> ds = Files.newDirectoryStream(Paths.get(uri))) {
-                    return filesFromDirectoryStream(ds);
-                }
-            }
-        } catch (URISyntaxException ex) {
-            throw new PlayException("Unable to find resource directory for card-related character " + c, ex);
-        } catch (IOException ex) {
-            throw new PlayException("Unable to find image files for the card-related character " + c, ex);
-        }
+    private String getSizeString() {
+        DPI_AWARENESS_CONTEXT oldContext = DpiUser32.INSTANCE.SetThreadDpiAwarenessContext(DPI_AWARENESS_CONTEXT.PER_MONITOR_AWARE_V2);
+        WinDef.HWND hwnd = getHWND();
+        WinDef.RECT rect = new WinDef.RECT();
+        User32.INSTANCE.GetWindowRect(hwnd, rect);
+        DpiUser32.INSTANCE.SetThreadDpiAwarenessContext(oldContext);
+        return (rect.right - rect.left) + "x" + (rect.bottom - rect.top);
     }
 
     /**
-     * Returns a list of files from a jar or file system directory.
+     * Returns the size of the Microsoft Solitaire Collection window relative to 1440x900, rounded to the nearest
+     * percent.  The window isn't resized, and with display scaling it isn't 1440x900 pixels anyway, so this is used
+     * to scale images and regions to the actual window.  Both the width and height are measured, and a window that
+     * isn't the same shape as 1440x900 is rejected because the images and regions can't be scaled to fit it.
+     *
+     * @throws PlayException if the window's aspect ratio doesn't match 1440x900
      */
-    private java.util.List<String> filesFromDirectoryStream(DirectoryStream<Path> ds) {
-        List<String> filenames = new ArrayList<>();
-        for (Path path : ds) {
-            int nameCount = path.getNameCount();
-            filenames.add(path.subpath(nameCount - 3, nameCount).toString());
+    private double detectWindowScale() throws PlayException {
+        DPI_AWARENESS_CONTEXT oldContext = DpiUser32.INSTANCE.SetThreadDpiAwarenessContext(DPI_AWARENESS_CONTEXT.PER_MONITOR_AWARE_V2);
+        WinDef.RECT rect = new WinDef.RECT();
+        boolean found = User32.INSTANCE.GetWindowRect(getHWND(), rect);
+        DpiUser32.INSTANCE.SetThreadDpiAwarenessContext(oldContext);
+        int width = rect.right - rect.left;
+        int height = rect.bottom - rect.top;
+        if (!found || width <= 0 || height <= 0) {
+            return 1.0;
         }
-        return filenames;
+        double widthScale = Math.round(100.0 * width / WINDOW_WIDTH) / 100.0;
+        double heightScale = Math.round(100.0 * height / WINDOW_HEIGHT) / 100.0;
+        if (Math.abs(widthScale - heightScale) > MAX_SCALE_DIFFERENCE) {
+            throw new PlayException("The Microsoft Solitaire Collection window is " + width + "x" + height +
+                    ", please resize it to the same shape as " + WINDOW_SIZE + ".");
+        }
+        return widthScale;
     }
 
     /**
-     * Returns the size in [width]x[height] format for the Microsoft Solitaire Collection window.
+     * Returns the location and size of the virtual screen in physical pixels, looked up with the thread's DPI
+     * awareness switched to per-monitor.
      */
-    private String getSizeString() {
+    private static Rectangle virtualScreenBounds() {
         DPI_AWARENESS_CONTEXT oldContext = DpiUser32.INSTANCE.SetThreadDpiAwarenessContext(DPI_AWARENESS_CONTEXT.PER_MONITOR_AWARE_V2);
-        WinDef.HWND hwnd = getHWND();
-        WinDef.RECT rect = new WinDef.RECT();
-        User32.INSTANCE.GetWindowRect(hwnd, rect);
+        Rectangle bounds = new Rectangle(User32.INSTANCE.GetSystemMetrics(WinUser.SM_XVIRTUALSCREEN),
+                User32.INSTANCE.GetSystemMetrics(WinUser.SM_YVIRTUALSCREEN),
+                User32.INSTANCE.GetSystemMetrics(WinUser.SM_CXVIRTUALSCREEN),
+                User32.INSTANCE.GetSystemMetrics(WinUser.SM_CYVIRTUALSCREEN));
         DpiUser32.INSTANCE.SetThreadDpiAwarenessContext(oldContext);
-        return (rect.right - rect.left) + "x" + (rect.bottom - rect.top);
+        return bounds;
     }
 
     /**
@@ -414,11 +552,14 @@ public abstract class MSCWindow {
 
     /**
      * Moves the Microsoft Solitaire Collection window to the (0, 0) virtual screen coordinates (the top-left corner
-     * of the primary display) and resizes it.  Depending on the display scaling factor, the actual resolution
-     * afterwards may be different.
+     * of the primary display) without changing its size.
      */
     private boolean moveWindow(WinDef.HWND hwnd) {
-        return User32.INSTANCE.MoveWindow(hwnd, 0, 0, WINDOW_WIDTH, WINDOW_HEIGHT, true);
+        WinDef.RECT rect = new WinDef.RECT();
+        if (!User32.INSTANCE.GetWindowRect(hwnd, rect)) {
+            return false;
+        }
+        return User32.INSTANCE.MoveWindow(hwnd, 0, 0, rect.right - rect.left, rect.bottom - rect.top, true);
     }
 
     /**
@@ -435,37 +576,4 @@ public abstract class MSCWindow {
     private boolean setForegroundWindow(WinDef.HWND hwnd) {
         return User32.INSTANCE.SetForegroundWindow(hwnd);
     }
-
-    /**
-     * Returns the location of the mouse cursor in virtual screen coordinates.
-     */
-    private Point getMousePosition() {
-        PointerInfo pi = MouseInfo.getPointerInfo();
-        if (pi != null) {
-            return MouseInfo.getPointerInfo().getLocation();
-        }
-        return null;
-    }
-
-    /**
-     * Smoothly move the mouse to the given (X, Y) virtual screen coordinates over 500 milliseconds.
-     * This program never intentionally moves the mouse to (0, 0), so if the mouse is moved there
-     * by the user, use this as a signal to abort the program.
-     *
-     * @param x the X coordinate to move to
-     * @param y the Y coordinate to move to
-     */
-    private void moveMouseSmoothly(int x, int y) throws PlayException {
-        Point p = getMousePosition();
-        if (p != null) {
-            if ((p.x == 0) && (p.y == 0)) {
-                throw new PlayException("Mouse moved to (0, 0) to abort the program.");
-            }
-            Animator aniX = new AnimatorTimeBased(new AnimatorOutQuarticEase((float) p.x, (float) x, 500));
-            Animator aniY = new AnimatorTimeBased(new AnimatorOutQuarticEase((float) p.y, (float) y, 500));
-            while (aniX.running()) {
-                moveMouse((int) aniX.step(), (int) aniY.step());
-            }
-        }
-    }
 }
@@ -0,0 +1,61 @@
+package com.secondthorn.solitaireplayer.players;
+
+/**
+ * One low-level mouse input: moving the cursor to a location, or pressing or releasing the primary mouse button.
+ */
+class MouseInput {
+    /**
+     * The kinds of mouse input.
+     */
+    enum Type {
+        MOVE, PRIMARY_DOWN, PRIMARY_UP
+    }
+
+    private final Type type;
+    private final int x;
+    private final int y;
+
+    private MouseInput(Type type, int x, int y) {
+        this.type = type;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns an input to move the mouse cursor to the (X, Y) virtual screen coordinates.
+     */
+    static MouseInput move(int x, int y) {
+        return new MouseInput(Type.MOVE, x, y);
+    }
+
+    /**
+     * Returns an input to press the primary mouse button wherever the cursor is.
+     */
+    static MouseInput primaryDown() {
+        return new MouseInput(Type.PRIMARY_DOWN, 0, 0);
+    }
+
+    /**
+     * Returns an input to release the primary mouse button wherever the cursor is.
+     */
+    static MouseInput primaryUp() {
+        return new MouseInput(Type.PRIMARY_UP, 0, 0);
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    int getX() {
+        return x;
+    }
+
+    int getY() {
+        return y;
+    }
+
+    @Override
+    public String toString() {
+        return (type == Type.MOVE) ? type + "(" + x + ", " + y + ")" : type.toString();
+    }
+}
@@ -21,14 +21,14 @@ public class RegionDeserializer extends StdDeserializer<Region> {
         super(vc);
     }
 
-    static Regions createRegions(String regionsJsonFilename) throws PlayException {
+    static Regions createRegions(String regionsJson) throws PlayException {
         ObjectMapper mapper = new ObjectMapper();
         SimpleModule module = new SimpleModule().addDeserializer(Region.class, new RegionDeserializer(null));
         mapper.registerModule(module);
         try {
-            return mapper.readValue(ClassLoader.getSystemResource(regionsJsonFilename), Regions.class);
+            return mapper.readValue(regionsJson, Regions.class);
         } catch (IOException ex) {
-            throw new PlayException("Unable to load " + regionsJsonFilename, ex);
+            throw new PlayException("Unable to parse regions JSON", ex);
         }
     }
 
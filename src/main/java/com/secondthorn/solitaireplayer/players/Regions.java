@@ -12,6 +12,43 @@ public class Regions {
     private Region waste;
     private Region stock;
 
+    /**
+     * Returns a copy of these regions scaled for a game window of a different size.
+     *
+     * @param scale the size of the game window relative to 1440x900
+     * @return the regions as they would be in the game window
+     */
+    public Regions scaled(double scale) {
+        Regions regions = new Regions();
+        regions.tableau = new Region[tableau.length];
+        for (int i = 0; i < tableau.length; i++) {
+            regions.tableau[i] = scale(tableau[i], scale);
+        }
+        regions.waste = (waste == null) ? null : scale(waste, scale);
+        regions.stock = (stock == null) ? null : scale(stock, scale);
+        return regions;
+    }
+
+    /**
+     * Returns a region with its location and size multiplied by the scale.  Regions are relative to the game window
+     * at the top left corner of the primary display, so scaling them moves them to the same place in a larger or
+     * smaller game window.
+     *
+     * @param region a region in a 1440x900 game window
+     * @param scale  the size of the game window relative to 1440x900
+     * @return the region as it would be in the game window
+     */
+    public static Region scale(Region region, double scale) {
+        if (scale == 1.0) {
+            return region;
+        }
+        int x = (int) Math.round(region.x * scale);
+        int y = (int) Math.round(region.y * scale);
+        int width = (int) Math.round(region.w * scale);
+        int height = (int) Math.round(region.h * scale);
+        return new Region(x, y, width, height);
+    }
+
     /**
      * Return the regions for the 28 tableau cards (also known as the board or TriPeaks).
      */
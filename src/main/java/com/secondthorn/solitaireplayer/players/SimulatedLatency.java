@@ -0,0 +1,75 @@
+package com.secondthorn.solitaireplayer.players;
+
+/**
+ * How long a simulated game window takes to respond, so benchmarks can approximate the real game or run as fast as
+ * possible.
+ */
+public class SimulatedLatency {
+    /**
+     * No delays at all, for regression tests.
+     */
+    public static final SimulatedLatency NONE = new SimulatedLatency(0, 0, 0);
+
+    private long clickMillis;
+    private long readMillis;
+    private long undoBoardMillis;
+
+    /**
+     * Creates a set of simulated delays.
+     *
+     * @param clickMillis     how many milliseconds each click takes, including waiting for animations
+     * @param readMillis      how many milliseconds each capture of the window takes before cards can be read
+     * @param undoBoardMillis how many milliseconds it takes to reset the game to the beginning
+     */
+    public SimulatedLatency(long clickMillis, long readMillis, long undoBoardMillis) {
+        if (clickMillis < 0 || readMillis < 0 || undoBoardMillis < 0) {
+            throw new IllegalArgumentException("Simulated latencies can't be negative");
+        }
+        this.clickMillis = clickMillis;
+        this.readMillis = readMillis;
+        this.undoBoardMillis = undoBoardMillis;
+    }
+
+    /**
+     * Returns how many milliseconds each click takes.
+     */
+    public long getClickMillis() {
+        return clickMillis;
+    }
+
+    /**
+     * Waits as long as a click takes.
+     *
+     * @throws InterruptedException if the thread is interrupted
+     */
+    public void click() throws InterruptedException {
+        sleep(clickMillis);
+    }
+
+    /**
+     * Waits as long as capturing the window takes.  Reading cards can't be interrupted, so if the thread is
+     * interrupted, the wait ends early and the thread's interrupt status is set again for the next click to notice.
+     */
+    public void read() {
+        try {
+            sleep(readMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits as long as resetting the game takes.
+     *
+     * @throws InterruptedException if the thread is interrupted
+     */
+    public void undoBoard() throws InterruptedException {
+        sleep(undoBoardMillis);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
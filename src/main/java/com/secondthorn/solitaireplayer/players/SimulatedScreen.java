@@ -0,0 +1,124 @@
+package com.secondthorn.solitaireplayer.players;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws cards where the game window would show them and reads them back, for simulated game windows.
+ * <p>
+ * Each card is drawn with the game's own rank and suit images on a white background, in the same card regions the
+ * real window is read from, so the simulation reads cards through the same CardImageReader the real window uses.
+ * Unknown cards ("??"), such as face down or removed cards, are left blank and read back as "??".
+ */
+public class SimulatedScreen {
+    private List<Rectangle> tableau;
+    private Rectangle stock;
+    private Rectangle waste;
+    private CardImageReader reader;
+    private TemplateAtlas atlas;
+
+    /**
+     * Creates a simulated screen for the game, with the card regions from its regions.json.
+     *
+     * @param gameName the directory under src/main/resources/ for the game being played
+     * @throws PlayException if the game's regions or rank and suit images can't be loaded
+     */
+    public SimulatedScreen(String gameName) throws PlayException {
+        atlas = TemplateAtlas.forGame(gameName);
+        reader = CardImageReader.forScale(gameName, 1.0);
+        try {
+            JsonNode regions = new ObjectMapper().readTree(atlas.getRegionsJson());
+            tableau = new ArrayList<>();
+            for (JsonNode node : regions.get("tableau")) {
+                tableau.add(rectangle(node));
+            }
+            stock = rectangle(regions.get("stock"));
+            waste = rectangle(regions.get("waste"));
+        } catch (IOException ex) {
+            throw new PlayException("Unable to parse regions JSON for " + gameName, ex);
+        }
+    }
+
+    /**
+     * Return the regions for the 28 tableau cards.
+     */
+    public List<Rectangle> getTableau() {
+        return tableau;
+    }
+
+    /**
+     * Return the region for the stock pile, or null if the game doesn't have one.
+     */
+    public Rectangle getStock() {
+        return stock;
+    }
+
+    /**
+     * Return the region for the waste pile, or null if the game doesn't have one.
+     */
+    public Rectangle getWaste() {
+        return waste;
+    }
+
+    /**
+     * Returns the point in the middle of the region.
+     *
+     * @param region a card region
+     * @return the location that clicking on the region would click on
+     */
+    public static Point centerOf(Rectangle region) {
+        return new Point(region.x + region.width / 2, region.y + region.height / 2);
+    }
+
+    /**
+     * Draws the cards in their regions and reads them back.
+     *
+     * @param regions the regions to draw the cards in
+     * @param cards   the card in each region, or "??" to leave it blank
+     * @return the cards read from each region
+     */
+    public List<String> cardsAt(List<Rectangle> regions, List<String> cards) {
+        Rectangle bounds = new Rectangle(regions.get(0));
+        for (Rectangle region : regions) {
+            bounds.add(region);
+        }
+        BufferedImage image = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, bounds.width, bounds.height);
+        List<Rectangle> translated = new ArrayList<>(regions.size());
+        for (int i = 0; i < regions.size(); i++) {
+            Rectangle region = new Rectangle(regions.get(i));
+            region.translate(-bounds.x, -bounds.y);
+            translated.add(region);
+            String card = cards.get(i);
+            if (!card.equals("??")) {
+                drawCharacter(g, card.charAt(0), region.x + 1, region.y + 1);
+                drawCharacter(g, card.charAt(1), region.x + 1, region.y + 22);
+            }
+        }
+        g.dispose();
+        return reader.cardsAt(image, translated);
+    }
+
+    private void drawCharacter(Graphics2D g, char c, int x, int y) {
+        g.drawImage(atlas.glyphsFor("" + c).get(0).image, x, y, null);
+    }
+
+    private static Rectangle rectangle(JsonNode node) {
+        if (node == null) {
+            return null;
+        }
+        return new Rectangle(node.get("x").asInt(), node.get("y").asInt(),
+                node.get("width").asInt(), node.get("height").asInt());
+    }
+}
@@ -3,6 +3,7 @@ package com.secondthorn.solitaireplayer.players;
 import com.secondthorn.solitaireplayer.players.freecell.FreeCellPlayer;
 import com.secondthorn.solitaireplayer.players.pyramid.PyramidPlayer;
 import com.secondthorn.solitaireplayer.players.tripeaks.TriPeaksPlayer;
+import com.secondthorn.solitaireplayer.solvers.SolutionStore;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -56,6 +57,32 @@ public abstract class SolitairePlayer {
      */
     protected boolean showError = false;
 
+    /**
+     * Move the mouse instantly to whatever it clicks on, instead of smoothly so you can follow along.
+     */
+    protected boolean instantMouse = false;
+
+    /**
+     * The file of previously seen deals to look up deals in and add them to, or null to not use one.
+     */
+    protected String dealIndexFilename = null;
+
+    /**
+     * The file of previously found solutions to look up solutions in and add them to, or null to not use one.
+     */
+    protected String solutionCacheFilename = null;
+
+    /**
+     * How many milliseconds to keep looking for better solutions after finding the first one, or 0 to always find the
+     * best solution no matter how long it takes.
+     */
+    protected long timeBudgetMillis = 0;
+
+    /**
+     * How many milliseconds to spend sampling deals of the unknown cards to choose the next move, or 0 to not sample.
+     */
+    protected long monteCarloMillis = 0;
+
     /**
      * Instantiates and returns supported Solitaire Players.
      *
@@ -81,6 +108,78 @@ public abstract class SolitairePlayer {
                 break;
             }
         }
+        boolean instantMouse = false;
+        for (int i=0; i<argsList.size(); i++) {
+            if (argsList.get(i).equalsIgnoreCase("--instant-mouse")) {
+                instantMouse = true;
+                argsList.remove(i);
+                break;
+            }
+        }
+        String dealIndexFilename = null;
+        for (int i=0; i<argsList.size(); i++) {
+            if (argsList.get(i).equalsIgnoreCase("--deal-index")) {
+                if (i == argsList.size() - 1) {
+                    throw new IllegalArgumentException("A filename is required after a --deal-index option.");
+                }
+                dealIndexFilename = argsList.get(i + 1);
+                argsList.remove(i + 1);
+                argsList.remove(i);
+                break;
+            }
+        }
+        String solutionCacheFilename = null;
+        for (int i=0; i<argsList.size(); i++) {
+            if (argsList.get(i).equalsIgnoreCase("--solution-cache")) {
+                if (i == argsList.size() - 1) {
+                    throw new IllegalArgumentException("A filename is required after a --solution-cache option.");
+                }
+                solutionCacheFilename = argsList.get(i + 1);
+                argsList.remove(i + 1);
+                argsList.remove(i);
+                break;
+            }
+        }
+        long timeBudgetMillis = 0;
+        for (int i=0; i<argsList.size(); i++) {
+            if (argsList.get(i).equalsIgnoreCase("--time-budget")) {
+                if (i == argsList.size() - 1) {
+                    throw new IllegalArgumentException("Milliseconds are required after a --time-budget option.");
+                }
+                try {
+                    timeBudgetMillis = Long.parseLong(argsList.get(i + 1));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("The --time-budget option needs a number of milliseconds: " +
+                            argsList.get(i + 1));
+                }
+                if (timeBudgetMillis <= 0) {
+                    throw new IllegalArgumentException("The --time-budget option must be more than 0 milliseconds.");
+                }
+                argsList.remove(i + 1);
+                argsList.remove(i);
+                break;
+            }
+        }
+        long monteCarloMillis = 0;
+        for (int i=0; i<argsList.size(); i++) {
+            if (argsList.get(i).equalsIgnoreCase("--monte-carlo")) {
+                if (i == argsList.size() - 1) {
+                    throw new IllegalArgumentException("Milliseconds are required after a --monte-carlo option.");
+                }
+                try {
+                    monteCarloMillis = Long.parseLong(argsList.get(i + 1));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("The --monte-carlo option needs a number of milliseconds: " +
+                            argsList.get(i + 1));
+                }
+                if (monteCarloMillis <= 0) {
+                    throw new IllegalArgumentException("The --monte-carlo option must be more than 0 milliseconds.");
+                }
+                argsList.remove(i + 1);
+                argsList.remove(i);
+                break;
+            }
+        }
         if (argsList.size() < 1) {
             throw new IllegalArgumentException("Too few arguments to create a solitaire player.");
         }
@@ -106,6 +205,11 @@ public abstract class SolitairePlayer {
         }
         player.showPrompts = showPrompts;
         player.showError = showError;
+        player.instantMouse = instantMouse;
+        player.dealIndexFilename = dealIndexFilename;
+        player.solutionCacheFilename = solutionCacheFilename;
+        player.timeBudgetMillis = timeBudgetMillis;
+        player.monteCarloMillis = monteCarloMillis;
         return player;
     }
 
@@ -253,6 +357,34 @@ public abstract class SolitairePlayer {
         return cards.stream().filter(this::isUnknownCard).count();
     }
 
+    /**
+     * Opens the index of previously seen deals for the game, if one was given on the command line.
+     *
+     * @param gameName the name of the game being played
+     * @return the deal index, or null if not using one
+     * @throws PlayException if the deal index file can't be read
+     */
+    protected DealIndex openDealIndex(String gameName) throws PlayException {
+        return (dealIndexFilename == null) ? null : new DealIndex(gameName, Paths.get(dealIndexFilename));
+    }
+
+    /**
+     * Opens the store of previously found solutions, if one was given on the command line.
+     *
+     * @return the solution store, or null if not using one
+     * @throws PlayException if the solution store file can't be read
+     */
+    protected SolutionStore openSolutionStore() throws PlayException {
+        if (solutionCacheFilename == null) {
+            return null;
+        }
+        try {
+            return new SolutionStore(Paths.get(solutionCacheFilename));
+        } catch (IOException ex) {
+            throw new PlayException("Unable to open solution cache \"" + solutionCacheFilename + "\".", ex);
+        }
+    }
+
     /**
      * Returns a list of cards contained in the given file.
      *
@@ -0,0 +1,104 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Waits for the game window to stop changing, such as after clicking on a card and waiting for its animation to end.
+ * <p>
+ * The parts of the window that the next action depends on are captured repeatedly, and once the same frame is seen a
+ * number of times in a row the window is considered stable.  This is usually much faster than sleeping long enough for
+ * the slowest animation, but if the window never stops changing, the wait ends after a hard timeout.  Frames are
+ * compared by a hash of the pixels in those parts of the window only.
+ * <p>
+ * An animation may not have started yet when the wait begins, so a stable frame only counts after the frames have
+ * changed at least once.  If nothing changes, such as after a click that doesn't do anything, the wait ends after a
+ * settle delay chosen for the action instead.
+ */
+class StableFrameWaiter {
+    /**
+     * The default number of identical frames in a row for the window to be considered stable.
+     */
+    static final int DEFAULT_STABLE_FRAMES = 3;
+
+    /**
+     * The default time between captures of the window, about two frames at 60 frames per second.
+     */
+    static final long DEFAULT_FRAME_INTERVAL_MILLIS = 30;
+
+    private Function<Rectangle, BufferedImage> capture;
+    private int stableFrames;
+    private long frameIntervalMillis;
+
+    /**
+     * Creates a waiter that captures parts of the screen with the given function.
+     *
+     * @param capture             captures the given rectangle of the screen
+     * @param stableFrames        how many identical frames in a row means the window is stable
+     * @param frameIntervalMillis how many milliseconds to sleep between captures
+     */
+    StableFrameWaiter(Function<Rectangle, BufferedImage> capture, int stableFrames, long frameIntervalMillis) {
+        if (stableFrames < 1) {
+            throw new IllegalArgumentException("The number of stable frames must be at least 1: " + stableFrames);
+        }
+        if (frameIntervalMillis < 0) {
+            throw new IllegalArgumentException("The frame interval can't be negative: " + frameIntervalMillis);
+        }
+        this.capture = capture;
+        this.stableFrames = stableFrames;
+        this.frameIntervalMillis = frameIntervalMillis;
+    }
+
+    /**
+     * Waits until the rectangles of the screen are stable.  Stable frames only count once the frames have changed, or
+     * once the settle delay has passed without any change, so that an animation that hasn't started yet isn't
+     * mistaken for a stable window.
+     *
+     * @param rectangles    the parts of the screen to watch, which are captured together in one capture
+     * @param settleMillis  how many milliseconds to wait for something to change before stable frames count anyway
+     * @param timeoutMillis the maximum number of milliseconds to wait
+     * @return true if the window became stable, false if the wait timed out
+     * @throws InterruptedException if the thread is interrupted
+     */
+    boolean waitUntilStable(List<Rectangle> rectangles, long settleMillis, long timeoutMillis)
+            throws InterruptedException {
+        Rectangle bounds = new Rectangle(rectangles.get(0));
+        rectangles.forEach(bounds::add);
+        long start = System.nanoTime();
+        long previousHash = 0L;
+        int identicalFrames = 0;
+        boolean changed = false;
+        while (true) {
+            long hash = hash(capture.apply(bounds), bounds, rectangles);
+            if (identicalFrames > 0 && hash == previousHash) {
+                identicalFrames++;
+            } else {
+                changed |= identicalFrames > 0;
+                identicalFrames = 1;
+            }
+            previousHash = hash;
+            long elapsedMillis = (System.nanoTime() - start) / 1000000;
+            if (identicalFrames >= stableFrames && (changed || elapsedMillis >= settleMillis)) {
+                return true;
+            }
+            if (elapsedMillis >= timeoutMillis) {
+                return false;
+            }
+            Thread.sleep(Math.min(frameIntervalMillis, timeoutMillis - elapsedMillis));
+        }
+    }
+
+    /**
+     * Returns a hash of the pixels inside the rectangles, from a capture of their bounding box.
+     */
+    private static long hash(BufferedImage image, Rectangle bounds, List<Rectangle> rectangles) {
+        long hash = 0L;
+        for (Rectangle r : rectangles) {
+            int[] pixels = image.getRGB(r.x - bounds.x, r.y - bounds.y, r.width, r.height, null, 0, r.width);
+            hash = hash * 31 + CardCache.pixelHash(pixels, r.width, r.height);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,253 @@
+package com.secondthorn.solitaireplayer.players;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All the rank and suit images and the regions.json contents for a game, packed into one binary resource.
+ * <p>
+ * Loading a game's rank and suit images one file at a time means listing the image directories inside the jar file
+ * and decoding dozens of small PNG files every time a player starts.  The build runs this class's main method to write
+ * a templates.atlas file into each game's resources directory, which is then read with one sequential read and no PNG
+ * decoding.  If there is no atlas, such as when running from the source tree without building, the individual files
+ * are loaded instead.  Either way, each game's atlas is only loaded once.
+ * <p>
+ * The atlas format is a magic number and version, the regions.json text, the number of images, and then for each
+ * image its rank or suit character, width, height, and RGB pixels.
+ */
+public class TemplateAtlas {
+    /**
+     * The name of the atlas file in each game's resources directory.
+     */
+    public static final String RESOURCE_NAME = "templates.atlas";
+
+    private static final int MAGIC = 0x53504154;
+    private static final int VERSION = 1;
+
+    /**
+     * The characters that have a directory of images in each game's resources directory.
+     */
+    private static final String CHARACTERS = "A23456789TJQKcdhs";
+
+    /**
+     * Atlases that have already been loaded, keyed by game name.
+     */
+    private static final Map<String, TemplateAtlas> atlases = new ConcurrentHashMap<>();
+
+    private String regionsJson;
+    private List<Glyph> glyphs;
+
+    /**
+     * Creates an atlas.
+     *
+     * @param regionsJson the contents of the game's regions.json file
+     * @param glyphs      the rank and suit images for the game
+     */
+    TemplateAtlas(String regionsJson, List<Glyph> glyphs) {
+        this.regionsJson = regionsJson;
+        this.glyphs = Collections.unmodifiableList(glyphs);
+    }
+
+    /**
+     * Returns the atlas for the game, reading it from the game's templates.atlas resource if it exists, or the
+     * individual image files and regions.json otherwise.
+     *
+     * @param gameName the directory under src/main/resources/ for the game being played
+     * @return the game's atlas
+     * @throws PlayException if the atlas or the files can't be loaded
+     */
+    public static TemplateAtlas forGame(String gameName) throws PlayException {
+        TemplateAtlas atlas = atlases.get(gameName);
+        if (atlas == null) {
+            URL url = ClassLoader.getSystemResource(gameName + "/" + RESOURCE_NAME);
+            if (url == null) {
+                atlas = fromResourceFiles(gameName);
+            } else {
+                try (InputStream in = url.openStream()) {
+                    atlas = read(in);
+                } catch (IOException ex) {
+                    throw new PlayException("Unable to load " + url, ex);
+                }
+            }
+            TemplateAtlas existing = atlases.putIfAbsent(gameName, atlas);
+            if (existing != null) {
+                atlas = existing;
+            }
+        }
+        return atlas;
+    }
+
+    /**
+     * Creates an atlas from the individual rank and suit image files and regions.json for the game.
+     *
+     * @param gameName the directory under src/main/resources/ for the game being played
+     * @return an atlas containing the contents of the files
+     * @throws PlayException if the files can't be loaded
+     */
+    static TemplateAtlas fromResourceFiles(String gameName) throws PlayException {
+        String gameResourceDir = gameName + "/";
+        List<Glyph> glyphs = new ArrayList<>();
+        for (char c : CHARACTERS.toCharArray()) {
+            for (String path : CardImageReader.characterImageFilenames(gameResourceDir, c)) {
+                try {
+                    glyphs.add(new Glyph(c, ImageIO.read(ClassLoader.getSystemResource(path))));
+                } catch (IOException ex) {
+                    throw new PlayException("Unable to load image " + path, ex);
+                }
+            }
+        }
+        String regionsFilename = gameResourceDir + "regions.json";
+        try (InputStream in = ClassLoader.getSystemResource(regionsFilename).openStream()) {
+            return new TemplateAtlas(new String(readFully(in), StandardCharsets.UTF_8), glyphs);
+        } catch (IOException ex) {
+            throw new PlayException("Unable to load " + regionsFilename, ex);
+        }
+    }
+
+    /**
+     * Reads an atlas in the format written by write().
+     *
+     * @param in the stream to read from
+     * @return the atlas
+     * @throws IOException if there's a problem reading the stream or it isn't an atlas
+     */
+    static TemplateAtlas read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not a template atlas, or an unsupported version");
+        }
+        byte[] regionsBytes = new byte[data.readInt()];
+        data.readFully(regionsBytes);
+        int numGlyphs = data.readInt();
+        List<Glyph> glyphs = new ArrayList<>(numGlyphs);
+        for (int i = 0; i < numGlyphs; i++) {
+            char character = data.readChar();
+            int width = data.readInt();
+            int height = data.readInt();
+            int[] pixels = new int[width * height];
+            for (int j = 0; j < pixels.length; j++) {
+                pixels[j] = data.readInt();
+            }
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            image.setRGB(0, 0, width, height, pixels, 0, width);
+            glyphs.add(new Glyph(character, image));
+        }
+        return new TemplateAtlas(new String(regionsBytes, StandardCharsets.UTF_8), glyphs);
+    }
+
+    /**
+     * Writes the atlas to the stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if there's a problem writing to the stream
+     */
+    void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        byte[] regionsBytes = regionsJson.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(regionsBytes.length);
+        data.write(regionsBytes);
+        data.writeInt(glyphs.size());
+        for (Glyph glyph : glyphs) {
+            int width = glyph.image.getWidth();
+            int height = glyph.image.getHeight();
+            data.writeChar(glyph.character);
+            data.writeInt(width);
+            data.writeInt(height);
+            for (int pixel : glyph.image.getRGB(0, 0, width, height, null, 0, width)) {
+                data.writeInt(pixel);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Returns the contents of the game's regions.json file.
+     */
+    public String getRegionsJson() {
+        return regionsJson;
+    }
+
+    /**
+     * Returns the images for the characters, in the order they were loaded.  Multiple images may map to the same
+     * character.
+     *
+     * @param characters the rank or suit characters to get images for
+     * @return the images for any of the characters
+     */
+    List<Glyph> glyphsFor(String characters) {
+        List<Glyph> result = new ArrayList<>();
+        for (Glyph glyph : glyphs) {
+            if (characters.indexOf(glyph.character) >= 0) {
+                result.add(glyph);
+            }
+        }
+        return result;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, n);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a templates.atlas file for each game into its directory under the output directory.  This is run by the
+     * build with src/main/resources on the classpath, and the output directory is then added to the resources.
+     *
+     * @param args the output directory followed by the game names
+     */
+    public static void main(String[] args) throws IOException, PlayException {
+        if (args.length < 2) {
+            System.err.println("Usage: TemplateAtlas <output directory> <game name>...");
+            System.exit(1);
+        }
+        for (int i = 1; i < args.length; i++) {
+            File dir = new File(args[0], args[i]);
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Unable to create directory " + dir);
+            }
+            File file = new File(dir, RESOURCE_NAME);
+            TemplateAtlas atlas = fromResourceFiles(args[i]);
+            try (OutputStream out = new FileOutputStream(file)) {
+                atlas.write(out);
+            }
+            System.out.println("Wrote " + atlas.glyphs.size() + " images to " + file);
+        }
+    }
+
+    /**
+     * A rank or suit image and the character it represents.
+     */
+    static class Glyph {
+        final char character;
+        final BufferedImage image;
+
+        Glyph(char character, BufferedImage image) {
+            this.character = character;
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.secondthorn.solitaireplayer.players;
+
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinUser;
+
+import java.awt.MouseInfo;
+import java.awt.Point;
+import java.awt.PointerInfo;
+import java.awt.Rectangle;
+import java.util.List;
+
+/**
+ * Sends mouse input with the Windows SendInput function.
+ * <p>
+ * Cursor movement already exists in the java.awt.Robot class but with JDK 8 it has issues with multi-monitor and
+ * HiDPI setups, so absolute moves are sent over the virtual screen instead.  The virtual screen is a bounding box
+ * around all the monitors, where (0, 0) is the top left corner of the primary monitor, not the virtual screen.  So
+ * virtual screen coordinates can be negative.  Its size is given when the backend is created, which means changing the
+ * monitor setup while the program runs isn't supported.
+ */
+class Win32InputBackend implements InputBackend {
+    private static final int MOUSEEVENTF_MOVE = 0x0001;
+    private static final int MOUSEEVENTF_LEFTDOWN = 0x0002;
+    private static final int MOUSEEVENTF_LEFTUP = 0x0004;
+    private static final int MOUSEEVENTF_RIGHTDOWN = 0x0008;
+    private static final int MOUSEEVENTF_RIGHTUP = 0x0010;
+    private static final int MOUSEEVENTF_VIRTUALDESK = 0x4000;
+    private static final int MOUSEEVENTF_ABSOLUTE = 0x8000;
+    private static final int SM_SWAPBUTTON = 23;
+
+    private final int left;
+    private final int top;
+    private final int width;
+    private final int height;
+    private final int primaryDownFlag;
+    private final int primaryUpFlag;
+
+    /**
+     * Creates a backend for the virtual screen and the current mouse button settings.  The primary mouse button is the
+     * right button if the user swapped them.
+     *
+     * @param virtualScreen the location and size of the virtual screen in physical pixels
+     */
+    Win32InputBackend(Rectangle virtualScreen) {
+        left = virtualScreen.x;
+        top = virtualScreen.y;
+        width = virtualScreen.width;
+        height = virtualScreen.height;
+        boolean buttonsSwapped = User32.INSTANCE.GetSystemMetrics(SM_SWAPBUTTON) != 0;
+        primaryDownFlag = buttonsSwapped ? MOUSEEVENTF_RIGHTDOWN : MOUSEEVENTF_LEFTDOWN;
+        primaryUpFlag = buttonsSwapped ? MOUSEEVENTF_RIGHTUP : MOUSEEVENTF_LEFTUP;
+    }
+
+    @Override
+    public Point getCursorPosition() {
+        PointerInfo pi = MouseInfo.getPointerInfo();
+        return (pi == null) ? null : pi.getLocation();
+    }
+
+    @Override
+    public void send(List<MouseInput> inputs) {
+        if (inputs.isEmpty()) {
+            return;
+        }
+        WinUser.INPUT[] array = (WinUser.INPUT[]) new WinUser.INPUT().toArray(inputs.size());
+        for (int i = 0; i < array.length; i++) {
+            MouseInput mouseInput = inputs.get(i);
+            WinUser.INPUT input = array[i];
+            input.type = new WinDef.DWORD(WinUser.INPUT.INPUT_MOUSE);
+            input.input.setType("mi");
+            input.input.mi.mouseData = new WinDef.DWORD(0);
+            input.input.mi.time = new WinDef.DWORD(0);
+            input.input.mi.dx = new WinDef.LONG(0);
+            input.input.mi.dy = new WinDef.LONG(0);
+            switch (mouseInput.getType()) {
+                case MOVE:
+                    input.input.mi.dx = new WinDef.LONG((((mouseInput.getX() - left) * 65536L) / width) + 1);
+                    input.input.mi.dy = new WinDef.LONG((((mouseInput.getY() - top) * 65536L) / height) + 1);
+                    input.input.mi.dwFlags =
+                            new WinDef.DWORD(MOUSEEVENTF_MOVE | MOUSEEVENTF_ABSOLUTE | MOUSEEVENTF_VIRTUALDESK);
+                    break;
+                case PRIMARY_DOWN:
+                    input.input.mi.dwFlags = new WinDef.DWORD(primaryDownFlag);
+                    break;
+                case PRIMARY_UP:
+                    input.input.mi.dwFlags = new WinDef.DWORD(primaryUpFlag);
+                    break;
+            }
+        }
+        User32.INSTANCE.SendInput(new WinDef.DWORD(array.length), array, array[0].size());
+    }
+}
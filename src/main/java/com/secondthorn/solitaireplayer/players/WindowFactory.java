@@ -0,0 +1,19 @@
+package com.secondthorn.solitaireplayer.players;
+
+/**
+ * Creates the window a player interacts with, so a player can play the Microsoft Solitaire Collection window or a
+ * simulation of it.
+ *
+ * @param <T> the type of window for the game being played
+ */
+@FunctionalInterface
+public interface WindowFactory<T> {
+    /**
+     * Creates the window.
+     *
+     * @return the window to play the game in
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if the window can't be found or isn't ready to play
+     */
+    T create() throws InterruptedException, PlayException;
+}
@@ -39,6 +39,7 @@ public class FreeCellPlayer extends SolitairePlayer {
     @Override
     public void autoplay() throws InterruptedException, PlayException {
         FreeCellWindow window = new FreeCellWindow();
+        window.setInstantMouse(instantMouse);
         window.moveMouse(1, 1);
         List<String> cards = scanCardsOnScreen(window);
         cards = verifyCards(cards);
@@ -131,10 +132,6 @@ public class FreeCellPlayer extends SolitairePlayer {
     }
 
     private List<String> scanCardsOnScreen(FreeCellWindow window) {
-        List<String> cards = new ArrayList<>();
-        for (int i=0; i<52; i++) {
-            cards.add(window.cardAt(i));
-        }
-        return cards;
+        return new ArrayList<>(window.cardsAtTableau());
     }
 }
\ No newline at end of file
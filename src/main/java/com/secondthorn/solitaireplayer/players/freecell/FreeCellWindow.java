@@ -3,6 +3,9 @@ package com.secondthorn.solitaireplayer.players.freecell;
 import com.secondthorn.solitaireplayer.players.MSCWindow;
 import com.secondthorn.solitaireplayer.players.PlayException;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class FreeCellWindow extends MSCWindow {
     public FreeCellWindow() throws InterruptedException, PlayException {
         super("FreeCell");
@@ -17,4 +20,13 @@ public class FreeCellWindow extends MSCWindow {
     String cardAt(int deckIndex) {
         return cardAt(regions.getTableau()[deckIndex]);
     }
+
+    /**
+     * Returns all 52 cards on the FreeCell tableau, capturing the window only once. The code
+     * might guess the wrong cards or return "??" for unknown cards.
+     * @return the cards on the tableau, from deck index 0 to 51
+     */
+    List<String> cardsAtTableau() {
+        return cardsAt(Arrays.asList(regions.getTableau()));
+    }
 }
@@ -0,0 +1,85 @@
+package com.secondthorn.solitaireplayer.players.pyramid;
+
+import com.secondthorn.solitaireplayer.players.MSCWindow;
+import com.secondthorn.solitaireplayer.players.PlayException;
+import org.sikuli.script.Region;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Methods for a PyramidPlayer to interact with the Microsoft Solitaire Collection window.
+ */
+class MSCPyramidWindow extends MSCWindow implements PyramidWindow {
+    /**
+     * An image of the button to draw a card from the stock pile to the waste pile,
+     * or recycle the deck when the stock pile is empty.
+     */
+    private Region drawButton = scaled(new Region(698, 579, 50, 33));
+
+    MSCPyramidWindow() throws InterruptedException, PlayException {
+        super("Pyramid");
+    }
+
+    @Override
+    public void draw() throws InterruptedException, PlayException {
+        clickRegion(drawButton);
+    }
+
+    @Override
+    public void recycle() throws InterruptedException, PlayException {
+        clickRegion(drawButton);
+        waitForStableRegions(regionsChangedByClicking(drawButton), RECYCLE_MIN_MILLIS, 1000);
+    }
+
+    @Override
+    public Point locationOf(String target) {
+        switch (target) {
+            case "Draw":
+            case "Recycle":
+                return centerOf(drawButton);
+            case "Stock":
+                return centerOf(regions.getStock());
+            case "Waste":
+                return centerOf(regions.getWaste());
+            default:
+                return centerOf(regions.getTableau()[Integer.parseInt(target)]);
+        }
+    }
+
+    @Override
+    public void clickPyramidCardIndex(int pyramidIndex) throws InterruptedException, PlayException {
+        clickRegion(regions.getTableau()[pyramidIndex]);
+    }
+
+    @Override
+    public void clickStockCard() throws InterruptedException, PlayException {
+        clickRegion(regions.getStock());
+    }
+
+    @Override
+    public void clickWasteCard() throws InterruptedException, PlayException {
+        clickRegion(regions.getWaste());
+    }
+
+    @Override
+    public String cardAtPyramid(int pyramidIndex) {
+        return cardAt(regions.getTableau()[pyramidIndex]);
+    }
+
+    @Override
+    public List<String> cardsAtPyramid() {
+        return cardsAt(Arrays.asList(regions.getTableau()));
+    }
+
+    @Override
+    public String cardAtDeck() {
+        return cardAt(regions.getStock());
+    }
+
+    @Override
+    public String cardAtWaste() {
+        return cardAt(regions.getWaste());
+    }
+}
@@ -1,18 +1,29 @@
 package com.secondthorn.solitaireplayer.players.pyramid;
 
+import com.secondthorn.solitaireplayer.players.ClickPlanner;
+import com.secondthorn.solitaireplayer.players.DealIndex;
 import com.secondthorn.solitaireplayer.players.PlayException;
 import com.secondthorn.solitaireplayer.players.SolitairePlayer;
+import com.secondthorn.solitaireplayer.players.WindowFactory;
+import com.secondthorn.solitaireplayer.solvers.SolutionStore;
 import com.secondthorn.solitaireplayer.solvers.pyramid.Action;
+import com.secondthorn.solitaireplayer.solvers.pyramid.AdaptiveSolver;
 import com.secondthorn.solitaireplayer.solvers.pyramid.BoardChallengeSolver;
+import com.secondthorn.solitaireplayer.solvers.pyramid.CachingSolver;
 import com.secondthorn.solitaireplayer.solvers.pyramid.CardChallengeSolver;
 import com.secondthorn.solitaireplayer.solvers.pyramid.Deck;
 import com.secondthorn.solitaireplayer.solvers.pyramid.PyramidSolver;
 import com.secondthorn.solitaireplayer.solvers.pyramid.ScoreChallengeSolver;
+import com.secondthorn.solitaireplayer.solvers.pyramid.SpeculativeSolver;
+import com.secondthorn.solitaireplayer.solvers.pyramid.State;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.sikuli.script.Sikulix.popAsk;
 import static org.sikuli.script.Sikulix.popSelect;
@@ -40,9 +51,34 @@ public class PyramidPlayer extends SolitairePlayer {
     }
 
     /**
-     * Figures out the steps to take to reach the solitaire goal.
+     * Creates a solver for the goal, for each deck to solve.
      */
-    private PyramidSolver solver;
+    private Supplier<PyramidSolver> solverFactory;
+
+    /**
+     * The solver type and goal, such as "Score 1290 0", to keep solutions for different goals apart in the cache.
+     */
+    private String solverGoal;
+
+    /**
+     * The most times to solve again from the middle of a game, when the game doesn't match what the solution expects.
+     */
+    private static final int MAX_RESOLVES = 3;
+
+    /**
+     * Figures out the steps to take to reach the solitaire goal, starting while the cards are still being read.
+     */
+    private SpeculativeSolver solver;
+
+    /**
+     * Creates the window to play the game in.
+     */
+    private WindowFactory<PyramidWindow> windowFactory = MSCPyramidWindow::new;
+
+    /**
+     * Deals seen before, to skip reading the rest of the stock pile when the deal is recognized, or null if unused.
+     */
+    private DealIndex dealIndex;
 
     /**
      * Creates a new PyramidPlayer instance based on command line args for Board, Score, or Card Challenges.
@@ -51,6 +87,7 @@ public class PyramidPlayer extends SolitairePlayer {
      * <li>Board</li>
      * <li>Score</li>
      * <li>Score [goal score] [current score]</li>
+     * <li>Score [goal score] [current score] [beam width or "Beam" for the default width]</li>
      * <li>Card [goal number of cards to clear] [goal card rank] [current number of cards cleared]</li>
      * </ul>
      *
@@ -61,13 +98,28 @@ public class PyramidPlayer extends SolitairePlayer {
         String goalType = args.length > 0 ? args[0] : "board";
         switch (goalType.toLowerCase()) {
             case "board":
-                solver = new BoardChallengeSolver();
+                solverFactory = () -> (timeBudgetMillis > 0)
+                        ? new BoardChallengeSolver(timeBudgetMillis, System.out::println)
+                        : new AdaptiveSolver(System.out::println);
+                solverGoal = "Board";
                 System.out.println("Starting a Pyramid Solitaire Board Challenge...");
                 break;
             case "score":
                 int goalScore = (args.length > 1) ? parseInt(args[1]) : ScoreChallengeSolver.MAX_POSSIBLE_SCORE;
                 int currentScore = (args.length > 2) ? parseInt(args[2]) : 0;
-                solver = new ScoreChallengeSolver(goalScore, currentScore);
+                if (args.length > 3) {
+                    int beamWidth = args[3].equalsIgnoreCase("beam")
+                            ? ScoreChallengeSolver.DEFAULT_BEAM_WIDTH
+                            : parseInt(args[3]);
+                    if (beamWidth <= 0) {
+                        throw new IllegalArgumentException("The beam width must be positive: " + beamWidth);
+                    }
+                    solverFactory = () -> new ScoreChallengeSolver(goalScore, currentScore, beamWidth);
+                    solverGoal = "Score " + goalScore + " " + currentScore + " " + beamWidth;
+                } else {
+                    solverFactory = () -> new ScoreChallengeSolver(goalScore, currentScore);
+                    solverGoal = "Score " + goalScore + " " + currentScore;
+                }
                 System.out.print("Starting a Pyramid Solitaire Score Challenge: ");
                 if (args.length == 1) {
                     System.out.println("find the maximum possible score...");
@@ -82,7 +134,9 @@ public class PyramidPlayer extends SolitairePlayer {
                 int goalNumCardsToClear = parseInt(args[1]);
                 char cardRankToClear = parseCardRank(args[2]);
                 int currentNumCardsCleared = parseInt(args[3]);
-                solver = new CardChallengeSolver(goalNumCardsToClear, cardRankToClear, currentNumCardsCleared);
+                solverFactory = () ->
+                        new CardChallengeSolver(goalNumCardsToClear, cardRankToClear, currentNumCardsCleared);
+                solverGoal = "Card " + goalNumCardsToClear + " " + cardRankToClear + " " + currentNumCardsCleared;
                 System.out.print("Starting a Pyramid Solitaire Card Challenge: ");
                 System.out.print("clear " + goalNumCardsToClear + " cards of rank " + cardRankToClear);
                 System.out.println(", with " + currentNumCardsCleared + " cleared so far");
@@ -90,6 +144,31 @@ public class PyramidPlayer extends SolitairePlayer {
             default:
                 throw new IllegalArgumentException("Unknown goal for Pyramid Solitaire: " + goalType);
         }
+        solver = new SpeculativeSolver(solverFactory, solverGoal.equals("Board"));
+    }
+
+    /**
+     * Sets how to create the window to play the game in, such as a simulated window for testing without a screen.
+     *
+     * @param windowFactory creates the window when autoplay starts
+     */
+    void setWindowFactory(WindowFactory<PyramidWindow> windowFactory) {
+        this.windowFactory = windowFactory;
+    }
+
+    /**
+     * Looks up solutions in the store before solving, and saves new solutions to it.
+     *
+     * @param store the store of previously found solutions, or null to always solve
+     */
+    private void useSolutionStore(SolutionStore store) {
+        if (store != null) {
+            String goal = (timeBudgetMillis > 0 && solverGoal.equals("Board"))
+                    ? "Board within " + timeBudgetMillis + " ms"
+                    : solverGoal;
+            solver = new SpeculativeSolver(() -> new CachingSolver(solverFactory.get(), store, goal),
+                    solverGoal.equals("Board"));
+        }
     }
 
     /**
@@ -101,32 +180,61 @@ public class PyramidPlayer extends SolitairePlayer {
      */
     @Override
     public void autoplay() throws InterruptedException, PlayException {
-        PyramidWindow window = new PyramidWindow();
+        dealIndex = openDealIndex("Pyramid");
+        useSolutionStore(openSolutionStore());
+        PyramidWindow window = windowFactory.create();
+        window.setInstantMouse(instantMouse);
         window.undoBoard();
         window.moveMouse(1, 1);
-        List<String> cards = scanCardsOnScreen(window);
-        Deck deck = new Deck(verifyCards(cards));
-        Map<String, List<Action>> solutions = solver.solve(deck);
+        List<String> cards = verifyCards(scanCardsOnScreen(window));
+        if (dealIndex != null) {
+            dealIndex.add(cards);
+        }
+        Deck deck = new Deck(cards);
+        Map<String, List<Action>> solutions = solve(deck, State.INITIAL_STATE);
+        solver.shutdown();
         printSolutions(solutions);
         List<Action> solutionToPlay = chooseSolution(solutions);
         window.undoBoard();
         window.moveMouse(1, 1);
-        playSolution(solutionToPlay, window);
+        playSolution(solutionToPlay, window, deck, cards);
     }
 
     /**
      * Prints out the solution(s) but doesn't do any SikuliX-based automation to play the game.
      *
-     * @throws PlayException if the user cancels while the program is verifying the deck of cards
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if the user cancels while the program is verifying the deck of cards
      */
     @Override
-    public void preview(String filename) throws PlayException {
+    public void preview(String filename) throws InterruptedException, PlayException {
+        useSolutionStore(openSolutionStore());
         List<String> cards = readCardsFromFile(filename);
         Deck deck = new Deck(verifyCards(cards));
-        Map<String, List<Action>> solutions = solver.solve(deck);
+        Map<String, List<Action>> solutions = solve(deck, State.INITIAL_STATE);
         printSolutions(solutions);
     }
 
+    /**
+     * Solves the deck, making sure that no solutions means the goal can't be reached and not that the solver gave up.
+     *
+     * @param deck  the deck of cards being played
+     * @param state the state to start solving from
+     * @return the solutions found by the solver
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if the solver gave up without finding a solution or proving there isn't one
+     */
+    private Map<String, List<Action>> solve(Deck deck, long state) throws InterruptedException, PlayException {
+        Map<String, List<Action>> solutions = solver.solve(deck, state);
+        if (!solver.isConclusive()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            throw new PlayException("The solver gave up without finding a solution or proving there isn't one.");
+        }
+        return solutions;
+    }
+
     /**
      * Returns true if the list of cards works for playing Pyramid Solitaire.  It must be a standard deck of 52 cards
      * without any unknown cards.
@@ -190,7 +298,8 @@ public class PyramidPlayer extends SolitairePlayer {
 
     /**
      * Looks through all the cards in the game and returns a list of the cards seen.
-     * The cards may be wrong and must be verified and corrected by the user.
+     * The cards may be wrong and must be verified and corrected by the user.  If the deal is in the deal index, the
+     * rest of the cards are taken from there after reading the first few stock pile cards.
      *
      * @param window the PyramidWindow to help read cards on the screen
      * @return a list of all the cards found on the screen
@@ -198,19 +307,41 @@ public class PyramidPlayer extends SolitairePlayer {
      * @throws PlayException        if there's a problem looking for cards in the Microsoft Solitaire Collection window
      */
     private List<String> scanCardsOnScreen(PyramidWindow window) throws InterruptedException, PlayException {
-        List<String> cards = new ArrayList<>();
-        for (int i = 0; i < 28; i++) {
-            cards.add(window.cardAtPyramid(i));
-        }
+        List<String> cards = new ArrayList<>(window.cardsAtPyramid());
+        solver.prepare(cards);
         for (int i = 0; i < 24; i++) {
-            String card = window.cardAtDeck();
-            cards.add(card);
+            cards.add(window.cardAtDeck());
+            List<String> deal = (i == DealIndex.PREFIX_STOCK_CARDS - 1) ? lookupDeal(cards) : null;
+            if (deal != null) {
+                cards = new ArrayList<>(deal);
+            }
+            if (cards.size() == 52) {
+                solver.speculate(cards);
+            }
+            if (deal != null) {
+                break;
+            }
             window.draw();
         }
         window.undoBoard();
         return cards;
     }
 
+    /**
+     * Returns the deal in the deal index that starts with the cards read so far, or null if there isn't exactly one
+     * or there is no deal index.
+     *
+     * @param cards the pyramid cards and the first few stock pile cards
+     * @return all 52 cards of the deal, or null if it wasn't found
+     */
+    private List<String> lookupDeal(List<String> cards) {
+        List<String> deal = (dealIndex == null) ? null : dealIndex.lookup(cards);
+        if (deal != null) {
+            System.out.println("Found this deal in the deal index, so the rest of the stock pile won't be read.");
+        }
+        return deal;
+    }
+
     /**
      * Given zero or more solutions from the solver, have the user select one, or cancel and exit.
      *
@@ -260,37 +391,149 @@ public class PyramidPlayer extends SolitairePlayer {
 
     /**
      * Performs a list of actions generated by the solver on the game window.
+     * <p>
+     * Before each recycle, when the stock pile should be empty and the game is known to still be going, the board is
+     * read and compared with what the solution expects.  If a click was missed, such as a draw that left a card on the
+     * stock pile, or the game is otherwise different, it solves again from the cards on the screen and plays that
+     * solution instead of starting the game over.
      *
      * @param solution a list of Actions to perform
      * @param window   the PyramidWindow to perform the actions on
+     * @param deck     the deck of cards being played
+     * @param cards    the 52 cards in the deck
      * @throws InterruptedException if the thread is interrupted
      * @throws PlayException        if there's a problem clicking on cards
      */
-    private void playSolution(List<Action> solution, PyramidWindow window) throws InterruptedException, PlayException {
-        for (Action action : solution) {
+    private void playSolution(List<Action> solution, PyramidWindow window, Deck deck, List<String> cards)
+            throws InterruptedException, PlayException {
+        ClickPlanner wholePlan = planClicks(solution, window);
+        System.out.printf("Playing %d clicks, estimated to take %.1f seconds.%n", wholePlan.getTargets().size(),
+                wholePlan.getEstimatedMillis() / 1000.0);
+        Set<String> remainingCards = new HashSet<>(cards);
+        int cycle = 1;
+        int numResolves = 0;
+        int start = 0;
+        while (start < solution.size()) {
+            int end = start + 1;
+            while (end < solution.size() && solution.get(end).getCommand() != Action.Command.RECYCLE) {
+                end++;
+            }
+            List<Action> segment = solution.subList(start, end);
+            for (String target : planClicks(segment, window).getTargets()) {
+                window.click(target);
+            }
+            for (Action action : segment) {
+                if (action.getCommand() == Action.Command.RECYCLE) {
+                    cycle++;
+                } else if (action.getCommand() == Action.Command.REMOVE) {
+                    remainingCards.removeAll(action.getCards());
+                }
+            }
+            start = end;
+            if (start < solution.size() && numResolves < MAX_RESOLVES) {
+                String stockCard = window.cardAtDeck();
+                Set<String> observedCards = observedRemainingCards(cards, remainingCards, window.cardsAtPyramid(),
+                        stockCard, window.cardAtWaste());
+                if (!observedCards.equals(remainingCards) || !stockCard.equals("??")) {
+                    numResolves++;
+                    System.out.println("The game doesn't match the solution, solving again from the current board.");
+                    List<Action> newSolution;
+                    try {
+                        String topStockCard = stockCard.equals("??") ? null : stockCard;
+                        newSolution = resolve(deck, State.create(deck, observedCards, topStockCard, cycle));
+                    } catch (IllegalArgumentException ex) {
+                        System.out.println("Unable to make sense of the current board, continuing the solution.");
+                        continue;
+                    }
+                    if (newSolution == null) {
+                        System.out.println("There's no solution from the current board.");
+                        return;
+                    }
+                    solution = newSolution;
+                    remainingCards = observedCards;
+                    start = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves the game from the middle and has the user select a solution if there's more than one.
+     *
+     * @param deck  the deck of cards being played
+     * @param state the state of the game on the screen
+     * @return the solution to play from the current board, or null if there isn't one
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if the user cancels or the solver gives up
+     */
+    private List<Action> resolve(Deck deck, long state) throws InterruptedException, PlayException {
+        Map<String, List<Action>> solutions = solve(deck, state);
+        printSolutions(solutions);
+        return solutions.isEmpty() ? null : chooseSolution(solutions);
+    }
+
+    /**
+     * Returns the cards that haven't been removed yet according to the screen, before a recycle.  Pyramid cards that
+     * can't be read are taken to be removed.  The stock pile should be empty, but if a draw was missed, the card on top
+     * of it hasn't been removed.  The cards in the waste pile come before the stock pile in deck order, so the ones
+     * between the top of the waste pile and the top of the stock pile have been removed.  Any other stock and waste
+     * pile cards can't be seen, so the expected cards are used for them.
+     *
+     * @param cards          the 52 cards in the deck
+     * @param expectedCards  the cards that the solution expects haven't been removed yet
+     * @param pyramidCards   the cards read from the 28 pyramid positions
+     * @param stockCard      the card read from the top of the stock pile, "??" if it's empty
+     * @param wasteCard      the card read from the top of the waste pile, "??" if it's empty
+     * @return the cards that haven't been removed yet
+     */
+    static Set<String> observedRemainingCards(List<String> cards, Set<String> expectedCards,
+                                              List<String> pyramidCards, String stockCard, String wasteCard) {
+        Set<String> observedCards = new HashSet<>(expectedCards);
+        for (int i = 0; i < 28; i++) {
+            if (pyramidCards.get(i).equals("??")) {
+                observedCards.remove(cards.get(i));
+            } else {
+                observedCards.add(cards.get(i));
+            }
+        }
+        int stockIndex = cards.indexOf(stockCard);
+        if (stockIndex >= 28) {
+            observedCards.add(stockCard);
+        } else {
+            stockIndex = 52;
+        }
+        int wasteIndex = cards.indexOf(wasteCard);
+        if (wasteIndex >= 28 || wasteCard.equals("??")) {
+            for (int i = Math.max(28, wasteIndex + 1); i < stockIndex; i++) {
+                observedCards.remove(cards.get(i));
+            }
+            if (wasteIndex >= 28) {
+                observedCards.add(wasteCard);
+            }
+        }
+        return observedCards;
+    }
+
+    /**
+     * Plans the clicks to perform a list of actions, starting from where the mouse cursor is now.
+     */
+    private static ClickPlanner planClicks(List<Action> actions, PyramidWindow window) {
+        ClickPlanner planner = new ClickPlanner(window::locationOf, window.getClickCostModel(),
+                window.getCursorPosition());
+        for (Action action : actions) {
             switch (action.getCommand()) {
                 case DRAW:
-                    window.draw();
+                    planner.click("Draw");
                     break;
                 case RECYCLE:
-                    window.recycle();
+                    planner.click("Recycle");
+                    planner.addDelay(PyramidWindow.RECYCLE_MIN_MILLIS);
                     break;
                 case REMOVE:
-                    for (int i = 0; i < action.getPositions().size(); i++) {
-                        String position = action.getPositions().get(i);
-                        switch (position) {
-                            case "Stock":
-                                window.clickStockCard();
-                                break;
-                            case "Waste":
-                                window.clickWasteCard();
-                                break;
-                            default:
-                                window.clickPyramidCardIndex(Integer.parseInt(position));
-                        }
-                    }
+                    planner.clickInAnyOrder(action.getPositions());
                     break;
             }
         }
+        return planner;
     }
 }
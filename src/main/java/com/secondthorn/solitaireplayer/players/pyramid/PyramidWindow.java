@@ -1,23 +1,51 @@
 package com.secondthorn.solitaireplayer.players.pyramid;
 
-import com.secondthorn.solitaireplayer.players.MSCWindow;
+import com.secondthorn.solitaireplayer.players.ClickCostModel;
 import com.secondthorn.solitaireplayer.players.PlayException;
-import org.sikuli.script.Image;
-import org.sikuli.script.Region;
+
+import java.awt.Point;
+import java.util.List;
 
 /**
- * Methods for a PyramidPlayer to interact with the Microsoft Solitaire Collection window.
+ * Methods for a PyramidPlayer to interact with a Pyramid Solitaire game, either the Microsoft Solitaire Collection
+ * window or a simulation of it.
  */
-class PyramidWindow extends MSCWindow {
+interface PyramidWindow {
     /**
-     * An image of the button to draw a card from the stock pile to the waste pile,
-     * or recycle the deck when the stock pile is empty.
+     * The minimum time to wait for the deck to finish recycling.
      */
-    private Region drawButton = new Region(698, 579, 50, 33);
+    long RECYCLE_MIN_MILLIS = 250;
 
-    PyramidWindow() throws InterruptedException, PlayException {
-        super("Pyramid");
-    }
+    /**
+     * Sets whether the mouse moves instantly to the things it clicks on, or moves smoothly.
+     * @param instant true to move the mouse instantly, false to move it smoothly
+     */
+    void setInstantMouse(boolean instant);
+
+    /**
+     * Resets the game to the beginning if the option is available, otherwise do nothing.
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException if there's a problem clicking on the Undo Board / OK buttons
+     */
+    void undoBoard() throws InterruptedException, PlayException;
+
+    /**
+     * Instantly move the mouse cursor to the given (X, Y) virtual screen coordinates, e.g. to move it out of the way
+     * of the cards.
+     * @param x the virtual screen X coordinate to move the mouse cursor to
+     * @param y the virtual screen Y coordinate to move the mouse cursor to
+     */
+    void moveMouse(int x, int y);
+
+    /**
+     * Returns the location of the mouse cursor in virtual screen coordinates, or null if it's unknown.
+     */
+    Point getCursorPosition();
+
+    /**
+     * Returns a model of how long clicking on things takes.
+     */
+    ClickCostModel getClickCostModel();
 
     /**
      * Draws a card from the stock pile to the waste pile. There are no checks in place to make sure this is possible.
@@ -25,9 +53,7 @@ class PyramidWindow extends MSCWindow {
      * @throws InterruptedException if the thread is interrupted
      * @throws PlayException if unable to click on the Draw button
      */
-    void draw() throws InterruptedException, PlayException {
-        clickRegion(drawButton);
-    }
+    void draw() throws InterruptedException, PlayException;
 
     /**
      * Recycles the waste pile back into the stock pile. There are no checks in place to make sure this is possible.
@@ -36,35 +62,29 @@ class PyramidWindow extends MSCWindow {
      * @throws InterruptedException if the thread is interrupted
      * @throws PlayException if unable to click on the Draw button
      */
-    void recycle() throws InterruptedException, PlayException {
-        clickRegion(drawButton);
-        Thread.sleep(1000);
-    }
+    void recycle() throws InterruptedException, PlayException;
 
     /**
      * Clicks on a card in the Pyramid. The user must make sure that the card is not blocked by any cards from below.
      * @param pyramidIndex a pyramid index from 0 to 27
      * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException if unable to click on the card
      */
-    void clickPyramidCardIndex(int pyramidIndex) throws InterruptedException, PlayException {
-        clickRegion(regions.getTableau()[pyramidIndex]);
-    }
+    void clickPyramidCardIndex(int pyramidIndex) throws InterruptedException, PlayException;
 
     /**
      * Clicks on the card at the top of the stock pile. The user must make sure that there is a card here.
      * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException if unable to click on the card
      */
-    void clickStockCard() throws InterruptedException, PlayException {
-        clickRegion(regions.getStock());
-    }
+    void clickStockCard() throws InterruptedException, PlayException;
 
     /**
      * Clicks on the card at the top of the waste pile. The user must make sure that there is a card here.
-     * @throws InterruptedException
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException if unable to click on the card
      */
-    void clickWasteCard() throws InterruptedException, PlayException {
-        clickRegion(regions.getWaste());
-    }
+    void clickWasteCard() throws InterruptedException, PlayException;
 
     /**
      * Returns the card at the given index of the Pyramid. The code might guess the wrong card or return "??" for
@@ -72,16 +92,59 @@ class PyramidWindow extends MSCWindow {
      * @param pyramidIndex a pyramid index from 0 to 27
      * @return the card at the given index or "??" if unknown
      */
-    String cardAtPyramid(int pyramidIndex) {
-        return cardAt(regions.getTableau()[pyramidIndex]);
-    }
+    String cardAtPyramid(int pyramidIndex);
+
+    /**
+     * Returns the cards at all 28 positions of the Pyramid, capturing the window only once.  The code might guess the
+     * wrong cards or return "??" for unknown cards.
+     * @return the cards in the pyramid, from index 0 to 27
+     */
+    List<String> cardsAtPyramid();
 
     /**
      * Returns the card at the top of the stock pile. The code might guess the wrong card or return "??" for unknown
      * card.
      * @return the card at the top of the stock pile or "??" if unknown
      */
-    String cardAtDeck() {
-        return cardAt(regions.getStock());
+    String cardAtDeck();
+
+    /**
+     * Returns the card at the top of the waste pile. The code might guess the wrong card or return "??" for unknown
+     * card or an empty waste pile.
+     * @return the card at the top of the waste pile or "??" if unknown
+     */
+    String cardAtWaste();
+
+    /**
+     * Returns the screen location of a click target: "Draw" or "Recycle" for the button to draw or recycle the deck,
+     * "Stock" or "Waste" for the top card of those piles, or a pyramid index from 0 to 27.
+     * @param target the name of what to click on
+     * @return the location that clicking on the target would click on
+     */
+    Point locationOf(String target);
+
+    /**
+     * Clicks on a target, as named in locationOf().
+     * @param target the name of what to click on
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException if unable to click on the target
+     */
+    default void click(String target) throws InterruptedException, PlayException {
+        switch (target) {
+            case "Draw":
+                draw();
+                break;
+            case "Recycle":
+                recycle();
+                break;
+            case "Stock":
+                clickStockCard();
+                break;
+            case "Waste":
+                clickWasteCard();
+                break;
+            default:
+                clickPyramidCardIndex(Integer.parseInt(target));
+        }
     }
 }
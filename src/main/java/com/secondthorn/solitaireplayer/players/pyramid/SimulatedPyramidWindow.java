@@ -0,0 +1,292 @@
+package com.secondthorn.solitaireplayer.players.pyramid;
+
+import com.secondthorn.solitaireplayer.players.ClickCostModel;
+import com.secondthorn.solitaireplayer.players.PlayException;
+import com.secondthorn.solitaireplayer.players.SimulatedLatency;
+import com.secondthorn.solitaireplayer.players.SimulatedScreen;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Pyramid Solitaire game played in memory instead of in the Microsoft Solitaire Collection window, for running
+ * the player without a screen in regression tests and benchmarks.
+ * <p>
+ * The game is dealt from a deck of 52 cards: the first 28 are the pyramid and the rest are the stock pile from top to
+ * bottom.  Cards are read back from images drawn with the game's rank and suit images, so card reading goes through
+ * the same code as the real window.  Unlike the real game, a move that isn't allowed throws a PlayException instead of
+ * being ignored, so mistakes in the player show up right away.
+ */
+class SimulatedPyramidWindow implements PyramidWindow {
+    private static final String RANKS = "A23456789TJQK";
+
+    private static final int MAX_CYCLES = 3;
+
+    private List<String> cards;
+    private SimulatedLatency latency;
+    private SimulatedScreen screen;
+    private Point cursor = new Point(1, 1);
+    private int numClicks = 0;
+
+    private boolean[] removed;
+    private List<String> stock;
+    private List<String> waste;
+    private int cycle;
+
+    /**
+     * The position of the card that was clicked on and is waiting for a card to pair with, or null if none.
+     */
+    private String selected;
+
+    /**
+     * Creates a simulated game dealt from the deck of cards.
+     *
+     * @param cards   the 28 pyramid cards followed by the 24 stock pile cards from top to bottom
+     * @param latency how long each click and read takes
+     * @throws PlayException if the rank and suit images can't be loaded
+     */
+    SimulatedPyramidWindow(List<String> cards, SimulatedLatency latency) throws PlayException {
+        if (cards.size() != 52) {
+            throw new IllegalArgumentException("A Pyramid Solitaire deck must have 52 cards: " + cards.size());
+        }
+        this.cards = new ArrayList<>(cards);
+        this.latency = latency;
+        screen = new SimulatedScreen("Pyramid");
+        reset();
+    }
+
+    /**
+     * Returns true if all 28 pyramid cards have been removed.
+     */
+    boolean isBoardCleared() {
+        for (boolean isRemoved : removed) {
+            if (!isRemoved) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns how many times something in the window has been clicked on, including the Undo Board button.
+     */
+    int getNumClicks() {
+        return numClicks;
+    }
+
+    @Override
+    public void setInstantMouse(boolean instant) {
+    }
+
+    @Override
+    public void undoBoard() throws InterruptedException {
+        numClicks++;
+        latency.undoBoard();
+        reset();
+    }
+
+    @Override
+    public void moveMouse(int x, int y) {
+        cursor = new Point(x, y);
+    }
+
+    @Override
+    public Point getCursorPosition() {
+        return cursor;
+    }
+
+    @Override
+    public ClickCostModel getClickCostModel() {
+        return new ClickCostModel(latency.getClickMillis());
+    }
+
+    @Override
+    public void draw() throws InterruptedException, PlayException {
+        clickAt("Draw");
+        if (stock.isEmpty()) {
+            throw new PlayException("Can't draw a card when the stock pile is empty");
+        }
+        selected = null;
+        waste.add(stock.remove(stock.size() - 1));
+    }
+
+    @Override
+    public void recycle() throws InterruptedException, PlayException {
+        clickAt("Recycle");
+        if (!stock.isEmpty() || cycle == MAX_CYCLES) {
+            throw new PlayException("Can't recycle the waste pile in cycle " + cycle + " with " + stock.size() +
+                    " cards in the stock pile");
+        }
+        selected = null;
+        Collections.reverse(waste);
+        stock.addAll(waste);
+        waste.clear();
+        cycle++;
+    }
+
+    @Override
+    public void clickPyramidCardIndex(int pyramidIndex) throws InterruptedException, PlayException {
+        String position = Integer.toString(pyramidIndex);
+        clickAt(position);
+        if (removed[pyramidIndex] || isCovered(pyramidIndex)) {
+            throw new PlayException("Can't click on pyramid card " + pyramidIndex + ", it's removed or covered");
+        }
+        select(position);
+    }
+
+    @Override
+    public void clickStockCard() throws InterruptedException, PlayException {
+        clickAt("Stock");
+        if (stock.isEmpty()) {
+            throw new PlayException("Can't click on the stock pile when it's empty");
+        }
+        select("Stock");
+    }
+
+    @Override
+    public void clickWasteCard() throws InterruptedException, PlayException {
+        clickAt("Waste");
+        if (waste.isEmpty()) {
+            throw new PlayException("Can't click on the waste pile when it's empty");
+        }
+        select("Waste");
+    }
+
+    @Override
+    public String cardAtPyramid(int pyramidIndex) {
+        return cardsAtPyramid().get(pyramidIndex);
+    }
+
+    @Override
+    public List<String> cardsAtPyramid() {
+        latency.read();
+        List<String> pyramidCards = new ArrayList<>(28);
+        for (int i = 0; i < 28; i++) {
+            pyramidCards.add(removed[i] ? "??" : cards.get(i));
+        }
+        return screen.cardsAt(screen.getTableau(), pyramidCards);
+    }
+
+    @Override
+    public String cardAtDeck() {
+        latency.read();
+        String card = stock.isEmpty() ? "??" : stock.get(stock.size() - 1);
+        return screen.cardsAt(Collections.singletonList(screen.getStock()), Collections.singletonList(card)).get(0);
+    }
+
+    @Override
+    public String cardAtWaste() {
+        latency.read();
+        String card = waste.isEmpty() ? "??" : waste.get(waste.size() - 1);
+        return screen.cardsAt(Collections.singletonList(screen.getWaste()), Collections.singletonList(card)).get(0);
+    }
+
+    @Override
+    public Point locationOf(String target) {
+        switch (target) {
+            case "Draw":
+            case "Recycle":
+                // the draw button is between the stock and waste piles
+                Rectangle stockRegion = screen.getStock();
+                Rectangle wasteRegion = screen.getWaste();
+                return SimulatedScreen.centerOf(stockRegion.union(wasteRegion));
+            case "Stock":
+                return SimulatedScreen.centerOf(screen.getStock());
+            case "Waste":
+                return SimulatedScreen.centerOf(screen.getWaste());
+            default:
+                return SimulatedScreen.centerOf(screen.getTableau().get(Integer.parseInt(target)));
+        }
+    }
+
+    /**
+     * Deals the cards for the start of a game.
+     */
+    private void reset() {
+        removed = new boolean[28];
+        stock = new ArrayList<>(cards.subList(28, 52));
+        Collections.reverse(stock);
+        waste = new ArrayList<>();
+        cycle = 1;
+        selected = null;
+    }
+
+    /**
+     * Moves the cursor to the target and waits as long as a click takes.
+     */
+    private void clickAt(String target) throws InterruptedException {
+        cursor = locationOf(target);
+        numClicks++;
+        latency.click();
+    }
+
+    /**
+     * Selects the card at the position.  A King is removed by itself, and any other card is removed along with the
+     * card selected before it.  Clicking on the selected card again deselects it.
+     */
+    private void select(String position) throws PlayException {
+        if (rankValue(cardAt(position)) == 13) {
+            selected = null;
+            remove(position);
+        } else if (selected == null) {
+            selected = position;
+        } else if (selected.equals(position)) {
+            selected = null;
+        } else {
+            String other = selected;
+            selected = null;
+            if (rankValue(cardAt(position)) + rankValue(cardAt(other)) != 13) {
+                throw new PlayException("Can't remove " + cardAt(other) + " and " + cardAt(position) +
+                        ", their ranks don't add up to 13");
+            }
+            remove(other);
+            remove(position);
+        }
+    }
+
+    private String cardAt(String position) {
+        switch (position) {
+            case "Stock":
+                return stock.get(stock.size() - 1);
+            case "Waste":
+                return waste.get(waste.size() - 1);
+            default:
+                return cards.get(Integer.parseInt(position));
+        }
+    }
+
+    private void remove(String position) {
+        switch (position) {
+            case "Stock":
+                stock.remove(stock.size() - 1);
+                break;
+            case "Waste":
+                waste.remove(waste.size() - 1);
+                break;
+            default:
+                removed[Integer.parseInt(position)] = true;
+        }
+    }
+
+    /**
+     * Returns true if either of the two cards below the pyramid card are still there.
+     */
+    private boolean isCovered(int pyramidIndex) {
+        int row = 0;
+        while ((row + 1) * (row + 2) / 2 <= pyramidIndex) {
+            row++;
+        }
+        if (row == 6) {
+            return false;
+        }
+        int below = pyramidIndex + row + 1;
+        return !removed[below] || !removed[below + 1];
+    }
+
+    private static int rankValue(String card) {
+        return RANKS.indexOf(card.charAt(0)) + 1;
+    }
+}
@@ -0,0 +1,84 @@
+package com.secondthorn.solitaireplayer.players.tripeaks;
+
+import com.secondthorn.solitaireplayer.players.MSCWindow;
+import com.secondthorn.solitaireplayer.players.PlayException;
+import org.sikuli.script.Image;
+import org.sikuli.script.Region;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Methods for a TriPeaksPlayer to interact with the Microsoft Solitaire Collection window.
+ */
+class MSCTriPeaksWindow extends MSCWindow implements TriPeaksWindow {
+    /**
+     * An image to detect if the "No more moves" dialog popped up.
+     */
+    private Image undoLastMoveDialogImage;
+
+    /**
+     * The location of the "Undo last move" button that appears when the player runs out of moves.
+     */
+    private Region undoLastMove = scaled(new Region(781, 542, 214, 23));
+
+    MSCTriPeaksWindow() throws InterruptedException, PlayException {
+        super("TriPeaks");
+        undoLastMoveDialogImage = loadImage("TriPeaks/UndoLastMoveDialog.png");
+    }
+
+    @Override
+    public boolean undoWhenNoMoreMoves() throws InterruptedException, PlayException {
+        if (appRegion().exists(undoLastMoveDialogImage, 1.0d) != null) {
+            clickRegion(undoLastMove);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}  The Undo Board button is found by searching for its image, so its location is null.
+     */
+    @Override
+    public Point locationOf(String target) {
+        switch (target) {
+            case "UndoBoard":
+                return null;
+            case "Stock":
+                return centerOf(regions.getStock());
+            default:
+                return centerOf(regions.getTableau()[Integer.parseInt(target)]);
+        }
+    }
+
+    @Override
+    public void clickTableauCard(int index) throws InterruptedException, PlayException {
+        clickRegion(regions.getTableau()[index]);
+    }
+
+    @Override
+    public void clickStockCard() throws InterruptedException, PlayException {
+        clickRegion(regions.getStock());
+    }
+
+    @Override
+    public void draw() throws InterruptedException, PlayException {
+        clickRegion(regions.getStock());
+    }
+
+    @Override
+    public String cardAtTableau(int index) {
+        return cardAt(regions.getTableau()[index]);
+    }
+
+    @Override
+    public List<String> cardsAtTableau() {
+        return cardsAt(Arrays.asList(regions.getTableau()));
+    }
+
+    @Override
+    public String cardAtWaste() {
+        return cardAt(regions.getWaste());
+    }
+}
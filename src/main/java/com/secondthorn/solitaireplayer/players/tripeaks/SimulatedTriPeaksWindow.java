@@ -0,0 +1,187 @@
+package com.secondthorn.solitaireplayer.players.tripeaks;
+
+import com.secondthorn.solitaireplayer.players.ClickCostModel;
+import com.secondthorn.solitaireplayer.players.PlayException;
+import com.secondthorn.solitaireplayer.players.SimulatedLatency;
+import com.secondthorn.solitaireplayer.players.SimulatedScreen;
+import com.secondthorn.solitaireplayer.solvers.tripeaks.Deck;
+import com.secondthorn.solitaireplayer.solvers.tripeaks.State;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A TriPeaks Solitaire game played in memory instead of in the Microsoft Solitaire Collection window, for running
+ * the player without a screen in regression tests and benchmarks.
+ * <p>
+ * The game is dealt from a deck with no unknown cards, and the moves allowed are the same as the solver's.  Face down
+ * cards read as unknown, and when there are no more moves, the "No more moves!" dialog hides the waste pile until the
+ * last move is undone.  Unlike the real game, a move that isn't allowed throws a PlayException instead of being
+ * ignored, so mistakes in the player show up right away.
+ */
+class SimulatedTriPeaksWindow implements TriPeaksWindow {
+    private Deck deck;
+    private SimulatedLatency latency;
+    private SimulatedScreen screen;
+    private Point cursor = new Point(1, 1);
+    private int numClicks = 0;
+
+    private int state = State.INITIAL_STATE;
+    private int previousState = State.INITIAL_STATE;
+    private boolean noMoreMovesDialog = false;
+
+    /**
+     * Creates a simulated game dealt from the deck of cards.
+     *
+     * @param deck    the cards in the game, none of which can be unknown
+     * @param latency how long each click and read takes
+     * @throws PlayException if the rank and suit images can't be loaded
+     */
+    SimulatedTriPeaksWindow(Deck deck, SimulatedLatency latency) throws PlayException {
+        if (deck.hasUnknownCards()) {
+            throw new IllegalArgumentException("A simulated TriPeaks Solitaire deck can't have unknown cards");
+        }
+        this.deck = deck;
+        this.latency = latency;
+        screen = new SimulatedScreen("TriPeaks");
+    }
+
+    /**
+     * Returns true if all 28 tableau cards have been removed.
+     */
+    boolean isBoardCleared() {
+        return State.isTableauEmpty(state);
+    }
+
+    /**
+     * Returns how many times something in the window has been clicked on, including the Undo Board button.
+     */
+    int getNumClicks() {
+        return numClicks;
+    }
+
+    @Override
+    public void setInstantMouse(boolean instant) {
+    }
+
+    @Override
+    public void positionForPlay() {
+    }
+
+    @Override
+    public void undoBoard() throws InterruptedException {
+        numClicks++;
+        latency.undoBoard();
+        state = State.INITIAL_STATE;
+        previousState = State.INITIAL_STATE;
+        noMoreMovesDialog = false;
+    }
+
+    @Override
+    public Point getCursorPosition() {
+        return cursor;
+    }
+
+    @Override
+    public ClickCostModel getClickCostModel() {
+        return new ClickCostModel(latency.getClickMillis());
+    }
+
+    @Override
+    public boolean undoWhenNoMoreMoves() throws InterruptedException {
+        if (noMoreMovesDialog) {
+            numClicks++;
+            latency.click();
+            state = previousState;
+            noMoreMovesDialog = false;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clickTableauCard(int index) throws InterruptedException, PlayException {
+        clickAt(Integer.toString(index));
+        int tableauIndex = State.getTableauIndex(state);
+        int tableauFlags = State.TABLEAU_FLAGS[tableauIndex] ^ (1 << index);
+        int tableauId = State.TABLEAU_FLAGS_TO_ID.get(tableauFlags);
+        move(State.create(tableauId, index, State.getStockIndex(state)), "move tableau card " + index);
+    }
+
+    @Override
+    public void clickStockCard() throws InterruptedException, PlayException {
+        clickAt("Stock");
+        int stockIndex = State.getStockIndex(state);
+        move(State.create(State.getTableauIndex(state), stockIndex, stockIndex + 1), "draw a card");
+    }
+
+    @Override
+    public void draw() throws InterruptedException, PlayException {
+        clickStockCard();
+    }
+
+    @Override
+    public String cardAtTableau(int index) {
+        return cardsAtTableau().get(index);
+    }
+
+    @Override
+    public List<String> cardsAtTableau() {
+        latency.read();
+        List<String> cards = new ArrayList<>(Collections.nCopies(28, Deck.UNKNOWN_CARD));
+        for (int index : State.TABLEAU_FACE_UP_INDEXES[State.getTableauIndex(state)]) {
+            cards.set(index, deck.cardAt(index));
+        }
+        return screen.cardsAt(screen.getTableau(), cards);
+    }
+
+    @Override
+    public String cardAtWaste() {
+        latency.read();
+        String card = noMoreMovesDialog ? Deck.UNKNOWN_CARD : deck.cardAt(State.getWasteIndex(state));
+        return screen.cardsAt(Collections.singletonList(screen.getWaste()), Collections.singletonList(card)).get(0);
+    }
+
+    @Override
+    public Point locationOf(String target) {
+        switch (target) {
+            case "UndoBoard":
+                return null;
+            case "Stock":
+                return SimulatedScreen.centerOf(screen.getStock());
+            default:
+                return SimulatedScreen.centerOf(screen.getTableau().get(Integer.parseInt(target)));
+        }
+    }
+
+    /**
+     * Moves the cursor to the target and waits as long as a click takes.
+     */
+    private void clickAt(String target) throws InterruptedException {
+        cursor = locationOf(target);
+        numClicks++;
+        latency.click();
+    }
+
+    /**
+     * Changes to the next state if it's a valid move, popping up the "No more moves!" dialog if there aren't any
+     * moves left after it.
+     */
+    private void move(int nextState, String description) throws PlayException {
+        if (noMoreMovesDialog) {
+            throw new PlayException("Can't " + description + " while the \"No more moves!\" dialog is showing");
+        }
+        boolean valid = false;
+        for (int successor : State.successors(state, deck)) {
+            valid |= (successor == nextState);
+        }
+        if (!valid) {
+            throw new PlayException("Can't " + description + ", it isn't a valid move");
+        }
+        previousState = state;
+        state = nextState;
+        noMoreMovesDialog = !State.isTableauEmpty(state) && State.successors(state, deck).length == 0;
+    }
+}
@@ -1,19 +1,27 @@
 package com.secondthorn.solitaireplayer.players.tripeaks;
 
+import com.secondthorn.solitaireplayer.players.ClickPlanner;
+import com.secondthorn.solitaireplayer.players.DealIndex;
 import com.secondthorn.solitaireplayer.players.PlayException;
 import com.secondthorn.solitaireplayer.players.SolitairePlayer;
+import com.secondthorn.solitaireplayer.players.WindowFactory;
+import com.secondthorn.solitaireplayer.solvers.SolutionStore;
 import com.secondthorn.solitaireplayer.solvers.tripeaks.Action;
-import com.secondthorn.solitaireplayer.solvers.tripeaks.BoardChallengeSolver;
+import com.secondthorn.solitaireplayer.solvers.tripeaks.CachingSolver;
 import com.secondthorn.solitaireplayer.solvers.tripeaks.CardChallengeSolver;
 import com.secondthorn.solitaireplayer.solvers.tripeaks.CardRevealingSolver;
 import com.secondthorn.solitaireplayer.solvers.tripeaks.Deck;
+import com.secondthorn.solitaireplayer.solvers.tripeaks.IncrementalBoardChallengeSolver;
+import com.secondthorn.solitaireplayer.solvers.tripeaks.MonteCarloSolver;
 import com.secondthorn.solitaireplayer.solvers.tripeaks.ScoreChallengeSolver;
 import com.secondthorn.solitaireplayer.solvers.tripeaks.Solution;
+import com.secondthorn.solitaireplayer.solvers.tripeaks.SpeculativeSolver;
 import com.secondthorn.solitaireplayer.solvers.tripeaks.State;
 import com.secondthorn.solitaireplayer.solvers.tripeaks.TriPeaksSolver;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static org.sikuli.script.Sikulix.popAsk;
@@ -23,19 +31,42 @@ import static org.sikuli.script.Sikulix.popAsk;
  * well as the user, from the start of the game until a solution is played or reported.
  */
 public class TriPeaksPlayer extends SolitairePlayer {
-    private TriPeaksSolver solver;
+    private SpeculativeSolver solver;
+
+    /**
+     * The solver type and goal, such as "Score 1290 0", to keep solutions for different goals apart in the cache.
+     */
+    private String solverGoal;
+
+    /**
+     * Chooses the next move by sampling deals when there are unknown cards, or null if not created yet.
+     */
+    private MonteCarloSolver monteCarloSolver;
+
+    /**
+     * Creates the window to play the game in.
+     */
+    private WindowFactory<TriPeaksWindow> windowFactory = MSCTriPeaksWindow::new;
+
+    /**
+     * Deals seen before, to skip reading the rest of the stock pile when the deal is recognized, or null if unused.
+     */
+    private DealIndex dealIndex;
 
     public TriPeaksPlayer(String[] args) {
+        Supplier<TriPeaksSolver> solverFactory;
         String challenge = args.length > 0 ? args[0] : "board";
         switch (challenge.toLowerCase()) {
             case "board":
-                solver = new BoardChallengeSolver();
+                solverFactory = IncrementalBoardChallengeSolver::new;
+                solverGoal = "Board";
                 System.out.println("Starting a TriPeaks Solitaire Board Challenge...");
                 break;
             case "score":
                 int goalScore = (args.length > 1) ? parseInt(args[1]) : ScoreChallengeSolver.MAX_POSSIBLE_SCORE;
                 int currentScore = (args.length > 2) ? parseInt(args[2]) : 0;
-                solver = new ScoreChallengeSolver(goalScore, currentScore);
+                solverFactory = () -> new ScoreChallengeSolver(goalScore, currentScore);
+                solverGoal = "Score " + goalScore + " " + currentScore;
                 System.out.print("Starting a TriPeaks Solitaire Score Challenge: ");
                 if (args.length == 1) {
                     System.out.println("find the maximum possible score...");
@@ -50,7 +81,9 @@ public class TriPeaksPlayer extends SolitairePlayer {
                 int goalNumCardsToClear = parseInt(args[1]);
                 char cardRankToClear = parseCardRank(args[2]);
                 int currentNumCardsCleared = parseInt(args[3]);
-                solver = new CardChallengeSolver(goalNumCardsToClear, cardRankToClear, currentNumCardsCleared);
+                solverFactory = () ->
+                        new CardChallengeSolver(goalNumCardsToClear, cardRankToClear, currentNumCardsCleared);
+                solverGoal = "Card " + goalNumCardsToClear + " " + cardRankToClear + " " + currentNumCardsCleared;
                 System.out.print("Starting a TriPeaks Solitaire Card Challenge: ");
                 System.out.print("clear " + goalNumCardsToClear + " cards of rank " + cardRankToClear);
                 System.out.println(", with " + currentNumCardsCleared + " cleared so far");
@@ -58,6 +91,53 @@ public class TriPeaksPlayer extends SolitairePlayer {
             default:
                 throw new IllegalArgumentException("Unknown challenge type for TriPeaks Solitaire: " + challenge);
         }
+        solver = new SpeculativeSolver(solverFactory);
+    }
+
+    /**
+     * Sets how to create the window to play the game in, such as a simulated window for testing without a screen.
+     *
+     * @param windowFactory creates the window when autoplay starts
+     */
+    void setWindowFactory(WindowFactory<TriPeaksWindow> windowFactory) {
+        this.windowFactory = windowFactory;
+    }
+
+    /**
+     * Returns a solver that looks up solutions in the store before solving, and saves new solutions to it.  Only the
+     * decks actually read are cached, not the ones the speculative solver guesses at.
+     *
+     * @param store the store of previously found solutions, or null to always solve
+     * @return the solver to find solutions with
+     */
+    private TriPeaksSolver cachingSolver(SolutionStore store) {
+        return (store == null) ? solver : new CachingSolver(solver, store, solverGoal);
+    }
+
+    /**
+     * Returns the solver that chooses the next move by sampling deals of the unknown cards, or null if the
+     * --monte-carlo option wasn't given or this isn't a Board Challenge.
+     */
+    private MonteCarloSolver monteCarloSolver() {
+        if (monteCarloSolver == null && monteCarloMillis > 0 && solverGoal.equals("Board")) {
+            monteCarloSolver = new MonteCarloSolver(monteCarloMillis);
+        }
+        return monteCarloSolver;
+    }
+
+    /**
+     * Returns the moves to play next while there's no definitive solution: the move that clears the board in the
+     * most sampled deals if sampling moves, otherwise the shortest way to turn over face down cards.
+     */
+    private Solution nextMoves(CardRevealingSolver cardRevealingSolver, Deck deck, int state, boolean sampleMoves) {
+        if (sampleMoves && deck.hasUnknownCards()) {
+            System.out.println("Sampling possible deals for the unknown cards to choose the next move...");
+            Solution solution = monteCarloSolver.solve(deck, state);
+            System.out.println(solution.getDescription());
+            return solution;
+        }
+        System.out.println("Searching for a way to reveal face down cards.");
+        return cardRevealingSolver.solve(deck, state);
     }
 
     /**
@@ -69,7 +149,10 @@ public class TriPeaksPlayer extends SolitairePlayer {
      */
     @Override
     public void autoplay() throws InterruptedException, PlayException {
-        TriPeaksWindow window = new TriPeaksWindow();
+        dealIndex = openDealIndex("TriPeaks");
+        TriPeaksSolver cachingSolver = cachingSolver(openSolutionStore());
+        TriPeaksWindow window = windowFactory.create();
+        window.setInstantMouse(instantMouse);
         window.undoWhenNoMoreMoves();
         CardRevealingSolver cardRevealingSolver = new CardRevealingSolver();
         System.out.println("Looking up which cards are on the board and in the stock pile.");
@@ -79,24 +162,44 @@ public class TriPeaksPlayer extends SolitairePlayer {
         window.undoBoard();
         int state = State.INITIAL_STATE;
         System.out.println("Now searching for a solution...");
-        Solution solution = solver.solve(deck, State.INITIAL_STATE);
+        Solution solution = cachingSolver.solve(deck, State.INITIAL_STATE);
+        boolean sampleMoves = monteCarloSolver() != null;
         while (!solution.isDefinitiveSolution()) {
-            System.out.println("No definite solution found yet - searching for a way to reveal face down cards.");
-            Solution cardRevealingSolution = cardRevealingSolver.solve(deck, state);
-            if (cardRevealingSolution.getActions().size() > 0) {
-                playSolution(cardRevealingSolution, window);
+            System.out.println("No definite solution found yet.");
+            Solution nextMoves = nextMoves(cardRevealingSolver, deck, state, sampleMoves);
+            if (nextMoves.getActions().size() > 0) {
+                int[] revealedIndexes = State.faceUpUnknowns(nextMoves.getEndingState(), deck);
+                if (revealedIndexes.length > 0) {
+                    solver.speculate(deck, State.INITIAL_STATE, revealedIndexes);
+                }
+                playSolution(nextMoves, window);
                 deck = updateDeck(deck, window);
                 if (window.undoWhenNoMoreMoves()) {
-                    state = cardRevealingSolution.getPreviousState();
+                    if (revealedIndexes.length == 0) {
+                        // a sampled move led nowhere and choosing again would repeat it, so reveal cards instead
+                        sampleMoves = false;
+                    }
+                    state = nextMoves.getPreviousState();
                 } else {
-                    state = cardRevealingSolution.getEndingState();
+                    state = nextMoves.getEndingState();
+                }
+                if (revealedIndexes.length > 0) {
+                    solution = cachingSolver.solve(deck, State.INITIAL_STATE);
                 }
-                solution = solver.solve(deck, State.INITIAL_STATE);
+            } else if (sampleMoves) {
+                sampleMoves = false;
             } else {
                 System.out.println("No way to turn over face down cards, try a non-definitive solution...");
                 break;
             }
         }
+        solver.shutdown();
+        if (monteCarloSolver != null) {
+            monteCarloSolver.shutdown();
+        }
+        if (dealIndex != null) {
+            dealIndex.add(deck.getCards());
+        }
         printSolution(solution);
         String confirmMessage = String.format("Press Yes to play or No to quit.\nSolution: %s\n",
                 solution.getDescription());
@@ -114,10 +217,17 @@ public class TriPeaksPlayer extends SolitairePlayer {
      */
     @Override
     public void preview(String filename) throws PlayException {
+        TriPeaksSolver cachingSolver = cachingSolver(openSolutionStore());
         List<String> cards = readCardsFromFile(filename);
         Deck deck = new Deck(verifyCards(cards));
-        Solution solution = solver.solve(deck, State.INITIAL_STATE);
+        Solution solution = cachingSolver.solve(deck, State.INITIAL_STATE);
         printSolution(solution);
+        MonteCarloSolver monteCarloSolver = monteCarloSolver();
+        if (!solution.isDefinitiveSolution() && monteCarloSolver != null) {
+            System.out.println("Sampling possible deals for the unknown cards...");
+            printSolution(monteCarloSolver.solve(deck, State.INITIAL_STATE));
+            monteCarloSolver.shutdown();
+        }
     }
 
     /**
@@ -171,18 +281,20 @@ public class TriPeaksPlayer extends SolitairePlayer {
     /**
      * Looks through all the cards in the game and returns a list of the cards seen. The cards may be wrong and must
      * be verified and corrected by the user. Initially the game starts with the first 18 cards face down and these
-     * are represented by "??" for unknown card.
+     * are represented by "??" for unknown card.  If the deal is in the deal index, the rest of the cards are taken
+     * from there after reading the first few stock pile cards.
      */
     private List<String> scanCardsOnScreen(TriPeaksWindow window) throws InterruptedException, PlayException {
         window.undoBoard();
-        List<String> cards = new ArrayList<>();
-        for (int i = 0; i < 28; i++) {
-            cards.add(window.cardAtTableau(i));
-        }
+        List<String> cards = new ArrayList<>(window.cardsAtTableau());
         cards.add(window.cardAtWaste());
         for (int i = 0; i < 22; i++) {
             window.draw();
             cards.add(window.cardAtWaste());
+            List<String> deal = (i == DealIndex.PREFIX_STOCK_CARDS - 1) ? lookupDeal(cards) : null;
+            if (deal != null) {
+                return new ArrayList<>(deal);
+            }
         }
         // The last card may pop up a "No more moves!" dialog box which is in the way of being able to read the last
         // card. You can click "OK" or "Undo last move" but either option does not let you see the card.
@@ -196,14 +308,27 @@ public class TriPeaksPlayer extends SolitairePlayer {
         return cards;
     }
 
+    /**
+     * Returns the deal in the deal index that starts with the cards read so far, or null if there isn't exactly one
+     * or there is no deal index.
+     */
+    private List<String> lookupDeal(List<String> cards) {
+        List<String> deal = (dealIndex == null) ? null : dealIndex.lookup(cards);
+        if (deal != null) {
+            System.out.println("Found this deal in the deal index, so the rest of the stock pile won't be read.");
+        }
+        return deal;
+    }
+
     /**
      * Rescan any unknown tableau cards which may now be face up, and ask the user to verify the cards.
      */
     private Deck updateDeck(Deck deck, TriPeaksWindow window) throws PlayException {
         List<String> cards = new ArrayList<>(deck.getCards());
+        List<String> tableauCards = window.cardsAtTableau();
         for (int i = 0; i < 18; i++) {
             if (deck.isUnknownCard(i)) {
-                cards.set(i, window.cardAtTableau(i));
+                cards.set(i, tableauCards.get(i));
             }
         }
         if (numUnknownCards(cards) != missingCards(cards).size()) {
@@ -236,19 +361,27 @@ public class TriPeaksPlayer extends SolitairePlayer {
      */
     private void playSolution(Solution solution, TriPeaksWindow window) throws InterruptedException, PlayException {
         window.positionForPlay();
+        ClickPlanner planner = new ClickPlanner(window::locationOf, window.getClickCostModel(),
+                window.getCursorPosition());
         for (Action action : solution.getActions()) {
             switch (action.getCommand()) {
                 case DRAW:
-                    window.clickStockCard();
+                    planner.click("Stock");
                     break;
                 case REMOVE:
-                    window.clickTableauCard(action.getDeckIndex());
+                    planner.click(Integer.toString(action.getDeckIndex()));
                     break;
                 case UNDO_BOARD:
-                    window.undoBoard();
+                    planner.click("UndoBoard");
+                    planner.addDelay(TriPeaksWindow.UNDO_BOARD_MIN_MILLIS);
                     break;
             }
         }
+        System.out.printf("Playing %d clicks, estimated to take %.1f seconds.%n", planner.getTargets().size(),
+                planner.getEstimatedMillis() / 1000.0);
+        for (String target : planner.getTargets()) {
+            window.click(target);
+        }
     }
 
     private void printSolution(Solution solution) {
@@ -1,42 +1,63 @@
 package com.secondthorn.solitaireplayer.players.tripeaks;
 
+import com.secondthorn.solitaireplayer.players.ClickCostModel;
 import com.secondthorn.solitaireplayer.players.MSCWindow;
 import com.secondthorn.solitaireplayer.players.PlayException;
-import org.sikuli.script.Image;
-import org.sikuli.script.Region;
+
+import java.awt.Point;
+import java.util.List;
 
 /**
- * Methods for a TriPeaksPlayer to interact with the Microsoft Solitaire Collection window.
+ * Methods for a TriPeaksPlayer to interact with a TriPeaks Solitaire game, either the Microsoft Solitaire Collection
+ * window or a simulation of it.
  */
-class TriPeaksWindow extends MSCWindow {
+interface TriPeaksWindow {
     /**
-     * An image to detect if the "No more moves" dialog popped up.
+     * The minimum time to wait for the game to reset after clicking Undo Board.
      */
-    private Image undoLastMoveDialogImage;
+    long UNDO_BOARD_MIN_MILLIS = MSCWindow.UNDO_BOARD_MIN_MILLIS;
 
     /**
-     * The location of the "Undo last move" button that appears when the player runs out of moves.
+     * Sets whether the mouse moves instantly to the things it clicks on, or moves smoothly.
+     *
+     * @param instant true to move the mouse instantly, false to move it smoothly
      */
-    private Region undoLastMove = new Region(781, 542, 214, 23);
+    void setInstantMouse(boolean instant);
 
-    TriPeaksWindow() throws InterruptedException, PlayException {
-        super("TriPeaks");
-        undoLastMoveDialogImage = loadImage("TriPeaks/UndoLastMoveDialog.png");
-    }
+    /**
+     * Moves the game window to the foreground, ready for playing.
+     *
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if the window can't be found or moved
+     */
+    void positionForPlay() throws InterruptedException, PlayException;
+
+    /**
+     * Resets the game to the beginning if the option is available, otherwise do nothing.
+     *
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if there's a problem clicking on the Undo Board / OK buttons
+     */
+    void undoBoard() throws InterruptedException, PlayException;
+
+    /**
+     * Returns the location of the mouse cursor in virtual screen coordinates, or null if it's unknown.
+     */
+    Point getCursorPosition();
+
+    /**
+     * Returns a model of how long clicking on things takes.
+     */
+    ClickCostModel getClickCostModel();
 
     /**
      * Undo the last move if the "No more moves!" message appears.
+     *
      * @return true if the program undid the last move
      * @throws InterruptedException if the thread is interrupted
-     * @throws PlayException if unable to click on the button
+     * @throws PlayException        if unable to click on the button
      */
-    boolean undoWhenNoMoreMoves() throws InterruptedException, PlayException {
-        if (appRegion().exists(undoLastMoveDialogImage, 1.0d) != null) {
-            clickRegion(undoLastMove);
-            return true;
-        }
-        return false;
-    }
+    boolean undoWhenNoMoreMoves() throws InterruptedException, PlayException;
 
     /**
      * Clicks on one of the 28 tableau cards. The user must make sure it's a valid card to click on: no cards blocking
@@ -44,29 +65,26 @@ class TriPeaksWindow extends MSCWindow {
      *
      * @param index a tableau index from 0 to 27
      * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if unable to click on the card
      */
-    void clickTableauCard(int index) throws InterruptedException, PlayException {
-        clickRegion(regions.getTableau()[index]);
-    }
+    void clickTableauCard(int index) throws InterruptedException, PlayException;
 
     /**
      * Clicks on the stock pile, drawing a card from the stock pile to the waste pile.  The user must make sure the
      * stock pile isn't empty.
      *
      * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if unable to click on the stock pile
      */
-    void clickStockCard() throws InterruptedException, PlayException {
-        clickRegion(regions.getStock());
-    }
+    void clickStockCard() throws InterruptedException, PlayException;
 
     /**
      * Draws a card from the stock pile to the waste pile. The user must make sure the stock pile is not empty.
      *
      * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if unable to click on the stock pile
      */
-    void draw() throws InterruptedException, PlayException {
-        clickRegion(regions.getStock());
-    }
+    void draw() throws InterruptedException, PlayException;
 
     /**
      * Returns the card at the given part of the tableau. The code might guess the wrong card or return "??" for
@@ -75,9 +93,15 @@ class TriPeaksWindow extends MSCWindow {
      * @param index a tableau index from 0 to 27
      * @return the card at that index of the tableau or "??" if unknown
      */
-    String cardAtTableau(int index) {
-        return cardAt(regions.getTableau()[index]);
-    }
+    String cardAtTableau(int index);
+
+    /**
+     * Returns the cards at all 28 tableau positions, capturing the window only once.  The code might guess the wrong
+     * cards or return "??" for unknown cards.
+     *
+     * @return the cards on the tableau, from index 0 to 27
+     */
+    List<String> cardsAtTableau();
 
     /**
      * Returns the card at the top of the waste pile. The code might guess the wrong card or return "??" for unknown
@@ -85,7 +109,34 @@ class TriPeaksWindow extends MSCWindow {
      *
      * @return the card at the top of the waste pile or "??" if unknown.
      */
-    String cardAtWaste() {
-        return cardAt(regions.getWaste());
+    String cardAtWaste();
+
+    /**
+     * Returns the screen location of a click target: "Stock" for the stock pile, or a tableau index from 0 to 27.
+     * The location of "UndoBoard" may not be known until the button is found on the screen, so it may be null.
+     *
+     * @param target the name of what to click on
+     * @return the location that clicking on the target would click on, or null if unknown
+     */
+    Point locationOf(String target);
+
+    /**
+     * Clicks on a target, as named in locationOf().
+     *
+     * @param target the name of what to click on
+     * @throws InterruptedException if the thread is interrupted
+     * @throws PlayException        if unable to click on the target
+     */
+    default void click(String target) throws InterruptedException, PlayException {
+        switch (target) {
+            case "UndoBoard":
+                undoBoard();
+                break;
+            case "Stock":
+                clickStockCard();
+                break;
+            default:
+                clickTableauCard(Integer.parseInt(target));
+        }
     }
 }
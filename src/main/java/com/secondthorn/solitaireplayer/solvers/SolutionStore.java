@@ -0,0 +1,168 @@
+package com.secondthorn.solitaireplayer.solvers;
+
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file of solutions that have already been found, so solving the same deck again is instant.
+ * <p>
+ * The store doesn't know what solutions look like, it maps byte array keys to byte array values, and each game's
+ * CachingSolver decides how to encode decks and solutions.  The file is a magic number and version followed by
+ * records that are only ever appended: the key length, the value length, then the key and value bytes.  Opening the
+ * store memory-maps the file and indexes the records by the hash of their keys, so looking up a solution only reads
+ * the records with the same hash.  If the same key is stored more than once, the last one is used.  A record that
+ * was only partly written, such as when the program was killed, is ignored and overwritten.  The file is never
+ * truncated, because that fails on Windows while it's memory-mapped, so if a partly written record was longer than
+ * the record written over it, a key length of -1 marks the end of the records.
+ * <p>
+ * The file is only open while it's being mapped or appended to, so more than one program can share it, but two
+ * programs writing at the same time may overwrite each other's records.
+ */
+public class SolutionStore {
+    private static final int MAGIC = 0x53505343;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int END_OF_RECORDS = -1;
+
+    private Path file;
+    private MappedByteBuffer buffer;
+    private long size;
+
+    /**
+     * Record offsets in the file, keyed by the hash of their keys.
+     */
+    private TIntObjectMap<TLongList> offsets = new TIntObjectHashMap<>();
+
+    /**
+     * Opens the store, creating the file if it doesn't exist.
+     *
+     * @param file the file to keep solutions in
+     * @throws IOException if the file can't be created or read, or it isn't a solution store
+     */
+    public SolutionStore(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                channel.truncate(0);
+                channel.write(header, 0);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a solution store, or an unsupported version: " + file);
+        }
+        size = HEADER_SIZE;
+        indexRecords();
+    }
+
+    /**
+     * Returns the number of records in the store, including ones replaced by later records with the same key.
+     */
+    public synchronized int size() {
+        int count = 0;
+        for (TLongList list : offsets.valueCollection()) {
+            count += list.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value stored for the key.
+     *
+     * @param key the key to look up
+     * @return a copy of the value most recently stored for the key, or null if there isn't one
+     */
+    public synchronized byte[] get(byte[] key) {
+        TLongList list = offsets.get(Arrays.hashCode(key));
+        if (list != null) {
+            for (int i = list.size() - 1; i >= 0; i--) {
+                int offset = (int) list.get(i);
+                int keyLength = buffer.getInt(offset);
+                if (keyLength == key.length && keyEquals(offset + RECORD_HEADER_SIZE, key)) {
+                    byte[] value = new byte[buffer.getInt(offset + 4)];
+                    ByteBuffer record = buffer.duplicate();
+                    record.position(offset + RECORD_HEADER_SIZE + keyLength);
+                    record.get(value);
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends a value for the key to the file.
+     *
+     * @param key   the key to store the value under
+     * @param value the value to store
+     * @throws IOException if the file can't be written to
+     */
+    public synchronized void put(byte[] key, byte[] value) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + key.length + value.length);
+        record.putInt(key.length).putInt(value.length).put(key).put(value);
+        record.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = size;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            if (channel.size() - position >= RECORD_HEADER_SIZE) {
+                ByteBuffer end = ByteBuffer.allocate(4).putInt(END_OF_RECORDS);
+                end.flip();
+                channel.write(end, position);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+        }
+        indexRecords();
+    }
+
+    /**
+     * Adds the complete records after the ones already indexed to the index.
+     */
+    private void indexRecords() {
+        long limit = buffer.capacity();
+        while (size + RECORD_HEADER_SIZE <= limit) {
+            int keyLength = buffer.getInt((int) size);
+            int valueLength = buffer.getInt((int) size + 4);
+            long end = size + RECORD_HEADER_SIZE + keyLength + valueLength;
+            if (keyLength < 0 || valueLength < 0 || end > limit) {
+                break;
+            }
+            byte[] key = new byte[keyLength];
+            ByteBuffer record = buffer.duplicate();
+            record.position((int) size + RECORD_HEADER_SIZE);
+            record.get(key);
+            int hash = Arrays.hashCode(key);
+            TLongList list = offsets.get(hash);
+            if (list == null) {
+                list = new TLongArrayList(1);
+                offsets.put(hash, list);
+            }
+            list.add(size);
+            size = end;
+        }
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
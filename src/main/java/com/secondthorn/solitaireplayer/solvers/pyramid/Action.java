@@ -56,6 +56,15 @@ public class Action {
         return new Action(Command.RECYCLE, null, null);
     }
 
+    /**
+     * For Actions involving removing cards, return the cards to remove.
+     *
+     * @return a list of cards to remove
+     */
+    public List<String> getCards() {
+        return cards;
+    }
+
     /**
      * For Actions involving removing cards, return the card positions to remove.
      * If the card is in the deck, the value is "Deck".
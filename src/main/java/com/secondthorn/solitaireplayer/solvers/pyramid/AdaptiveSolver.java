@@ -0,0 +1,134 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A Pyramid Solitaire Board Challenge solver that uses DifficultyPredictor to pick a search for each deck, instead of
+ * solving every deck the same way.
+ * <p>
+ * Decks proven unsolvable aren't searched at all, decks that are probably solvable are solved with A* alone, and the
+ * rest race A* against Breadth-First Search with PortfolioSolver.  Either way the searches can remember at most the
+ * number of states that fit in half the heap.  If that isn't enough room for the states the deck is likely to need,
+ * IDAStarSolver solves it in a fixed amount of memory instead, and if the search runs out of room anyway, it starts
+ * over with IDAStarSolver, so a deck is only left unsolved if the thread is interrupted.  After each solve, the
+ * prediction and what actually happened are sent to the log, so the predictor can be tuned.
+ */
+public class AdaptiveSolver implements PyramidSolver {
+    private Consumer<String> log;
+    private long maxStates;
+    private DifficultyPredictor.Prediction prediction;
+    private boolean conclusive;
+    private long numStatesSeen;
+
+    /**
+     * Creates an adaptive solver that doesn't log anything.
+     */
+    public AdaptiveSolver() {
+        this(message -> {
+        });
+    }
+
+    /**
+     * Creates an adaptive solver.
+     *
+     * @param log receives a line comparing the prediction to the actual result after each solve
+     */
+    public AdaptiveSolver(Consumer<String> log) {
+        this(log, Runtime.getRuntime().maxMemory() / 2 / DifficultyPredictor.BYTES_PER_STATE);
+    }
+
+    /**
+     * Creates an adaptive solver with room for a number of states.
+     *
+     * @param log       receives a line comparing the prediction to the actual result after each solve
+     * @param maxStates the most states the searches can remember in total
+     */
+    AdaptiveSolver(Consumer<String> log, long maxStates) {
+        this.log = log;
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Returns the prediction for the last deck solved.
+     */
+    public DifficultyPredictor.Prediction getPrediction() {
+        return prediction;
+    }
+
+    /**
+     * Returns true if the last call to solve either found a solution or proved there isn't one.
+     */
+    @Override
+    public boolean isConclusive() {
+        return conclusive;
+    }
+
+    /**
+     * Returns the number of states the search for the last deck remembered.
+     */
+    public long getNumStatesSeen() {
+        return numStatesSeen;
+    }
+
+    /**
+     * Find the way to clear the 28 pyramid cards in the fewest number of steps possible.
+     *
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
+     * @return a solution if one exists
+     */
+    @Override
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
+        long start = System.nanoTime();
+        prediction = DifficultyPredictor.predict(deck, startingState, maxStates);
+        Map<String, List<Action>> solutions;
+        switch (prediction.getStrategy()) {
+            case A_STAR:
+                BoardChallengeSolver aStarSolver = new BoardChallengeSolver(true);
+                aStarSolver.setStateBudget(new StateBudget(prediction.getMaxStates()));
+                solutions = aStarSolver.solve(deck, startingState);
+                conclusive = aStarSolver.isConclusive();
+                numStatesSeen = aStarSolver.getNumStatesSeen();
+                break;
+            case PORTFOLIO:
+                PortfolioSolver portfolioSolver = new PortfolioSolver(prediction.getMaxStates());
+                solutions = portfolioSolver.solve(deck, startingState);
+                conclusive = portfolioSolver.isConclusive();
+                numStatesSeen = portfolioSolver.getNumStatesSeen();
+                break;
+            case IDA_STAR:
+                solutions = solveWithIDAStar(deck, startingState);
+                break;
+            default:
+                solutions = new HashMap<>();
+                conclusive = true;
+                numStatesSeen = 0;
+                break;
+        }
+        String fallback = "";
+        if (!conclusive && !Thread.currentThread().isInterrupted()) {
+            fallback = " with IDA* after running out of room";
+            solutions = solveWithIDAStar(deck, startingState);
+        }
+        long millis = (System.nanoTime() - start) / 1000000;
+        String outcome = !conclusive ? "gave up" : solutions.isEmpty() ? "unsolvable" : "solved";
+        log.accept(String.format("Predicted: %s.  Actual: %s%s, %d states, %d ms.",
+                prediction, outcome, fallback, numStatesSeen, millis));
+        return solutions;
+    }
+
+    /**
+     * Solves with IDAStarSolver, with a transposition table that fits in the memory the prediction allows for.
+     */
+    private Map<String, List<Action>> solveWithIDAStar(Deck deck, long startingState) {
+        long tableBytes = prediction.getMaxStates() * DifficultyPredictor.BYTES_PER_STATE;
+        IDAStarSolver idaStarSolver = new IDAStarSolver(IDAStarSolver.tableBitsFor(tableBytes));
+        Map<String, List<Action>> solutions = idaStarSolver.solve(deck, startingState);
+        conclusive = idaStarSolver.isConclusive();
+        numStatesSeen = idaStarSolver.getNumStatesSeen();
+        return solutions;
+    }
+}
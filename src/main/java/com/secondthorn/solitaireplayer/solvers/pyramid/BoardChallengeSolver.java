@@ -3,10 +3,15 @@ package com.secondthorn.solitaireplayer.solvers.pyramid;
 import gnu.trove.list.TLongList;
 import gnu.trove.map.TLongIntMap;
 import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * A Pyramid Solitaire Board Challenge solver.
@@ -17,36 +22,276 @@ import java.util.Map;
  * <p>
  * If it's possible to clear the board, it will determine how to do so in the minimum number of steps.
  * If it's impossible to clear the board, it will return no solution.  There is no attempt to maximize score.
+ * <p>
+ * A search can be limited by a StateBudget shared with other solvers, and stops early if the thread is interrupted.
+ * Either way, it returns no solution and isConclusive() returns false.
+ * <p>
+ * For autoplay, a good solution right away can be better than the shortest one much later.  With a time budget, it
+ * uses Anytime Weighted A*: a search with the heuristic weighted heavily finds a solution quickly, and searches with
+ * smaller weights look for shorter ones until the time runs out.
  */
 public class BoardChallengeSolver implements PyramidSolver {
+    /**
+     * How many states to expand between checks for interruption and reserving more of the state budget.
+     */
+    private static final int CHECK_INTERVAL = 4096;
+
+    /**
+     * Weights for the heuristic are in quarters, so this weight is plain A*.
+     */
+    private static final int UNWEIGHTED = 4;
+
+    /**
+     * The weights for each search in Anytime Weighted A*, in quarters: 5, 3, 2, 1.5, 1.25, then 1.
+     */
+    private static final int[] ANYTIME_WEIGHTS = {20, 12, 8, 6, 5, 4};
+
+    /**
+     * True to search with A*, false to search with Breadth-First Search.
+     */
+    private boolean useAStar;
+
+    /**
+     * Limits how many states the search can remember, or null for no limit.
+     */
+    private StateBudget budget;
+
+    /**
+     * The number of states reserved from the budget during the current search.
+     */
+    private long reservedStates;
+
+    /**
+     * False if the last search stopped early because it was interrupted or ran out of budget.
+     */
+    private boolean conclusive;
+
+    /**
+     * The number of states the last search remembered.
+     */
+    private int numStatesSeen;
+
+    /**
+     * For Anytime Weighted A*, how long to keep looking for shorter solutions after finding the first one, or 0 to
+     * only return the shortest solution.
+     */
+    private long timeBudgetMillis;
+
+    /**
+     * Receives each improved solution found by Anytime Weighted A*.
+     */
+    private Consumer<String> progress;
+
+    /**
+     * When the current search must stop, from System.nanoTime(), or 0 for no time limit.
+     */
+    private long deadlineNanos;
+
+    /**
+     * The most times longer the last solution can be than the shortest possible one, 1.0 if it's the shortest.
+     */
+    private double suboptimalityBound = 1.0;
+
+    /**
+     * When a weighted search stops early, a lower bound on the length of the shortest solution it was looking for.
+     */
+    private int lowerBound;
+
+    /**
+     * Creates a Board Challenge solver that uses A*.
+     */
+    public BoardChallengeSolver() {
+        this(true);
+    }
+
+    /**
+     * Creates a Board Challenge solver.
+     *
+     * @param useAStar true to search with A* instead of Breadth-First Search
+     */
+    public BoardChallengeSolver(boolean useAStar) {
+        this.useAStar = useAStar;
+    }
+
+    /**
+     * Creates a Board Challenge solver that uses Anytime Weighted A*.  It finds a solution quickly, then keeps
+     * looking for shorter ones until the time budget runs out, and returns the shortest it found.
+     *
+     * @param timeBudgetMillis how many milliseconds to keep looking for shorter solutions, after finding the first
+     * @param progress         receives a message for each shorter solution found, with how close to the shortest
+     *                         possible it's proven to be
+     */
+    public BoardChallengeSolver(long timeBudgetMillis, Consumer<String> progress) {
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("The time budget must be positive: " + timeBudgetMillis);
+        }
+        this.useAStar = true;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.progress = progress;
+    }
+
+    /**
+     * Limits how many states the search can remember, shared with any other solvers using the same budget.
+     *
+     * @param budget the budget to reserve states from, or null for no limit
+     */
+    void setStateBudget(StateBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Returns true if the last call to solve either found a solution or proved there isn't one, or false if it
+     * stopped early.
+     *
+     * @return true if the result of the last search can be trusted
+     */
+    @Override
+    public boolean isConclusive() {
+        return conclusive;
+    }
+
+    /**
+     * Returns the number of states the last call to solve remembered, a measure of how much work and memory it took.
+     *
+     * @return the number of states seen by the last search
+     */
+    public int getNumStatesSeen() {
+        return numStatesSeen;
+    }
+
+    /**
+     * Returns how many times longer the last solution found can be than the shortest possible solution.  It's only
+     * more than 1.0 when Anytime Weighted A* ran out of time.
+     *
+     * @return the proven bound on how much longer than the shortest the solution is
+     */
+    public double getSuboptimalityBound() {
+        return suboptimalityBound;
+    }
 
     /**
      * Find the way to clear the 28 pyramid cards in the fewest number of steps possible.
      * <p>
-     * This uses the A* algorithm and a simple unwinnable state detection process.  Compared to
-     * Breadth-First Search, this is faster at finding a solution if one exists, but slower to
-     * return no solution when it's impossible to clear.
+     * A* and Breadth-First Search both use a simple unwinnable state detection process.  Compared to
+     * Breadth-First Search, A* is faster at finding a solution if one exists, but slower to
+     * return no solution when it's impossible to clear.  With a time budget, the solution may be longer than the
+     * fewest steps possible, by at most getSuboptimalityBound() times.
      *
-     * @param deck a standard deck of 52 cards
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
      * @return a solution if one exists
      */
-    public Map<String, List<Action>> solve(Deck deck) {
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
+        conclusive = true;
+        reservedStates = 0;
+        numStatesSeen = 0;
+        suboptimalityBound = 1.0;
+        try {
+            if (timeBudgetMillis > 0) {
+                return anytimeAStar(deck, startingState);
+            }
+            return useAStar ? aStar(deck, startingState) : breadthFirstSearch(deck, startingState);
+        } finally {
+            if (budget != null) {
+                budget.release(reservedStates);
+            }
+        }
+    }
+
+    private Map<String, List<Action>> aStar(Deck deck, long startingState) {
+        Map<String, List<Action>> solutions = new HashMap<>();
+        List<Action> solution = weightedAStar(deck, startingState, UNWEIGHTED, Integer.MAX_VALUE);
+        if (solution != null) {
+            solutions.put("Clear the board in " + solution.size() + " steps.", solution);
+        }
+        return solutions;
+    }
+
+    /**
+     * Anytime Weighted A* searches again with smaller and smaller weights, each time only looking for solutions
+     * shorter than the best one so far, until the time budget runs out or a search proves the best one is the
+     * shortest.  The first search always runs until it finds a solution or proves there isn't one, even if that takes
+     * longer than the time budget, so that there's something to return.  The time budget starts when the first
+     * solution is found.
+     */
+    private Map<String, List<Action>> anytimeAStar(Deck deck, long startingState) {
         Map<String, List<Action>> solutions = new HashMap<>();
-        BucketQueue<NodeWithDepth> fringe = new BucketQueue<>(102);
+        long start = System.nanoTime();
+        List<Action> best = null;
+        suboptimalityBound = 1.0;
+        for (int weight : ANYTIME_WEIGHTS) {
+            int maxLength = (best == null) ? Integer.MAX_VALUE : best.size() - 1;
+            List<Action> solution = weightedAStar(deck, startingState, weight, maxLength);
+            if (!conclusive) {
+                if (best != null) {
+                    conclusive = true;
+                    suboptimalityBound = Math.min(suboptimalityBound, (double) best.size() / lowerBound);
+                }
+                break;
+            }
+            if (solution == null) {
+                suboptimalityBound = 1.0;
+                break;
+            }
+            if (best == null) {
+                deadlineNanos = System.nanoTime() + timeBudgetMillis * 1000000;
+            }
+            best = solution;
+            suboptimalityBound = (double) weight / UNWEIGHTED;
+            progress.accept(String.format("Found a way to clear the board in %d steps, at most %.2f times the fewest " +
+                    "possible, after %d ms.", best.size(), suboptimalityBound, (System.nanoTime() - start) / 1000000));
+        }
+        deadlineNanos = 0;
+        if (best != null) {
+            if (suboptimalityBound == 1.0) {
+                progress.accept("The solution in " + best.size() + " steps is the shortest possible.");
+                solutions.put("Clear the board in " + best.size() + " steps.", best);
+            } else {
+                solutions.put(String.format("Clear the board in %d steps, at most %.2f times the fewest possible.",
+                        best.size(), suboptimalityBound), best);
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Searches with A*, multiplying the heuristic by the weight.  The weight is in quarters, so UNWEIGHTED is plain
+     * A*.  With a weight of w, the solution found is at most w times as long as the shortest one.  States that can't
+     * lead to a solution of at most maxLength steps aren't searched.
+     * <p>
+     * The fringe always has a state on a shortest solution, reached by a shortest path, so if the search stops early,
+     * the smallest unweighted cost (steps so far plus the heuristic) in the fringe is a lower bound on the length of
+     * the shortest solution, or of any solution of at most maxLength steps.  It's saved in lowerBound.
+     *
+     * @return the solution, or null if there's no solution of at most maxLength steps or the search stopped early
+     */
+    private List<Action> weightedAStar(Deck deck, long startingState, int weight, int maxLength) {
+        BucketQueue<NodeWithDepth> fringe = new BucketQueue<>(UNWEIGHTED * 102 + weight * 28);
+        int[] fringeCosts = new int[131];
         TLongIntMap seenStates = new TLongIntHashMap();
-        long state = State.INITIAL_STATE;
+        long state = startingState;
         StateCache stateCache = deck.getStateCache(State.getPyramidFlags(state));
         NodeWithDepth node = new NodeWithDepth(state, null, 0);
-        if (!stateCache.isUnwinnable(state)) {
-            fringe.add(node, stateCache.getHeuristicCost());
+        if (!stateCache.isUnwinnable(state) && stateCache.getHeuristicCost() <= maxLength) {
+            fringe.add(node, weight * stateCache.getHeuristicCost());
+            fringeCosts[stateCache.getHeuristicCost()]++;
         }
+        List<Action> solution = null;
+        int numExpanded = 0;
         while (!fringe.isEmpty()) {
+            if ((++numExpanded % CHECK_INTERVAL == 0) && !keepSearching(seenStates.size())) {
+                lowerBound = 0;
+                while (fringeCosts[lowerBound] == 0) {
+                    lowerBound++;
+                }
+                return null;
+            }
             node = fringe.remove();
             state = node.getState();
             stateCache = deck.getStateCache(State.getPyramidFlags(state));
+            fringeCosts[node.getDepth() + stateCache.getHeuristicCost()]--;
             if (stateCache.isPyramidClear()) {
-                List<Action> solution = node.actions(deck);
-                solutions.put("Clear the board in " + solution.size() + " steps.", solution);
+                solution = node.actions(deck);
                 break;
             }
             int nextDepth = node.getDepth() + 1;
@@ -57,14 +302,82 @@ public class BoardChallengeSolver implements PyramidSolver {
                 int seenDepth = seenStates.get(nextState);
                 if ((seenDepth == seenStates.getNoEntryValue()) || (nextDepth < seenDepth)) {
                     seenStates.put(nextState, nextDepth);
-                    if (!nextStateCache.isUnwinnable(nextState)) {
+                    int heuristicCost = nextStateCache.getHeuristicCost();
+                    if (!nextStateCache.isUnwinnable(nextState) && nextDepth + heuristicCost <= maxLength) {
                         NodeWithDepth newNode = new NodeWithDepth(nextState, node, nextDepth);
-                        fringe.add(newNode, nextDepth + nextStateCache.getHeuristicCost());
+                        fringe.add(newNode, UNWEIGHTED * nextDepth + weight * heuristicCost);
+                        fringeCosts[nextDepth + heuristicCost]++;
                     }
                 }
             }
         }
+        numStatesSeen = Math.max(numStatesSeen, seenStates.size());
+        return solution;
+    }
+
+    /**
+     * Breadth-First Search finds a shortest solution too, because every action is one step.  It doesn't have a
+     * priority queue or need to revisit states reached again by a shorter path, so when the board can't be cleared it
+     * finishes looking at every winnable state sooner than A*.
+     */
+    private Map<String, List<Action>> breadthFirstSearch(Deck deck, long startingState) {
+        Map<String, List<Action>> solutions = new HashMap<>();
+        Deque<Node> fringe = new ArrayDeque<>();
+        TLongSet seenStates = new TLongHashSet();
+        long state = startingState;
+        if (!deck.getStateCache(State.getPyramidFlags(state)).isUnwinnable(state)) {
+            fringe.add(new Node(state, null));
+            seenStates.add(state);
+        }
+        int numExpanded = 0;
+        while (!fringe.isEmpty()) {
+            if ((++numExpanded % CHECK_INTERVAL == 0) && !keepSearching(seenStates.size())) {
+                return solutions;
+            }
+            Node node = fringe.remove();
+            state = node.getState();
+            StateCache stateCache = deck.getStateCache(State.getPyramidFlags(state));
+            if (stateCache.isPyramidClear()) {
+                List<Action> solution = node.actions(deck);
+                solutions.put("Clear the board in " + solution.size() + " steps.", solution);
+                break;
+            }
+            TLongList successors = stateCache.getSuccessors(state);
+            for (int i = 0, len = successors.size(); i < len; i++) {
+                long nextState = successors.get(i);
+                StateCache nextStateCache = deck.getStateCache(State.getPyramidFlags(nextState));
+                if (seenStates.add(nextState) && !nextStateCache.isUnwinnable(nextState)) {
+                    fringe.add(new Node(nextState, node));
+                }
+            }
+        }
+        numStatesSeen = seenStates.size();
         return solutions;
     }
 
+    /**
+     * Returns true if the search should keep going: the thread hasn't been interrupted, the time isn't up, and the
+     * budget has room for the states seen so far plus the next batch.  Otherwise the search is marked inconclusive.
+     *
+     * @param numSeenStates the number of states the search is remembering
+     * @return true to keep searching, false to stop
+     */
+    private boolean keepSearching(int numSeenStates) {
+        numStatesSeen = Math.max(numStatesSeen, numSeenStates);
+        if (Thread.currentThread().isInterrupted() || (deadlineNanos != 0 && System.nanoTime() > deadlineNanos)) {
+            conclusive = false;
+            return false;
+        }
+        if (budget != null) {
+            long needed = (long) numSeenStates + (long) CHECK_INTERVAL * 4 - reservedStates;
+            if (needed > 0) {
+                if (!budget.reserve(needed)) {
+                    conclusive = false;
+                    return false;
+                }
+                reservedStates += needed;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,203 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import com.secondthorn.solitaireplayer.solvers.SolutionStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Pyramid solver that remembers solutions in a SolutionStore, so decks that have been solved before don't have to
+ * be solved again.
+ * <p>
+ * The solvers only look at card ranks, never suits, so two decks with the same ranks in the same order have the same
+ * solutions.  The key is the solver's goal, the rank of each card, and the starting state, and the solutions are
+ * stored as deck indexes, so a deck with different suits gets the same solutions with its own cards filled in.
+ */
+public class CachingSolver implements PyramidSolver {
+    private static final String RANKS = "A23456789TJQK";
+
+    /**
+     * The position codes for removing the top card of the stock or waste pile, after the 28 pyramid indexes.
+     */
+    private static final int STOCK_POSITION = 28;
+    private static final int WASTE_POSITION = 29;
+
+    private PyramidSolver solver;
+    private SolutionStore store;
+    private String goal;
+    private int hits;
+    private boolean conclusive = true;
+
+    /**
+     * Creates a caching solver.
+     *
+     * @param solver the solver to use for decks that aren't in the store
+     * @param store  the store to look up and save solutions in
+     * @param goal   a description of the solver and its goal, such as "Score 1290 0", so solutions for different
+     *               goals aren't confused
+     */
+    public CachingSolver(PyramidSolver solver, SolutionStore store, String goal) {
+        this.solver = solver;
+        this.store = store;
+        this.goal = goal;
+    }
+
+    /**
+     * Returns the stored solutions for the deck and starting state, or solves it and stores the solutions.  If the
+     * solver gives up without finding a solution or proving there isn't one, nothing is stored.
+     *
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
+     * @return a list of solutions, each of which are a list of Actions
+     * @throws UncheckedIOException if the solutions can't be saved to the store
+     */
+    @Override
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
+        byte[] key = key(deck, startingState);
+        byte[] value = store.get(key);
+        if (value != null) {
+            try {
+                Map<String, List<Action>> solutions = decode(value, deck);
+                hits++;
+                conclusive = true;
+                return solutions;
+            } catch (IOException | RuntimeException ex) {
+                // a corrupt or unreadable record is solved again and replaced below
+            }
+        }
+        Map<String, List<Action>> solutions = solver.solve(deck, startingState);
+        conclusive = solver.isConclusive();
+        if (conclusive) {
+            try {
+                store.put(key, encode(solutions, deck));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to save the solution", ex);
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Returns true if the last call to solve either found stored solutions or the solver's result was conclusive.
+     */
+    @Override
+    public boolean isConclusive() {
+        return conclusive;
+    }
+
+    /**
+     * Returns how many times solve returned stored solutions instead of solving the deck.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the key for the deck: "Pyramid", the goal, a zero byte, each card's rank from 1 to 13, and then the
+     * starting state.
+     */
+    private byte[] key(Deck deck, long startingState) {
+        byte[] prefix = ("Pyramid " + goal).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer key = ByteBuffer.allocate(prefix.length + 1 + 52 + 8);
+        key.put(prefix).put((byte) 0);
+        for (int i = 0; i < 52; i++) {
+            key.put((byte) (RANKS.indexOf(deck.cardAt(i).charAt(0)) + 1));
+        }
+        return key.putLong(startingState).array();
+    }
+
+    /**
+     * Returns the solutions as bytes.  For each solution there's its description and the number of actions, then
+     * for each action its command, and for removals, the deck index and position code of each card removed.
+     */
+    private static byte[] encode(Map<String, List<Action>> solutions, Deck deck) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(solutions.size());
+        for (Map.Entry<String, List<Action>> entry : solutions.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Action action : entry.getValue()) {
+                out.writeByte(action.getCommand().ordinal());
+                if (action.getCommand() == Action.Command.REMOVE) {
+                    List<String> cards = action.getCards();
+                    List<String> positions = action.getPositions();
+                    out.writeByte(cards.size());
+                    for (int i = 0; i < cards.size(); i++) {
+                        out.writeByte(deck.indexOf(cards.get(i)));
+                        out.writeByte(positionCode(positions.get(i)));
+                    }
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the solutions encoded by encode(), with the cards taken from the deck.
+     */
+    private static Map<String, List<Action>> decode(byte[] value, Deck deck) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        Map<String, List<Action>> solutions = new HashMap<>();
+        int numSolutions = in.readInt();
+        for (int i = 0; i < numSolutions; i++) {
+            String description = in.readUTF();
+            int numActions = in.readInt();
+            List<Action> actions = new ArrayList<>(numActions);
+            for (int j = 0; j < numActions; j++) {
+                switch (Action.Command.values()[in.readByte()]) {
+                    case DRAW:
+                        actions.add(Action.newDrawAction());
+                        break;
+                    case RECYCLE:
+                        actions.add(Action.newRecycleAction());
+                        break;
+                    default:
+                        int numCards = in.readByte();
+                        List<String> cards = new ArrayList<>(numCards);
+                        List<String> positions = new ArrayList<>(numCards);
+                        for (int k = 0; k < numCards; k++) {
+                            cards.add(deck.cardAt(in.readByte()));
+                            positions.add(position(in.readByte()));
+                        }
+                        actions.add(Action.newRemoveAction(cards, positions));
+                }
+            }
+            solutions.put(description, actions);
+        }
+        return solutions;
+    }
+
+    private static int positionCode(String position) {
+        switch (position) {
+            case "Stock":
+                return STOCK_POSITION;
+            case "Waste":
+                return WASTE_POSITION;
+            default:
+                return Integer.parseInt(position);
+        }
+    }
+
+    private static String position(int positionCode) {
+        switch (positionCode) {
+            case STOCK_POSITION:
+                return "Stock";
+            case WASTE_POSITION:
+                return "Waste";
+            default:
+                return String.valueOf(positionCode);
+        }
+    }
+}
@@ -57,14 +57,15 @@ public class CardChallengeSolver implements PyramidSolver {
      * searching for a specific state or type of state, we're trying to maximize something.  So we need
      * to search exhaustively.
      *
-     * @param deck a standard deck of 52 cards
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
      * @return a solution if one best one exists, or two if it can't determine the best
      */
-    public Map<String, List<Action>> solve(Deck deck) {
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
         Map<String, List<Action>> solutions = new HashMap<>();
         Deque<Node> fringe = new ArrayDeque<>();
         TLongSet seenStates = new TLongHashSet();
-        long state = State.INITIAL_STATE;
+        long state = startingState;
         Node node = new Node(state, null);
         fringe.add(node);
 
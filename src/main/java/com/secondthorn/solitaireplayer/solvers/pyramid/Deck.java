@@ -5,6 +5,8 @@ import gnu.trove.list.array.TLongArrayList;
 import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,7 +17,8 @@ import java.util.List;
  * Cards are represented as two-letter strings containing rank and suit, for example Kc or 7s.
  * <p>
  * A Deck precalculates a lot of information about the cards so that anything the solver requires just turns into
- * an array index operation and nothing too complicated.
+ * an array index operation and nothing too complicated.  The precalculated StateCaches only depend on card ranks,
+ * so decks with the same ranks in the same order share them through StateCacheTables.
  */
 public class Deck {
     private String[] cards;
@@ -35,7 +38,7 @@ public class Deck {
         this.cards = cards;
         this.values = calcCardValues(cards);
         this.cardRankMasks = calcCardRankMasks(values);
-        this.stateCaches = calcStateCaches();
+        this.stateCaches = StateCacheTables.SHARED.get(calcRanks(cards), this::calcStateCaches);
     }
 
     /**
@@ -56,6 +59,25 @@ public class Deck {
         this(cards.toArray(new String[cards.size()]));
     }
 
+    /**
+     * Return the 52 cards in the deck.
+     *
+     * @return an unmodifiable list of the cards, in deck index order
+     */
+    List<String> getCards() {
+        return Collections.unmodifiableList(Arrays.asList(cards));
+    }
+
+    /**
+     * Return the deck index of the card.
+     *
+     * @param card a two-letter representation of the card's rank and suit
+     * @return the index into the deck of the card, or -1 if it's not in the deck
+     */
+    int indexOf(String card) {
+        return Arrays.asList(cards).indexOf(card);
+    }
+
     /**
      * Return a string representation of the card at deckIndex.
      *
@@ -139,6 +161,20 @@ public class Deck {
         return "A23456789TJQK".indexOf(calcRank(card)) + 1;
     }
 
+    /**
+     * Return the rank of each card in deck order, to look up StateCaches shared with decks of the same ranks.
+     *
+     * @param cards the 52 cards in the deck
+     * @return a String containing each card's rank
+     */
+    private String calcRanks(String[] cards) {
+        StringBuilder ranks = new StringBuilder(cards.length);
+        for (String card : cards) {
+            ranks.append(calcRank(card));
+        }
+        return ranks.toString();
+    }
+
     /**
      * Return a mapping from deck index to card numeric value.
      *
@@ -0,0 +1,274 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+/**
+ * Looks at a deck before searching it, to guess how hard it is and pick how to solve it.
+ * <p>
+ * The analysis plays a relaxed version of the game on the pyramid alone: every card still in the stock or waste pile
+ * can be used at any time and as many times as needed.  Anything possible in the real game is possible in the relaxed
+ * game, so if the relaxed game can't clear the pyramid, the real one can't either.  There are only 1430 possible
+ * pyramids, so this takes about a millisecond, and it proves about one in five random decks unsolvable without any
+ * searching, more than the unwinnable check on the starting state catches.
+ * <p>
+ * For the other decks, the chance of clearing the board and the number of states A* looks at are estimated from a few
+ * deck features.  These are weak guesses: the model was fitted to a couple hundred random decks and only explains a
+ * small part of how the state count varies, so the solver logs each prediction next to what actually happened, and
+ * DifficultyBenchmark compares them over the random decks to tune the numbers below.
+ */
+public class DifficultyPredictor {
+    /**
+     * How to solve a deck, depending on the prediction.
+     */
+    public enum Strategy {
+        /**
+         * The deck is proven unsolvable, so there's nothing to search.
+         */
+        UNSOLVABLE,
+        /**
+         * The deck is probably solvable, so A* alone should find the solution fastest.
+         */
+        A_STAR,
+        /**
+         * The deck may well be unsolvable, so race A* against Breadth-First Search with PortfolioSolver.
+         */
+        PORTFOLIO,
+        /**
+         * The heap is too small for A* to remember the states it's likely to see, so use IDAStarSolver, which is
+         * slower but uses a fixed amount of memory.
+         */
+        IDA_STAR
+    }
+
+    /**
+     * Decks with at least this chance of being solvable are solved with A* alone.
+     */
+    static final double A_STAR_MIN_SOLVABLE_CHANCE = 0.75;
+
+    /**
+     * How many times the estimated number of states must fit in the heap to use A*.  The estimates are often off by
+     * a factor of several, and hard decks can see over twenty times the estimate.
+     */
+    static final long A_STAR_STATE_HEADROOM = 16;
+
+    /**
+     * A rough number of bytes of heap each state remembered by a search takes up, including the search tree nodes.
+     */
+    static final long BYTES_PER_STATE = 64;
+
+    /**
+     * Fitted coefficients for the natural log of the number of states A* looks at, for the intercept, the number of
+     * Kings in the pyramid, and the number of pairs adding up to 13 in the stock and waste piles.
+     */
+    private static final double[] LOG_STATES_MODEL = {14.59, -0.087, -0.053};
+
+    private DifficultyPredictor() {
+    }
+
+    /**
+     * Predicts how hard it is to clear the pyramid from the state.
+     *
+     * @param deck  a standard deck of 52 cards
+     * @param state the state to start solving from
+     * @return the prediction
+     */
+    public static Prediction predict(Deck deck, long state) {
+        return predict(deck, state, Runtime.getRuntime().maxMemory() / 2 / BYTES_PER_STATE);
+    }
+
+    /**
+     * Predicts how hard it is to clear the pyramid from the state, with room for a number of states.
+     *
+     * @param deck      a standard deck of 52 cards
+     * @param state     the state to start solving from
+     * @param maxStates the most states the searches can remember in total
+     * @return the prediction
+     */
+    static Prediction predict(Deck deck, long state, long maxStates) {
+        long pyramidFlags = State.getPyramidFlags(state);
+        long stockFlags = State.getDeckFlags(state) & ~pyramidFlags;
+        StateCache stateCache = deck.getStateCache(pyramidFlags);
+        if (stateCache.isUnwinnable(state) || !canClearRelaxedPyramid(deck, pyramidFlags, stockFlags)) {
+            return new Prediction(Strategy.UNSOLVABLE, 0.0, 0L, maxStates);
+        }
+        double solvableChance = solvableChance(stateCache.unwinnableMasks.length);
+        double logStates = LOG_STATES_MODEL[0] +
+                LOG_STATES_MODEL[1] * countKings(deck, pyramidFlags) +
+                LOG_STATES_MODEL[2] * countPairs(deck, stockFlags);
+        long estimatedStates = Math.round(Math.exp(logStates));
+        Strategy strategy;
+        if (estimatedStates * A_STAR_STATE_HEADROOM > maxStates) {
+            strategy = Strategy.IDA_STAR;
+        } else if (solvableChance >= A_STAR_MIN_SOLVABLE_CHANCE) {
+            strategy = Strategy.A_STAR;
+        } else {
+            strategy = Strategy.PORTFOLIO;
+        }
+        return new Prediction(strategy, solvableChance, estimatedStates, maxStates);
+    }
+
+    /**
+     * Returns true if the pyramid can be cleared when every stock and waste card is always available.
+     *
+     * @param deck         a standard deck of 52 cards
+     * @param pyramidFlags the cards remaining in the pyramid
+     * @param stockFlags   the cards remaining in the stock and waste piles
+     * @return false if the pyramid definitely can't be cleared
+     */
+    static boolean canClearRelaxedPyramid(Deck deck, long pyramidFlags, long stockFlags) {
+        return relaxedPyramids(deck, pyramidFlags, stockFlags, true).contains(0L);
+    }
+
+    /**
+     * Returns every pyramid reachable when every stock and waste card is always available, which includes every
+     * pyramid reachable in the real game.
+     *
+     * @param deck           a standard deck of 52 cards
+     * @param pyramidFlags   the cards remaining in the pyramid
+     * @param stockFlags     the cards remaining in the stock and waste piles
+     * @param skipUnwinnable true to not explore past pyramids that fail the unwinnable check, with every stock and
+     *                       waste card still there, when only clearing the pyramid matters
+     * @return the flags for each reachable pyramid
+     */
+    static TLongSet relaxedPyramids(Deck deck, long pyramidFlags, long stockFlags, boolean skipUnwinnable) {
+        boolean[] inStock = new boolean[14];
+        for (int deckIndex = 28; deckIndex < 52; deckIndex++) {
+            if ((stockFlags & State.mask(deckIndex)) != 0L) {
+                inStock[deck.cardValue(deckIndex)] = true;
+            }
+        }
+        TLongSet seenPyramids = new TLongHashSet();
+        TLongList fringe = new TLongArrayList();
+        seenPyramids.add(pyramidFlags);
+        fringe.add(pyramidFlags);
+        for (int i = 0; i < fringe.size(); i++) {
+            long flags = fringe.get(i);
+            if (skipUnwinnable && deck.getStateCache(flags).isUnwinnable(flags | stockFlags)) {
+                continue;
+            }
+            for (int card1 = 0; card1 < 28; card1++) {
+                if (!isUncovered(flags, card1)) {
+                    continue;
+                }
+                int value = deck.cardValue(card1);
+                if (value == 13 || inStock[13 - value]) {
+                    addPyramid(seenPyramids, fringe, flags & ~State.mask(card1));
+                }
+                for (int card2 = card1 + 1; card2 < 28; card2++) {
+                    if (isUncovered(flags, card2) && deck.cardsMatch(card1, card2)) {
+                        addPyramid(seenPyramids, fringe, flags & ~State.mask(card1) & ~State.mask(card2));
+                    }
+                }
+            }
+        }
+        return seenPyramids;
+    }
+
+    private static void addPyramid(TLongSet seenPyramids, TLongList fringe, long flags) {
+        if (seenPyramids.add(flags)) {
+            fringe.add(flags);
+        }
+    }
+
+    private static boolean isUncovered(long pyramidFlags, int pyramidIndex) {
+        return ((pyramidFlags & State.mask(pyramidIndex)) != 0L) &&
+                ((pyramidFlags & Pyramid.COVER_MASKS[pyramidIndex]) == 0L);
+    }
+
+    /**
+     * Returns the chance the board can be cleared, from the number of unwinnable masks for the pyramid.  More masks
+     * means the pyramid cards' matches are spread across more different ranks, and on the random decks, decks with
+     * more masks were solvable more often, from about half at 14 masks up to about 90% at 24.
+     */
+    private static double solvableChance(int numUnwinnableMasks) {
+        return Math.max(0.05, Math.min(0.95, 0.5 + 0.04 * (numUnwinnableMasks - 14)));
+    }
+
+    private static int countKings(Deck deck, long pyramidFlags) {
+        int count = 0;
+        for (int deckIndex = 0; deckIndex < 28; deckIndex++) {
+            if (((pyramidFlags & State.mask(deckIndex)) != 0L) && deck.isKing(deckIndex)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countPairs(Deck deck, long stockFlags) {
+        int count = 0;
+        for (int i = 28; i < 52; i++) {
+            for (int j = i + 1; j < 52; j++) {
+                if (((stockFlags & State.mask(i)) != 0L) && ((stockFlags & State.mask(j)) != 0L) &&
+                        deck.cardsMatch(i, j)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * How hard a deck is predicted to be, and how to solve it.
+     */
+    public static class Prediction {
+        private Strategy strategy;
+        private double solvableChance;
+        private long estimatedStates;
+        private long maxStates;
+
+        Prediction(Strategy strategy, double solvableChance, long estimatedStates, long maxStates) {
+            this.strategy = strategy;
+            this.solvableChance = solvableChance;
+            this.estimatedStates = estimatedStates;
+            this.maxStates = maxStates;
+        }
+
+        /**
+         * Returns how to solve the deck.
+         */
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * Returns the estimated chance from 0 to 1 that the board can be cleared, 0 if it's proven unsolvable.
+         */
+        public double getSolvableChance() {
+            return solvableChance;
+        }
+
+        /**
+         * Returns the estimated number of states A* will look at.
+         */
+        public long getEstimatedStates() {
+            return estimatedStates;
+        }
+
+        /**
+         * Returns the most states the searches can remember in total before giving up.
+         */
+        public long getMaxStates() {
+            return maxStates;
+        }
+
+        @Override
+        public String toString() {
+            if (strategy == Strategy.UNSOLVABLE) {
+                return "proven unsolvable";
+            }
+            String search;
+            if (strategy == Strategy.A_STAR) {
+                search = "A*";
+            } else if (strategy == Strategy.IDA_STAR) {
+                search = "IDA*";
+            } else {
+                search = "A* and BFS";
+            }
+            return String.format("%.0f%% chance to clear, about %d states, solving with %s",
+                    solvableChance * 100, estimatedStates, search);
+        }
+    }
+}
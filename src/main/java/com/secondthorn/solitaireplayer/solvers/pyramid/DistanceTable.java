@@ -0,0 +1,239 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The exact number of steps to clear the pyramid from every state reachable in a deck, found by retrograde analysis.
+ * <p>
+ * Building the table visits every reachable state once, which takes much longer than solving the deck once with
+ * BoardChallengeSolver.  But afterwards, the shortest way to clear the pyramid from any state, such as after a missed
+ * click or playing part of a different solution, is just a walk to a successor one step closer each time with no
+ * searching at all.
+ * <p>
+ * Every action either removes cards, draws a card, or recycles the waste pile, so no action can ever lead back to an
+ * earlier state.  Sorting the states by cycle, then the number of cards removed, then the stock index puts every
+ * state after all the states that can reach it, so one backward pass over them in that order sees every successor's
+ * distance before the states leading to it.  States the unwinnable check rules out aren't expanded.
+ * <p>
+ * The states are kept sorted in a direct (off-heap) buffer for binary search, along with one byte per state for its
+ * distance, about 9 bytes per state.  A typical deck has several million reachable states.
+ */
+public class DistanceTable {
+    /**
+     * The distance for states that can't reach a cleared pyramid.
+     */
+    public static final int UNSOLVABLE = -1;
+
+    private static final byte UNSOLVABLE_BYTE = (byte) 0xFF;
+
+    private Deck deck;
+    private LongBuffer states;
+    private ByteBuffer distances;
+
+    private DistanceTable(Deck deck, LongBuffer states, ByteBuffer distances) {
+        this.deck = deck;
+        this.states = states;
+        this.distances = distances;
+    }
+
+    /**
+     * Finds the distance to clear the pyramid from every state reachable from the beginning of the game.
+     *
+     * @param deck a standard deck of 52 cards
+     * @return the distance table for the deck
+     */
+    public static DistanceTable build(Deck deck) {
+        long[] sortedStates = reachableStates(deck);
+        int numStates = sortedStates.length;
+        LongBuffer states = ByteBuffer.allocateDirect(numStates * Long.BYTES).asLongBuffer();
+        states.put(sortedStates);
+        ByteBuffer distances = ByteBuffer.allocateDirect(numStates);
+        DistanceTable table = new DistanceTable(deck, states, distances);
+        for (int index : backwardOrder(sortedStates)) {
+            distances.put(index, table.calcDistance(sortedStates[index]));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the number of states in the table.
+     */
+    public int size() {
+        return states.limit();
+    }
+
+    /**
+     * Returns the fewest steps to clear the pyramid from the state.
+     *
+     * @param state a state reachable from the beginning of the game
+     * @return the number of steps, or UNSOLVABLE if the pyramid can't be cleared
+     * @throws IllegalArgumentException if the state can't be reached from the beginning of the game
+     */
+    public int distance(long state) {
+        int index = indexOf(state);
+        if (index < 0) {
+            if (isPruned(state)) {
+                return UNSOLVABLE;
+            }
+            throw new IllegalArgumentException("The state can't be reached from the beginning of the game.");
+        }
+        byte distance = distances.get(index);
+        return (distance == UNSOLVABLE_BYTE) ? UNSOLVABLE : distance;
+    }
+
+    /**
+     * Returns the shortest list of actions to clear the pyramid from the state, by repeatedly moving to a successor
+     * one step closer.
+     *
+     * @param state a state reachable from the beginning of the game
+     * @return the actions to clear the pyramid, or null if it can't be cleared
+     * @throws IllegalArgumentException if the state can't be reached from the beginning of the game
+     */
+    public List<Action> solution(long state) {
+        if (distance(state) == UNSOLVABLE) {
+            return null;
+        }
+        Node node = new Node(state, null);
+        while (distance(node.getState()) > 0) {
+            node = new Node(nextState(node.getState()), node);
+        }
+        return node.actions(deck);
+    }
+
+    /**
+     * Returns a successor of the state that is one step closer to clearing the pyramid.
+     *
+     * @param state a state that can reach a cleared pyramid but isn't cleared yet
+     * @return the next state on a shortest path to clearing the pyramid
+     */
+    long nextState(long state) {
+        int distance = distance(state);
+        TLongList successors = deck.getStateCache(State.getPyramidFlags(state)).getSuccessors(state);
+        for (int i = 0, len = successors.size(); i < len; i++) {
+            long nextState = successors.get(i);
+            if (distance(nextState) == distance - 1) {
+                return nextState;
+            }
+        }
+        throw new IllegalStateException("No successor is closer to clearing the pyramid.");
+    }
+
+    /**
+     * Returns the distance for a state, from the distances of its successors which have already been calculated.
+     */
+    private byte calcDistance(long state) {
+        StateCache stateCache = deck.getStateCache(State.getPyramidFlags(state));
+        if (stateCache.isPyramidClear()) {
+            return 0;
+        }
+        int best = Integer.MAX_VALUE;
+        TLongList successors = stateCache.getSuccessors(state);
+        for (int i = 0, len = successors.size(); i < len; i++) {
+            int index = indexOf(successors.get(i));
+            if (index >= 0 && distances.get(index) != UNSOLVABLE_BYTE) {
+                best = Math.min(best, distances.get(index));
+            }
+        }
+        return (best == Integer.MAX_VALUE) ? UNSOLVABLE_BYTE : (byte) (best + 1);
+    }
+
+    /**
+     * Returns true if the state wasn't expanded because it's unwinnable.
+     */
+    private boolean isPruned(long state) {
+        StateCache stateCache = deck.getStateCache(State.getPyramidFlags(state));
+        return (stateCache != null) && stateCache.isUnwinnable(state);
+    }
+
+    /**
+     * Returns the index of the state in the table, or a negative number if it isn't there.
+     */
+    private int indexOf(long state) {
+        int low = 0;
+        int high = states.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midState = states.get(mid);
+            if (midState < state) {
+                low = mid + 1;
+            } else if (midState > state) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns every state reachable from the beginning of the game without going through an unwinnable state, sorted
+     * in ascending order.  Cleared states aren't expanded because the game ends there.
+     */
+    private static long[] reachableStates(Deck deck) {
+        TLongSet seenStates = new TLongHashSet();
+        TLongList fringe = new TLongArrayList();
+        long initialState = State.INITIAL_STATE;
+        if (!deck.getStateCache(State.getPyramidFlags(initialState)).isUnwinnable(initialState)) {
+            seenStates.add(initialState);
+            fringe.add(initialState);
+        }
+        for (int i = 0; i < fringe.size(); i++) {
+            long state = fringe.get(i);
+            StateCache stateCache = deck.getStateCache(State.getPyramidFlags(state));
+            if (stateCache.isPyramidClear()) {
+                continue;
+            }
+            TLongList successors = stateCache.getSuccessors(state);
+            for (int j = 0, len = successors.size(); j < len; j++) {
+                long nextState = successors.get(j);
+                StateCache nextStateCache = deck.getStateCache(State.getPyramidFlags(nextState));
+                if (!nextStateCache.isUnwinnable(nextState) && seenStates.add(nextState)) {
+                    fringe.add(nextState);
+                }
+            }
+        }
+        long[] states = fringe.toArray();
+        Arrays.sort(states);
+        return states;
+    }
+
+    /**
+     * Returns the indexes of the sorted states in an order where every state comes before the states that can reach
+     * it: descending by cycle, then by number of cards removed, then by stock index.  Within the same cycle and
+     * number of cards removed, the only actions are draws, and the sorted order is already by stock index.
+     */
+    private static int[] backwardOrder(long[] sortedStates) {
+        int numBuckets = 4 * 53;
+        int[] bucketStarts = new int[numBuckets + 1];
+        for (long state : sortedStates) {
+            bucketStarts[bucket(state) + 1]++;
+        }
+        for (int i = 0; i < numBuckets; i++) {
+            bucketStarts[i + 1] += bucketStarts[i];
+        }
+        int[] ascending = new int[sortedStates.length];
+        for (int i = 0; i < sortedStates.length; i++) {
+            ascending[bucketStarts[bucket(sortedStates[i])]++] = i;
+        }
+        int[] order = new int[ascending.length];
+        for (int i = 0; i < ascending.length; i++) {
+            order[i] = ascending[ascending.length - 1 - i];
+        }
+        return order;
+    }
+
+    /**
+     * Returns a number that increases with the cycle, then the number of cards removed.
+     */
+    private static int bucket(long state) {
+        return State.getCycle(state) * 53 + (52 - Long.bitCount(State.getDeckFlags(state)));
+    }
+}
@@ -0,0 +1,256 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import gnu.trove.list.TLongList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Pyramid Solitaire Board Challenge solver that uses Iterative Deepening A* (IDA*), for when there isn't enough
+ * heap for BoardChallengeSolver to remember every state it sees.
+ * <p>
+ * IDA* does a depth-first search that stops where the number of steps so far plus the heuristic cost goes over a
+ * threshold, raising the threshold each time until it finds a solution.  The heuristic is the same one A* uses, so
+ * the solution is the shortest possible.  Depth-first search only remembers the current path, but Pyramid states are
+ * reached by many different paths, so on its own it would search the same states over and over.
+ * <p>
+ * To avoid that, a transposition table of a fixed size remembers a better lower bound on the steps left to clear the
+ * pyramid, learned from searching each state.  A state reached again with no chance of staying under the threshold
+ * isn't searched again.  Each state has a bucket of two slots it can go in, so the table never grows.  The first slot
+ * keeps the state found closest to the start, because searching it again would cost the most, and the second slot
+ * always takes the newest state.  A lost entry only means searching that state again, not a wrong answer.
+ * <p>
+ * The search stops early if the thread is interrupted, and then isConclusive() returns false.
+ */
+public class IDAStarSolver implements PyramidSolver {
+    /**
+     * The default size of the transposition table, 2^22 entries using about 40 megabytes.
+     */
+    public static final int DEFAULT_TABLE_BITS = 22;
+
+    /**
+     * Bytes of memory each transposition table entry uses.
+     */
+    static final int BYTES_PER_ENTRY = 10;
+
+    /**
+     * How many states to search between checks for interruption.
+     */
+    private static final int CHECK_INTERVAL = 4096;
+
+    private static final int FOUND = -1;
+
+    private static final int INTERRUPTED = -2;
+
+    /**
+     * The lower bound stored for states the pyramid can't be cleared from.
+     */
+    private static final int UNSOLVABLE = Byte.MAX_VALUE;
+
+    private int tableBits;
+    private long[] tableStates;
+    private byte[] tableCosts;
+    private byte[] tableDepths;
+    private Deck deck;
+    private long[] path;
+    private int nextThreshold;
+    private int solutionLength;
+    private long numStatesSeen;
+    private boolean conclusive;
+
+    /**
+     * Creates an IDA* solver with the default transposition table size.
+     */
+    public IDAStarSolver() {
+        this(DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * Creates an IDA* solver.
+     *
+     * @param tableBits the transposition table has 2^tableBits entries
+     */
+    public IDAStarSolver(int tableBits) {
+        if (tableBits < 1 || tableBits > 30) {
+            throw new IllegalArgumentException("The table size must be from 1 to 30 bits: " + tableBits);
+        }
+        this.tableBits = tableBits;
+    }
+
+    /**
+     * Returns the number of transposition table bits that fit in the memory.
+     *
+     * @param maxBytes the most memory the transposition table can use
+     * @return the table size in bits to use, at least 1
+     */
+    public static int tableBitsFor(long maxBytes) {
+        int bits = 1;
+        while (bits < 30 && ((long) BYTES_PER_ENTRY << (bits + 1)) <= maxBytes) {
+            bits++;
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the number of states the last call to solve looked at, counting a state again each time it was searched
+     * again.
+     *
+     * @return the number of states searched
+     */
+    public long getNumStatesSeen() {
+        return numStatesSeen;
+    }
+
+    /**
+     * Returns false if the last search was interrupted before it found a solution or proved there isn't one.
+     *
+     * @return true if the last search finished
+     */
+    @Override
+    public boolean isConclusive() {
+        return conclusive;
+    }
+
+    /**
+     * Find the way to clear the 28 pyramid cards in the fewest number of steps possible.
+     *
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
+     * @return a solution if one exists, or no solution if there isn't one or the thread was interrupted
+     */
+    @Override
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
+        Map<String, List<Action>> solutions = new HashMap<>();
+        this.deck = deck;
+        tableStates = new long[1 << tableBits];
+        tableCosts = new byte[1 << tableBits];
+        tableDepths = new byte[1 << tableBits];
+        path = new long[128];
+        numStatesSeen = 0;
+        conclusive = true;
+        try {
+            StateCache stateCache = deck.getStateCache(State.getPyramidFlags(startingState));
+            if (stateCache.isUnwinnable(startingState)) {
+                return solutions;
+            }
+            int threshold = stateCache.getHeuristicCost();
+            while (threshold != Integer.MAX_VALUE) {
+                nextThreshold = Integer.MAX_VALUE;
+                int result = search(startingState, 0, threshold);
+                if (result == INTERRUPTED) {
+                    conclusive = false;
+                    break;
+                }
+                if (result != FOUND) {
+                    threshold = nextThreshold;
+                    continue;
+                }
+                Node node = null;
+                for (int i = 0; i <= solutionLength; i++) {
+                    node = new Node(path[i], node);
+                }
+                List<Action> solution = node.actions(deck);
+                solutions.put("Clear the board in " + solution.size() + " steps.", solution);
+                break;
+            }
+            return solutions;
+        } finally {
+            this.deck = null;
+            tableStates = null;
+            tableCosts = null;
+            tableDepths = null;
+            path = null;
+        }
+    }
+
+    /**
+     * Searches depth-first from the state, without going over the threshold.
+     *
+     * @param state     the state to search from
+     * @param depth     the number of steps taken to reach the state
+     * @param threshold the most steps plus heuristic cost to search
+     * @return FOUND if the pyramid was cleared, INTERRUPTED if the thread was interrupted, otherwise the lowest steps
+     * plus lower bound over the threshold, or Integer.MAX_VALUE if the pyramid can't be cleared from the state
+     */
+    private int search(long state, int depth, int threshold) {
+        path[depth] = state;
+        if ((++numStatesSeen % CHECK_INTERVAL == 0) && Thread.currentThread().isInterrupted()) {
+            return INTERRUPTED;
+        }
+        StateCache stateCache = deck.getStateCache(State.getPyramidFlags(state));
+        if (stateCache.isPyramidClear()) {
+            solutionLength = depth;
+            return FOUND;
+        }
+        int lowerBound = lowerBound(state, stateCache);
+        if (lowerBound == UNSOLVABLE) {
+            return Integer.MAX_VALUE;
+        }
+        int cost = depth + lowerBound;
+        if (cost > threshold) {
+            nextThreshold = Math.min(nextThreshold, cost);
+            return cost;
+        }
+        int best = Integer.MAX_VALUE;
+        TLongList successors = stateCache.getSuccessors(state);
+        for (int i = 0, len = successors.size(); i < len; i++) {
+            long nextState = successors.get(i);
+            if (deck.getStateCache(State.getPyramidFlags(nextState)).isUnwinnable(nextState)) {
+                continue;
+            }
+            int result = search(nextState, depth + 1, threshold);
+            if (result == FOUND || result == INTERRUPTED) {
+                return result;
+            }
+            best = Math.min(best, result);
+        }
+        store(state, depth, (best == Integer.MAX_VALUE) ? UNSOLVABLE : best - depth);
+        return best;
+    }
+
+    /**
+     * Returns the best known lower bound on the steps to clear the pyramid from the state.
+     */
+    private int lowerBound(long state, StateCache stateCache) {
+        int slot = slot(state);
+        for (int i = slot; i < slot + 2; i++) {
+            if (tableStates[i] == state) {
+                return Math.max(stateCache.getHeuristicCost(), tableCosts[i]);
+            }
+        }
+        return stateCache.getHeuristicCost();
+    }
+
+    /**
+     * Remembers the lower bound on the steps to clear the pyramid from the state.  It goes in the first slot of its
+     * bucket if it's the same state or was reached in fewer steps than the state there, which moves to the second
+     * slot.  Otherwise it replaces the state in the second slot.
+     */
+    private void store(long state, int depth, int cost) {
+        int slot = slot(state);
+        if (tableStates[slot + 1] == state) {
+            tableStates[slot + 1] = 0L;
+        }
+        if (tableStates[slot] == state || tableStates[slot] == 0L || depth <= tableDepths[slot]) {
+            if (tableStates[slot] != state) {
+                tableStates[slot + 1] = tableStates[slot];
+                tableCosts[slot + 1] = tableCosts[slot];
+                tableDepths[slot + 1] = tableDepths[slot];
+            }
+        } else {
+            slot++;
+        }
+        tableStates[slot] = state;
+        tableCosts[slot] = (byte) Math.min(cost, UNSOLVABLE);
+        tableDepths[slot] = (byte) depth;
+    }
+
+    /**
+     * Returns the first slot of the state's bucket.
+     */
+    private int slot(long state) {
+        long hash = state * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (64 - tableBits)) & ~1;
+    }
+}
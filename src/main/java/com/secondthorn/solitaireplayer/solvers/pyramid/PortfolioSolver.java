@@ -0,0 +1,132 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A Pyramid Solitaire Board Challenge solver that races A* against Breadth-First Search on two threads.
+ * <p>
+ * A* finds a solution quickly when the board can be cleared, but Breadth-First Search proves a board can't be cleared
+ * sooner, and there's no telling which kind of deal it is in advance.  The first search to finish with a conclusive
+ * answer wins and the other one is interrupted.  Both find a shortest solution, so the answer is the same either way.
+ * <p>
+ * Both searches share one StateBudget, so together they never remember more than the maximum number of states.  If
+ * one runs out of room, the other keeps going with the room it leaves behind.  If neither has room to finish,
+ * IDAStarSolver solves it in a fixed amount of memory instead, which is slower but finishes unless the thread is
+ * interrupted.  Only if the thread is interrupted is there no solution and isConclusive() returns false.
+ */
+public class PortfolioSolver implements PyramidSolver {
+    /**
+     * The default total number of states both searches can remember, a few hundred megabytes of heap.
+     */
+    public static final long DEFAULT_MAX_STATES = 16000000L;
+
+    private long maxStates;
+    private boolean conclusive;
+    private long numStatesSeen;
+
+    /**
+     * Creates a portfolio solver with the default state budget.
+     */
+    public PortfolioSolver() {
+        this(DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Creates a portfolio solver.
+     *
+     * @param maxStates the total number of states both searches can remember
+     */
+    public PortfolioSolver(long maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Returns true if the last call to solve either found a solution or proved there isn't one.
+     *
+     * @return true if the result of the last search can be trusted
+     */
+    @Override
+    public boolean isConclusive() {
+        return conclusive;
+    }
+
+    /**
+     * Returns the number of states remembered by the search that gave the answer, or by the one that got furthest if
+     * it was interrupted.
+     *
+     * @return the number of states seen by the last search
+     */
+    public long getNumStatesSeen() {
+        return numStatesSeen;
+    }
+
+    /**
+     * Find the way to clear the 28 pyramid cards in the fewest number of steps possible.
+     *
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
+     * @return a solution if one exists
+     */
+    @Override
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
+        conclusive = false;
+        numStatesSeen = 0;
+        StateBudget budget = new StateBudget(maxStates);
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "Pyramid portfolio solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+        try {
+            for (boolean useAStar : new boolean[]{true, false}) {
+                completionService.submit(() -> {
+                    BoardChallengeSolver solver = new BoardChallengeSolver(useAStar);
+                    solver.setStateBudget(budget);
+                    Map<String, List<Action>> solutions = solver.solve(deck, startingState);
+                    return new Result(solutions, solver.isConclusive(), solver.getNumStatesSeen());
+                });
+            }
+            for (int i = 0; i < 2; i++) {
+                Result result = completionService.take().get();
+                numStatesSeen = Math.max(numStatesSeen, result.numStatesSeen);
+                if (result.conclusive) {
+                    conclusive = true;
+                    numStatesSeen = result.numStatesSeen;
+                    return result.solutions;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new HashMap<>();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A Pyramid board search failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        IDAStarSolver idaStarSolver = new IDAStarSolver();
+        Map<String, List<Action>> solutions = idaStarSolver.solve(deck, startingState);
+        conclusive = idaStarSolver.isConclusive();
+        numStatesSeen = idaStarSolver.getNumStatesSeen();
+        return solutions;
+    }
+
+    private static class Result {
+        private Map<String, List<Action>> solutions;
+        private boolean conclusive;
+        private int numStatesSeen;
+
+        private Result(Map<String, List<Action>> solutions, boolean conclusive, int numStatesSeen) {
+            this.solutions = solutions;
+            this.conclusive = conclusive;
+            this.numStatesSeen = numStatesSeen;
+        }
+    }
+}
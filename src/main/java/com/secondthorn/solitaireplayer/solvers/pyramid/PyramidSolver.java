@@ -13,5 +13,28 @@ public interface PyramidSolver {
      * @param deck a standard deck of 52 cards
      * @return a list of solutions, each of which are a list of Actions
      */
-    Map<String, List<Action>> solve(Deck deck);
+    default Map<String, List<Action>> solve(Deck deck) {
+        return solve(deck, State.INITIAL_STATE);
+    }
+
+    /**
+     * Given a standard 52-card deck and a game in progress, find out a solution or solutions using a specific
+     * strategy, starting from where the game is now.
+     *
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from, such as one made by State.create()
+     * @return a list of solutions, each of which are a list of Actions starting from the starting state
+     */
+    Map<String, List<Action>> solve(Deck deck, long startingState);
+
+    /**
+     * Returns true if the last call to solve either found its solutions or proved there aren't any, or false if it
+     * gave up, such as when it ran out of memory or was interrupted.  No solutions from a search that gave up doesn't
+     * mean the goal can't be reached.  Solvers that always finish don't need to override this.
+     *
+     * @return true if the result of the last call to solve can be trusted
+     */
+    default boolean isConclusive() {
+        return true;
+    }
 }
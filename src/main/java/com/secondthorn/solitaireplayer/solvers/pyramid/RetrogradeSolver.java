@@ -0,0 +1,49 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Pyramid Solitaire Board Challenge solver that builds a DistanceTable for the deck, then finds the shortest way to
+ * clear the board from any state without searching.
+ * <p>
+ * The first solve for a deck is much slower than BoardChallengeSolver, but the table is kept for the most recent
+ * deck, so solving that deck again from another state, such as after a missed click, is almost instant.  The
+ * solutions are the same length as BoardChallengeSolver's, though they may not be the same steps.
+ */
+public class RetrogradeSolver implements PyramidSolver {
+    private List<String> tableCards;
+    private DistanceTable table;
+
+    /**
+     * Find the way to clear the 28 pyramid cards in the fewest number of steps possible.
+     *
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
+     * @return a solution if one exists
+     */
+    @Override
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
+        Map<String, List<Action>> solutions = new HashMap<>();
+        List<Action> solution = getTable(deck).solution(startingState);
+        if (solution != null) {
+            solutions.put("Clear the board in " + solution.size() + " steps.", solution);
+        }
+        return solutions;
+    }
+
+    /**
+     * Returns the distance table for the deck, building it unless it was built for the last deck solved.
+     *
+     * @param deck a standard deck of 52 cards
+     * @return the distance table for the deck
+     */
+    DistanceTable getTable(Deck deck) {
+        if (table == null || !deck.getCards().equals(tableCards)) {
+            table = DistanceTable.build(deck);
+            tableCards = deck.getCards();
+        }
+        return table;
+    }
+}
@@ -1,10 +1,13 @@
 package com.secondthorn.solitaireplayer.solvers.pyramid;
 
+import gnu.trove.iterator.TLongIterator;
 import gnu.trove.list.TLongList;
 import gnu.trove.set.TLongSet;
 import gnu.trove.set.hash.TLongHashSet;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
@@ -17,6 +20,12 @@ import java.util.Map;
  * The solver searches for a solution that maximizes the score in the minimum number of steps.
  * Note that this may be more steps than the minimum required to clear the board.  Because
  * clearing the board maximizes the score, if it possible to clear the board the solution will do it.
+ * <p>
+ * The exhaustive search can take too long and too much memory for a live game, so there's also a beam search mode.
+ * It still goes one step at a time, but only keeps the most promising states at each step, up to the beam width.  A
+ * state's promise is the most score it could possibly still reach, and then its current score.  Memory use depends
+ * on the beam width, not the deck.  The score found may not be the best possible, but the most any state left out of
+ * the beam could have reached is kept track of, so the solution reports how far short of the best it could be.
  */
 public class ScoreChallengeSolver implements PyramidSolver {
     /**
@@ -26,6 +35,11 @@ public class ScoreChallengeSolver implements PyramidSolver {
      */
     public static final int MAX_POSSIBLE_SCORE = 1290;
 
+    /**
+     * A beam width that usually finds the best score in well under a second, using a few megabytes of memory.
+     */
+    public static final int DEFAULT_BEAM_WIDTH = 10000;
+
     /**
      * Bit masks to apply to a state to see if a row has been cleared, starting from
      * the bottom row to the top of the pyramid.
@@ -54,6 +68,12 @@ public class ScoreChallengeSolver implements PyramidSolver {
             500
     };
 
+    /**
+     * For each pyramid card index, a mask of the pyramid cards above it, which it covers directly or indirectly.  If
+     * a card can never be removed, neither can any of these.
+     */
+    private static final long[] COVERED_CARD_MASKS = calcCoveredCardMasks();
+
     /**
      * The remaining number of points needed to win the challenge, goal score - current score.
      * If you reach this number of points, we quit searching for the maximum scoring solution
@@ -68,6 +88,17 @@ public class ScoreChallengeSolver implements PyramidSolver {
      */
     private int bestScore;
 
+    /**
+     * The number of states to keep at each step of a beam search, or 0 to search exhaustively.
+     */
+    private int beamWidth;
+
+    /**
+     * The most score any solution could reach, as far as the last search could prove.  It's the same as bestScore
+     * unless a beam search left out states that could have done better.
+     */
+    private int upperBound;
+
     /**
      * Create a ScoreChallengeSolver to find the maximum scoring solution or the solution
      * that will reach the goal score.
@@ -82,6 +113,21 @@ public class ScoreChallengeSolver implements PyramidSolver {
         }
     }
 
+    /**
+     * Create a ScoreChallengeSolver that uses beam search, to find a good score quickly without running out of memory.
+     *
+     * @param goalScore    the goal score to win the challenge
+     * @param currentScore the player's current score
+     * @param beamWidth    the number of states to keep at each step, more is slower but finds better scores
+     */
+    public ScoreChallengeSolver(int goalScore, int currentScore, int beamWidth) {
+        this(goalScore, currentScore);
+        if (beamWidth <= 0) {
+            throw new IllegalArgumentException("The beam width must be positive: " + beamWidth);
+        }
+        this.beamWidth = beamWidth;
+    }
+
     /**
      * After running the solve method and finding a solution, this returns the score achieved by
      * the solution.
@@ -92,21 +138,58 @@ public class ScoreChallengeSolver implements PyramidSolver {
         return bestScore;
     }
 
+    /**
+     * After running the solve method, this returns the most score any solution could reach.  The gap between this
+     * and getBestScore() is how much better a solution there might be.
+     *
+     * @return an upper bound on the best possible score
+     */
+    int getUpperBound() {
+        return upperBound;
+    }
+
     /**
      * Search for the solution that gives the maximum score (not the shortest solution).
      * But if we can reach the goal score before clearing the pyramid or reaching a dead end,
      * the solution returned will stop at the goal score.
      * This uses Breadth-First Search without unwinnable state detection, it will search exhaustively
-     * because it wants to maximize score.
+     * because it wants to maximize score.  With a beam width, it uses beam search instead, and the
+     * description says how far short of the best possible score the solution might be.
      *
-     * @param deck a standard deck of 52 cards
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
      * @return a list of actions to perform to solve the game
      */
-    public Map<String, List<Action>> solve(Deck deck) {
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
+        Node bestNode = (beamWidth > 0) ? beamSearch(deck, startingState) : breadthFirstSearch(deck, startingState);
         Map<String, List<Action>> solutions = new HashMap<>();
+        if (bestNode != null) {
+            List<Action> solution = bestNode.actions(deck);
+            String description;
+            StateCache stateCache = deck.getStateCache(State.getPyramidFlags(bestNode.getState()));
+            if (stateCache.isPyramidClear()) {
+                description = "Clear the board, gain " + bestScore + " score in " + solution.size() + " steps";
+            } else {
+                description = "Don't clear the board, gain " + bestScore + " score in " + solution.size() + " steps";
+            }
+            if (upperBound > bestScore) {
+                description += ", at most " + (upperBound - bestScore) + " short of the best possible score";
+            }
+            solutions.put(description + ".", solution);
+        }
+        return solutions;
+    }
+
+    /**
+     * Breadth-First Search without unwinnable state detection, it will search exhaustively because it wants to
+     * maximize score.
+     *
+     * @return the node for the end of the solution
+     */
+    private Node breadthFirstSearch(Deck deck, long startingState) {
         Deque<Node> fringe = new ArrayDeque<>();
         TLongSet seenStates = new TLongHashSet();
-        long state = State.INITIAL_STATE;
+        long state = startingState;
         Node node = new Node(state, null);
         Node bestNode = null;
         bestScore = 0;
@@ -138,18 +221,120 @@ public class ScoreChallengeSolver implements PyramidSolver {
                 }
             }
         }
-        if (bestNode != null) {
-            List<Action> solution = bestNode.actions(deck);
-            String description;
-            StateCache stateCache = deck.getStateCache(State.getPyramidFlags(bestNode.getState()));
-            if (stateCache.isPyramidClear()) {
-                description = "Clear the board, gain " + bestScore + " score in " + solution.size() + " steps.";
-            } else {
-                description = "Don't clear the board, gain " + bestScore + " score in " + solution.size() + " steps.";
+        upperBound = bestScore;
+        return bestNode;
+    }
+
+    /**
+     * Beam Search keeps at most beamWidth states at each step, the ones with the highest upper bound on the score they
+     * can reach, then the highest current score.  Reaching the goal score stops the search like in Breadth-First
+     * Search.  The upper bound for the whole search is the best score found, or the highest upper bound of any state
+     * left out of the beam, whichever is more.
+     *
+     * @return the node for the end of the solution
+     */
+    private Node beamSearch(Deck deck, long startingState) {
+        List<Node> beam = new ArrayList<>();
+        beam.add(new Node(startingState, null));
+        Node bestNode = null;
+        bestScore = 0;
+        upperBound = 0;
+        int relaxedUpperBound = maxRelaxedScore(startingState, deck);
+        while (!beam.isEmpty()) {
+            List<Node> candidates = new ArrayList<>();
+            TLongSet candidateStates = new TLongHashSet();
+            for (Node node : beam) {
+                long state = node.getState();
+                StateCache stateCache = deck.getStateCache(State.getPyramidFlags(state));
+                TLongList successors = stateCache.getSuccessors(state);
+                int score = score(state, deck);
+                if ((score >= pointsNeeded) || (score == MAX_POSSIBLE_SCORE)) {
+                    bestScore = score;
+                    upperBound = score;
+                    return node;
+                }
+                if (stateCache.isPyramidClear() || (successors.size() == 0)) {
+                    if ((bestNode == null) || (score > bestScore)) {
+                        bestNode = node;
+                        bestScore = score;
+                    }
+                } else {
+                    for (int i = 0, len = successors.size(); i < len; i++) {
+                        long nextState = successors.get(i);
+                        if (candidateStates.add(nextState)) {
+                            candidates.add(new Node(nextState, node));
+                        }
+                    }
+                }
             }
-            solutions.put(description, solution);
+            beam = bestCandidates(deck, candidates);
         }
-        return solutions;
+        upperBound = Math.max(Math.min(upperBound, relaxedUpperBound), bestScore);
+        return bestNode;
+    }
+
+    /**
+     * Returns the beamWidth most promising candidates, and raises upperBound to cover the ones left out.
+     */
+    private List<Node> bestCandidates(Deck deck, List<Node> candidates) {
+        if (candidates.size() <= beamWidth) {
+            return candidates;
+        }
+        long[] keys = new long[candidates.size()];
+        for (int i = 0; i < keys.length; i++) {
+            long state = candidates.get(i).getState();
+            long promise = ((long) maxReachableScore(state, deck) << 11) | score(state, deck);
+            keys[i] = (promise << 32) | i;
+        }
+        Arrays.sort(keys);
+        List<Node> best = new ArrayList<>(beamWidth);
+        for (int i = keys.length - 1; i >= keys.length - beamWidth; i--) {
+            best.add(candidates.get((int) keys[i]));
+        }
+        for (int i = keys.length - beamWidth - 1; i >= 0; i--) {
+            upperBound = Math.max(upperBound, (int) (keys[i] >>> 43));
+        }
+        return best;
+    }
+
+    /**
+     * Returns the most score that could be reached from the state, if every card that could ever be removed is
+     * removed.  A pyramid card with no matching card left to remove it with, other than cards covering it or covered
+     * by it, can never be removed, and neither can any card it covers, or any of their rows.
+     *
+     * @param state a Pyramid Solitaire state
+     * @param deck  the Deck of 52 cards being used for Pyramid Solitaire
+     * @return an upper bound on the score reachable from the state
+     */
+    int maxReachableScore(long state, Deck deck) {
+        long stuckCards = 0L;
+        for (int i = 0; i < 28; i++) {
+            long mask = State.mask(i);
+            if (((state & mask) != 0) && !deck.isKing(i)) {
+                long matches = deck.cardRankMask(13 - deck.cardValue(i)) & Pyramid.UNRELATED_CARD_MASKS[i];
+                if ((state & matches) == 0) {
+                    stuckCards |= mask | COVERED_CARD_MASKS[i];
+                }
+            }
+        }
+        int score = 0;
+        for (int i = 0; i < ROW_CLEARED_MASKS.length; i++) {
+            if ((stuckCards & ROW_CLEARED_MASKS[i]) == 0) {
+                score += ROW_CLEARED_SCORES[i];
+            }
+        }
+        int numKings = 0;
+        int numNonKings = 0;
+        for (int i = 0; i < 52; i++) {
+            if ((stuckCards & State.mask(i)) == 0) {
+                if (deck.isKing(i)) {
+                    numKings++;
+                } else {
+                    numNonKings++;
+                }
+            }
+        }
+        return score + (5 * numKings) + (5 * (numNonKings / 2));
     }
 
     /**
@@ -185,4 +370,50 @@ public class ScoreChallengeSolver implements PyramidSolver {
         return score;
     }
 
+    /**
+     * Returns the most score that could be reached from the state in a relaxed game where every stock and waste card
+     * is always available, from the best pyramid reachable in that game with every other card removed.  This is
+     * usually much lower than maxReachableScore for decks where the board can't be cleared.
+     *
+     * @param state a Pyramid Solitaire state
+     * @param deck  the Deck of 52 cards being used for Pyramid Solitaire
+     * @return an upper bound on the score reachable from the state
+     */
+    int maxRelaxedScore(long state, Deck deck) {
+        long pyramidFlags = State.getPyramidFlags(state);
+        long stockFlags = State.getDeckFlags(state) & ~pyramidFlags;
+        int best = 0;
+        TLongIterator iterator = DifficultyPredictor.relaxedPyramids(deck, pyramidFlags, stockFlags, false).iterator();
+        while (iterator.hasNext()) {
+            long flags = iterator.next();
+            int score = 0;
+            for (int i = 0; i < ROW_CLEARED_MASKS.length; i++) {
+                if ((flags & ROW_CLEARED_MASKS[i]) == 0) {
+                    score += ROW_CLEARED_SCORES[i];
+                }
+            }
+            int numKings = Long.bitCount(flags & deck.cardRankMask(13));
+            int numNonKings = Long.bitCount(flags) - numKings;
+            score += (5 * (4 - numKings)) + (5 * ((48 - numNonKings) / 2));
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    /**
+     * Calculate the mask of pyramid cards above each pyramid card, from the masks of the cards covering each one.
+     *
+     * @return a mask of the cards each pyramid card covers, directly or indirectly
+     */
+    private static long[] calcCoveredCardMasks() {
+        long[] masks = new long[28];
+        for (int i = 0; i < 28; i++) {
+            for (int j = 0; j < 28; j++) {
+                if ((Pyramid.COVER_MASKS[j] & State.mask(i)) != 0) {
+                    masks[i] |= State.mask(j);
+                }
+            }
+        }
+        return masks;
+    }
 }
@@ -0,0 +1,247 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A Pyramid solver that starts working while the cards are still being read from the screen.  Reading the stock pile
+ * means drawing every card, which takes much longer than solving, so the solver doesn't have to wait until the end.
+ * <p>
+ * Once the pyramid cards are known, prepare() loads the precalculated pyramid data in the background, so it isn't
+ * loaded for the first time after the scan.  For Board Challenges, it also checks if the pyramid can't be cleared no
+ * matter what order the stock pile is in, and if so, solve returns no solution right away for a deck with those
+ * pyramid cards.  That check only looks at the pyramid cards, so no Deck or StateCaches are built for it.  Once the last stock card is read, speculate() starts solving the deck in the background while the
+ * player resets the game.  When solve is called with the same deck, the solution is already done or being worked on.
+ * If the deck is different, such as when the user corrects a card, it solves it normally.
+ */
+public class SpeculativeSolver implements PyramidSolver {
+    private Supplier<PyramidSolver> solverFactory;
+    private boolean clearBoard;
+    private ExecutorService executor;
+    private List<String> preparedPyramidCards;
+    private Future<Boolean> preparation;
+    private List<String> speculativeCards;
+    private Future<Speculation> speculation;
+    private boolean conclusive = true;
+    private int hits;
+
+    /**
+     * Creates a speculative solver for goals other than clearing the board.
+     *
+     * @param solverFactory creates the solver to use, each background task uses its own solver
+     */
+    public SpeculativeSolver(Supplier<PyramidSolver> solverFactory) {
+        this(solverFactory, false);
+    }
+
+    /**
+     * Creates a speculative solver.
+     *
+     * @param solverFactory creates the solver to use, each background task uses its own solver
+     * @param clearBoard    true if the goal is to clear the board, so decks whose pyramid can't be cleared have no
+     *                      solution
+     */
+    public SpeculativeSolver(Supplier<PyramidSolver> solverFactory, boolean clearBoard) {
+        this.solverFactory = solverFactory;
+        this.clearBoard = clearBoard;
+    }
+
+    /**
+     * Starts the work that only depends on the pyramid cards in the background.  The stock pile isn't known yet, but
+     * that's enough to load the pyramid data, and to check if the pyramid can't be cleared, since that only depends on
+     * which cards are in the stock pile and not their order.
+     *
+     * @param pyramidCards the 28 pyramid cards read so far
+     */
+    public void prepare(List<String> pyramidCards) {
+        Set<String> distinctCards = new HashSet<>(pyramidCards);
+        if (pyramidCards.size() == 28 && distinctCards.size() == 28 && !distinctCards.contains("??")) {
+            preparedPyramidCards = new ArrayList<>(pyramidCards);
+            List<String> cards = preparedPyramidCards;
+            preparation = executor().submit(() -> clearBoard && isPyramidUnwinnable(cards));
+        }
+    }
+
+    /**
+     * Returns true if the pyramid can't be cleared no matter what order the stock pile is in.  That's when a pyramid
+     * card other than a King can't be removed with any card, because every card of the rank it adds up to 13 with is
+     * also in the pyramid, covering it or covered by it.  It's the same as the StateCache unwinnable check at the
+     * start of the game.  Using Pyramid here also loads the pyramid data.
+     *
+     * @param pyramidCards the 28 pyramid cards
+     * @return true if the pyramid can't be cleared
+     */
+    static boolean isPyramidUnwinnable(List<String> pyramidCards) {
+        int[] values = new int[28];
+        long[] pyramidRankMasks = new long[14];
+        for (int i = 0; i < 28; i++) {
+            values[i] = "A23456789TJQK".indexOf(pyramidCards.get(i).charAt(0)) + 1;
+            pyramidRankMasks[values[i]] |= State.mask(i);
+        }
+        for (int i = 0; i < 28; i++) {
+            if (values[i] != 13) {
+                long matchingCards = pyramidRankMasks[13 - values[i]];
+                boolean matchInStock = Long.bitCount(matchingCards) < 4;
+                if (!matchInStock && (matchingCards & Pyramid.UNRELATED_CARD_MASKS[i]) == 0L) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts solving the deck in the background, cancelling any previous speculation.  Nothing is solved if there
+     * are unknown cards.
+     *
+     * @param cards the 52 cards read from the screen, before the user verifies them
+     * @return true if the deck is being solved in the background
+     */
+    public boolean speculate(List<String> cards) {
+        cancel();
+        if (cards.size() != 52 || cards.contains("??")) {
+            return false;
+        }
+        speculativeCards = new ArrayList<>(cards);
+        List<String> deckCards = speculativeCards;
+        speculation = executor().submit(() -> {
+            PyramidSolver solver = solverFactory.get();
+            return new Speculation(solver.solve(new Deck(deckCards)), solver.isConclusive());
+        });
+        return true;
+    }
+
+    /**
+     * Returns the solutions for the deck, waiting for the background solver if the deck was speculated on.  Any
+     * other speculation is cancelled.  Speculation only solves from the beginning of the game, so other starting
+     * states are always solved normally.  If the thread is interrupted while waiting, it returns no solution and
+     * isConclusive() returns false.
+     *
+     * @param deck          a standard deck of 52 cards
+     * @param startingState the state to start solving from
+     * @return a list of solutions, each of which are a list of Actions
+     */
+    @Override
+    public Map<String, List<Action>> solve(Deck deck, long startingState) {
+        boolean isSpeculated = (startingState == State.INITIAL_STATE) && deck.getCards().equals(speculativeCards);
+        Future<Speculation> future = isSpeculated ? speculation : null;
+        speculation = null;
+        cancel();
+        conclusive = true;
+        try {
+            if (startingState == State.INITIAL_STATE && isPyramidUnwinnable(deck)) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+                hits++;
+                return new HashMap<>();
+            }
+            if (future != null) {
+                Speculation result = future.get();
+                conclusive = result.conclusive;
+                hits++;
+                return result.solutions;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (future != null) {
+                future.cancel(true);
+            }
+            conclusive = false;
+            return new HashMap<>();
+        } catch (ExecutionException e) {
+            // solve it again below, so that any exception is thrown from this thread
+        }
+        PyramidSolver solver = solverFactory.get();
+        Map<String, List<Action>> solutions = solver.solve(deck, startingState);
+        conclusive = solver.isConclusive();
+        return solutions;
+    }
+
+    /**
+     * Returns true if the last call to solve either found solutions or proved there aren't any.
+     */
+    @Override
+    public boolean isConclusive() {
+        return conclusive;
+    }
+
+    /**
+     * Returns how many times solve returned an answer worked out in the background instead of solving the deck.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Cancels all background work.  A solver that has already started keeps running until it finishes, but its
+     * result is ignored.
+     */
+    public void cancel() {
+        if (speculation != null) {
+            speculation.cancel(true);
+            speculation = null;
+        }
+        speculativeCards = null;
+    }
+
+    /**
+     * Cancels all background work and stops the background thread.
+     */
+    public void shutdown() {
+        cancel();
+        if (preparation != null) {
+            preparation.cancel(true);
+            preparation = null;
+            preparedPyramidCards = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Returns true if prepare() found that the deck's pyramid can't be cleared, waiting for it to finish.
+     */
+    private boolean isPyramidUnwinnable(Deck deck) throws InterruptedException {
+        if (preparation == null || !deck.getCards().subList(0, 28).equals(preparedPyramidCards)) {
+            return false;
+        }
+        try {
+            return preparation.get();
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    private ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Pyramid speculative solver");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private static class Speculation {
+        private Map<String, List<Action>> solutions;
+        private boolean conclusive;
+
+        private Speculation(Map<String, List<Action>> solutions, boolean conclusive) {
+            this.solutions = solutions;
+            this.conclusive = conclusive;
+        }
+    }
+}
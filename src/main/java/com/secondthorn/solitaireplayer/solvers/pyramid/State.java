@@ -1,5 +1,7 @@
 package com.secondthorn.solitaireplayer.solvers.pyramid;
 
+import java.util.Collection;
+
 /**
  * States represent the "state of the world" of each step while playing Pyramid Solitaire.
  * For performance purposes, States are just longs, and this class implements static methods for
@@ -21,8 +23,11 @@ package com.secondthorn.solitaireplayer.solvers.pyramid;
  *   </ul>
  *   <li>Bits 58-60 is a 2-bit number from 1-3 indicating which cycle through the deck the player is on</li>
  * </ul>
+ * <p>
+ * Solvers usually start from the beginning of the game, INITIAL_STATE, but create() makes a state for a game in
+ * progress so a player can solve from wherever the game is now.
  */
-class State {
+public class State {
     /**
      * The stock index is an integer from 28 to 52.  52 means the stock pile is empty.
      */
@@ -31,7 +36,7 @@ class State {
      * The initial state when playing Pyramid Solitaire: no cards removed yet, stock index is at the 28th card
      * and the cycle is 1.
      */
-    static final long INITIAL_STATE = createState(0xFFFFFFFFFFFFFL, 28, 1);
+    public static final long INITIAL_STATE = createState(0xFFFFFFFFFFFFFL, 28, 1);
     /**
      * The waste index is an integer from 27 to 51.  27 means the waste pile is empty.
      */
@@ -72,6 +77,43 @@ class State {
         return deckFlags | ((long) stockIndex << 52) | ((long) cycle << 58);
     }
 
+    /**
+     * Create a state for a game in progress, from the cards that haven't been removed yet, the card at the top of the
+     * stock pile, and the cycle.  The cards in the deck below the stock card are in the stock pile, and the ones above
+     * it are in the waste pile.
+     *
+     * @param deck           the deck of cards being played
+     * @param remainingCards the cards in the pyramid, stock pile, and waste pile that haven't been removed yet
+     * @param stockCard      the card at the top of the stock pile, or null if the stock pile is empty
+     * @param cycle          an integer from 1-3 indicating which cycle through the deck cards we're on
+     * @return a new long representing the state
+     * @throws IllegalArgumentException if the cards or cycle can't happen in a game of Pyramid Solitaire
+     */
+    public static long create(Deck deck, Collection<String> remainingCards, String stockCard, int cycle) {
+        if ((cycle < 1) || (cycle > 3)) {
+            throw new IllegalArgumentException("The cycle must be from 1 to 3: " + cycle);
+        }
+        long deckFlags = 0L;
+        for (String card : remainingCards) {
+            int deckIndex = deck.indexOf(card);
+            if (deckIndex < 0) {
+                throw new IllegalArgumentException("The card " + card + " is not in the deck.");
+            }
+            deckFlags |= mask(deckIndex);
+        }
+        if (deck.getStateCache(getPyramidFlags(deckFlags)) == null) {
+            throw new IllegalArgumentException("A pyramid card can't be removed while cards below it remain.");
+        }
+        int stockIndex = EMPTY_STOCK;
+        if (stockCard != null) {
+            stockIndex = deck.indexOf(stockCard);
+            if ((stockIndex < 28) || ((deckFlags & mask(stockIndex)) == 0)) {
+                throw new IllegalArgumentException("The card " + stockCard + " can't be at the top of the stock pile.");
+            }
+        }
+        return createState(deckFlags, stockIndex, cycle);
+    }
+
     /**
      * Given a state, return the 52 bits showing which cards in the deck haven't been removed yet.
      *
@@ -0,0 +1,53 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+/**
+ * A limit on the total number of states that solvers running at the same time can remember.  Each solver reserves
+ * states before it grows past what it already has, and releases them all when it finishes, so that one solver
+ * finishing leaves room for the others.
+ */
+class StateBudget {
+    private long maxStates;
+    private long reservedStates;
+
+    /**
+     * Creates a budget.
+     *
+     * @param maxStates the total number of states that can be reserved at once
+     */
+    StateBudget(long maxStates) {
+        if (maxStates < 0) {
+            throw new IllegalArgumentException("The state budget can't be negative: " + maxStates);
+        }
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Reserves states if there's room for all of them.
+     *
+     * @param numStates the number of states to reserve
+     * @return true if the states were reserved, false if there isn't enough room left
+     */
+    synchronized boolean reserve(long numStates) {
+        if (reservedStates + numStates > maxStates) {
+            return false;
+        }
+        reservedStates += numStates;
+        return true;
+    }
+
+    /**
+     * Releases states reserved earlier.
+     *
+     * @param numStates the number of states to release
+     */
+    synchronized void release(long numStates) {
+        reservedStates = Math.max(0, reservedStates - numStates);
+    }
+
+    /**
+     * Returns the number of states currently reserved.
+     */
+    synchronized long getReservedStates() {
+        return reservedStates;
+    }
+}
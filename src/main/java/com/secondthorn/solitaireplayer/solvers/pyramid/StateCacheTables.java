@@ -0,0 +1,100 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import gnu.trove.map.TLongObjectMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the StateCache tables for recently created decks, so creating another deck with the same ranks in the
+ * same order doesn't have to precalculate them again.
+ * <p>
+ * Everything in a StateCache depends only on card values, never suits, so tables are keyed by the rank of each card
+ * in deck order.  Each table takes about 30 megabytes, so only a few are kept, and the least recently used tables
+ * are evicted once the cache is full.
+ */
+class StateCacheTables {
+    /**
+     * The default maximum number of tables to remember.
+     */
+    static final int DEFAULT_MAX_SIZE = 4;
+
+    /**
+     * The tables shared by all decks.
+     */
+    static final StateCacheTables SHARED = new StateCacheTables(DEFAULT_MAX_SIZE);
+
+    private Map<String, TLongObjectMap<StateCache>> tables;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache of StateCache tables.
+     *
+     * @param maxSize the maximum number of tables to remember
+     */
+    StateCacheTables(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("State cache table cache size must be at least 1: " + maxSize);
+        }
+        this.tables = new LinkedHashMap<String, TLongObjectMap<StateCache>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TLongObjectMap<StateCache>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the table for the ranks, calculating it if it isn't in the cache.  The calculation is done without
+     * holding the lock, so decks for other ranks can be created at the same time.
+     *
+     * @param ranks     the rank of each card in deck order, such as "T J J 9 ..." without the spaces
+     * @param calculate calculates the table if it isn't in the cache
+     * @return a map from Pyramid flags to precalculated StateCaches
+     */
+    TLongObjectMap<StateCache> get(String ranks, Supplier<TLongObjectMap<StateCache>> calculate) {
+        synchronized (this) {
+            TLongObjectMap<StateCache> table = tables.get(ranks);
+            if (table != null) {
+                hits++;
+                return table;
+            }
+            misses++;
+        }
+        TLongObjectMap<StateCache> table = calculate.get();
+        synchronized (this) {
+            TLongObjectMap<StateCache> existing = tables.putIfAbsent(ranks, table);
+            return (existing == null) ? table : existing;
+        }
+    }
+
+    /**
+     * Returns the number of tables in the cache.
+     */
+    synchronized int size() {
+        return tables.size();
+    }
+
+    /**
+     * Returns how many times get found the table in the cache.
+     */
+    synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns how many times get had to calculate the table.
+     */
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Removes all the tables from the cache.
+     */
+    synchronized void clear() {
+        tables.clear();
+    }
+}
@@ -10,6 +10,38 @@ import java.util.List;
  * It will either return a single shortest solution, or no solution at all if it's impossible to clear.
  */
 public class BoardChallengeSolver implements TriPeaksSolver {
+    /**
+     * The highest A* priority possible: every step either draws one of the 23 stock cards or removes one of the 28
+     * tableau cards, so the steps taken plus the tableau cards remaining can never be more than 51.
+     */
+    static final int MAX_PRIORITY = 51;
+
+    /**
+     * True to search with A*, false to search with Breadth-First Search.
+     */
+    private boolean useAStar;
+
+    /**
+     * The number of states taken off the fringe and expanded during the last call to solve.
+     */
+    private int numStatesExpanded;
+
+    /**
+     * Creates a Board Challenge solver that uses Breadth-First Search.
+     */
+    public BoardChallengeSolver() {
+        this(false);
+    }
+
+    /**
+     * Creates a Board Challenge solver.
+     *
+     * @param useAStar true to search with A* instead of Breadth-First Search
+     */
+    public BoardChallengeSolver(boolean useAStar) {
+        this.useAStar = useAStar;
+    }
+
     /**
      * Return either a solution for finishing a Board Challenge in TriPeaks, a solution indicating it's impossible,
      * or a solution indicating there are unknown cards so it's unknown whether or not it's possible.
@@ -20,25 +52,116 @@ public class BoardChallengeSolver implements TriPeaksSolver {
      */
     @Override
     public Solution solve(Deck deck, int startingState) {
-        IntFIFOQueue fringe = new IntFIFOQueue();
         TIntIntMap seenStates = new TIntIntHashMap();
-        fringe.enqueue(startingState);
+        int goalState = useAStar ?
+                aStar(deck, startingState, seenStates) :
+                breadthFirstSearch(deck, startingState, seenStates);
+        return solution(deck, startingState, seenStates, goalState);
+    }
+
+    /**
+     * Creates the Solution for a search that ended at goalState, or didn't reach a goal if goalState is -1.
+     */
+    Solution solution(Deck deck, int startingState, TIntIntMap seenStates, int goalState) {
+        if (goalState != -1) {
+            List<Action> actions = TriPeaksSolver.actions(goalState, seenStates, deck);
+            String description = String.format("Clear the board in %d steps", actions.size());
+            return new Solution(description, true, actions, goalState, seenStates.get(goalState));
+        }
+        String description = "Lose Quickly: Impossible to clear the board";
+        List<Action> actions = TriPeaksSolver.loseQuicklyActions(deck);
+        return new Solution(description, !deck.hasUnknownCards(), actions, startingState, seenStates.get(startingState));
+    }
+
+    /**
+     * Returns the number of states expanded during the most recent call to solve.  This is for comparing how much
+     * work each search algorithm does.
+     *
+     * @return the number of states expanded while solving
+     */
+    int getNumStatesExpanded() {
+        return numStatesExpanded;
+    }
+
+    /**
+     * Searches for the closest state with an empty tableau using Breadth-First Search, filling in seenStates along
+     * the way.  Returns the goal state, or -1 if the board can't be cleared.  States where the board definitely
+     * can't be cleared aren't searched any further.
+     */
+    private int breadthFirstSearch(Deck deck, int startingState, TIntIntMap seenStates) {
+        numStatesExpanded = 0;
+        IntFIFOQueue fringe = new IntFIFOQueue();
+        if (!State.isUnwinnable(startingState, deck)) {
+            fringe.enqueue(startingState);
+        }
         while (!fringe.isEmpty()) {
             int state = fringe.dequeue();
+            numStatesExpanded++;
             if (State.isTableauEmpty(state)) {
-                List<Action> actions = TriPeaksSolver.actions(state, seenStates, deck);
-                String description = String.format("Clear the board in %d steps", actions.size());
-                return new Solution(description, true, actions, state, seenStates.get(state));
+                return state;
             }
             for (int nextState : State.successors(state, deck)) {
                 if (!seenStates.containsKey(nextState)) {
                     seenStates.put(nextState, state);
-                    fringe.enqueue(nextState);
+                    if (!State.isUnwinnable(nextState, deck)) {
+                        fringe.enqueue(nextState);
+                    }
                 }
             }
         }
-        String description = "Lose Quickly: Impossible to clear the board";
-        List<Action> actions = TriPeaksSolver.loseQuicklyActions(deck);
-        return new Solution(description, !deck.hasUnknownCards(), actions, startingState, seenStates.get(startingState));
+        return -1;
+    }
+
+    /**
+     * Searches for the closest state with an empty tableau using A*, filling in seenStates along the way.  Returns the
+     * goal state, or -1 if the board can't be cleared.
+     * <p>
+     * The heuristic is the number of cards remaining on the tableau, since each one takes a step to remove.  It's
+     * admissible and consistent, so the first goal state removed from the fringe is reached in the fewest steps.
+     * Every step either draws or removes a card, so the number of steps to reach a state is the same no matter which
+     * path is taken, and it's calculated from the state instead of being stored.  States where the board definitely
+     * can't be cleared aren't searched any further.
+     */
+    private int aStar(Deck deck, int startingState, TIntIntMap seenStates) {
+        IntBucketQueue fringe = new IntBucketQueue(MAX_PRIORITY);
+        if (!State.isUnwinnable(startingState, deck)) {
+            fringe.add(startingState, aStarPriority(startingState, startingState));
+        }
+        return aStar(deck, startingState, seenStates, fringe);
+    }
+
+    /**
+     * Continues an A* search from the states already in the fringe, filling in seenStates along the way.  States
+     * already in seenStates aren't searched again.  Returns the goal state, or -1 if the board can't be cleared.
+     */
+    int aStar(Deck deck, int startingState, TIntIntMap seenStates, IntBucketQueue fringe) {
+        numStatesExpanded = 0;
+        while (!fringe.isEmpty()) {
+            int state = fringe.remove();
+            numStatesExpanded++;
+            if (State.isTableauEmpty(state)) {
+                return state;
+            }
+            for (int nextState : State.successors(state, deck)) {
+                if (!seenStates.containsKey(nextState)) {
+                    seenStates.put(nextState, state);
+                    if (!State.isUnwinnable(nextState, deck)) {
+                        fringe.add(nextState, aStarPriority(nextState, startingState));
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the A* priority of a state: the number of steps to reach it from the starting state plus the number of
+     * cards remaining on the tableau.
+     */
+    static int aStarPriority(int state, int startingState) {
+        int numTableauCards = State.numTableauCards(state);
+        int depth = (State.getStockIndex(state) - State.getStockIndex(startingState)) +
+                (State.numTableauCards(startingState) - numTableauCards);
+        return depth + numTableauCards;
     }
 }
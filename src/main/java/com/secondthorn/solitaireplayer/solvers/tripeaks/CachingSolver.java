@@ -0,0 +1,139 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import com.secondthorn.solitaireplayer.solvers.SolutionStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A TriPeaks solver that remembers solutions in a SolutionStore, so decks that have been solved before don't have to
+ * be solved again.
+ * <p>
+ * Unlike Pyramid, TriPeaks decks may have unknown cards and the solvers may guess at them, so the key is the exact
+ * deck including unknown cards, along with the solver's goal and the starting state.  The actions are stored as deck
+ * indexes.
+ */
+public class CachingSolver implements TriPeaksSolver {
+    private TriPeaksSolver solver;
+    private SolutionStore store;
+    private String goal;
+    private int hits;
+
+    /**
+     * Creates a caching solver.
+     *
+     * @param solver the solver to use for decks that aren't in the store
+     * @param store  the store to look up and save solutions in
+     * @param goal   a description of the solver and its goal, such as "Score 1290 0", so solutions for different
+     *               goals aren't confused
+     */
+    public CachingSolver(TriPeaksSolver solver, SolutionStore store, String goal) {
+        this.solver = solver;
+        this.store = store;
+        this.goal = goal;
+    }
+
+    /**
+     * Returns the stored solution for the deck and starting state, or solves it and stores the solution.  Only
+     * definitive solutions are stored, because a better one may be found once unknown cards are revealed.
+     *
+     * @param deck          a deck of cards for TriPeaks Solitaire
+     * @param startingState the starting state for the solver to begin at (might not be the beginning of the game)
+     * @return a Solution (may indicate there is nothing possible to do)
+     * @throws UncheckedIOException if the solution can't be saved to the store
+     */
+    @Override
+    public Solution solve(Deck deck, int startingState) {
+        byte[] key = key(deck, startingState);
+        byte[] value = store.get(key);
+        if (value != null) {
+            try {
+                Solution solution = decode(value, deck);
+                hits++;
+                return solution;
+            } catch (IOException | RuntimeException ex) {
+                // a corrupt or unreadable record is solved again and replaced below
+            }
+        }
+        Solution solution = solver.solve(deck, startingState);
+        if (solution.isDefinitiveSolution()) {
+            try {
+                store.put(key, encode(solution));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to save the solution", ex);
+            }
+        }
+        return solution;
+    }
+
+    /**
+     * Returns how many times solve returned a stored solution instead of solving the deck.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the key: "TriPeaks", the goal, a zero byte, the two characters of each card, and the starting state.
+     */
+    private byte[] key(Deck deck, int startingState) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(("TriPeaks " + goal).getBytes(StandardCharsets.UTF_8));
+            out.writeByte(0);
+            for (String card : deck.getCards()) {
+                out.write(card.getBytes(StandardCharsets.US_ASCII));
+            }
+            out.writeInt(startingState);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Returns the solution as bytes: the description, whether it's definitive, the ending and previous states, the
+     * number of actions, then each action's deck index, or -1 for undoing the board.
+     */
+    private static byte[] encode(Solution solution) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(solution.getDescription());
+        out.writeBoolean(solution.isDefinitiveSolution());
+        out.writeInt(solution.getEndingState());
+        out.writeInt(solution.getPreviousState());
+        out.writeInt(solution.getActions().size());
+        for (Action action : solution.getActions()) {
+            out.writeByte(action.getCommand() == Action.Command.UNDO_BOARD ? -1 : action.getDeckIndex());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the solution encoded by encode(), with the cards taken from the deck.
+     */
+    private static Solution decode(byte[] value, Deck deck) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        String description = in.readUTF();
+        boolean definitive = in.readBoolean();
+        int endingState = in.readInt();
+        int previousState = in.readInt();
+        int numActions = in.readInt();
+        List<Action> actions = new ArrayList<>(numActions);
+        for (int i = 0; i < numActions; i++) {
+            int deckIndex = in.readByte();
+            actions.add(new Action(deckIndex < 0 ? "Undo Board" : deck.cardAt(deckIndex), deck));
+        }
+        return new Solution(description, definitive, actions, endingState, previousState);
+    }
+}
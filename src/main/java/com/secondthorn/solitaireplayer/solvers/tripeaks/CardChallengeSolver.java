@@ -77,7 +77,9 @@ public class CardChallengeSolver implements TriPeaksSolver {
             for (int nextState : successors) {
                 if (!seenStates.containsKey(nextState)) {
                     seenStates.put(nextState, state);
-                    fringe.enqueue(nextState);
+                    if (!isHopeless(nextState, deck, tableauRankMask, numGoalCardsOnTableau, bestNonClearStateScore)) {
+                        fringe.enqueue(nextState);
+                    }
                 }
             }
         }
@@ -114,6 +116,19 @@ public class CardChallengeSolver implements TriPeaksSolver {
         return numGoalCardsOnTableau - numRemainingCards;
     }
 
+    /**
+     * Returns true if searching past the state can't lead to a better solution than what's been found so far.
+     * This happens when the tableau can't be cleared, and the goal cards that can still be removed aren't enough
+     * to reach the goal or to remove more goal cards than the best non-clearing state seen so far.
+     */
+    private boolean isHopeless(int state, Deck deck, int tableauRankMask, int numGoalCardsOnTableau, int bestScore) {
+        int maxGoalCardsRemoved = numGoalCardsRemoved(state, tableauRankMask, numGoalCardsOnTableau) +
+                State.maxRemovableTableauCards(state, deck, tableauRankMask);
+        return (maxGoalCardsRemoved < numCardsToClear) &&
+                (maxGoalCardsRemoved <= bestScore) &&
+                State.isUnwinnable(state, deck);
+    }
+
     /**
      * Returns the number of bits set in the integer n.
      */
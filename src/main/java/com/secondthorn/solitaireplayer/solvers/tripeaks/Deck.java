@@ -1,7 +1,10 @@
 package com.secondthorn.solitaireplayer.solvers.tripeaks;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.IntStream;
 
 /**
@@ -17,6 +20,9 @@ public class Deck {
 
     private List<String> cards;
     private int[] values;
+    private long[] matchingCardsMasks;
+    private int[][] stockValueCounts;
+    private int[] tableauValueMasks;
 
     /**
      * Creates a Deck from a List of 52 cards.
@@ -29,6 +35,9 @@ public class Deck {
         }
         this.cards = cards;
         this.values = cards.stream().mapToInt(Deck::cardValue).toArray();
+        this.matchingCardsMasks = calcMatchingCardsMasks(values);
+        this.stockValueCounts = calcStockValueCounts(values);
+        this.tableauValueMasks = calcTableauValueMasks(values);
     }
 
     /**
@@ -97,6 +106,26 @@ public class Deck {
         return IntStream.range(0, cards.size()).anyMatch(this::isUnknownCard);
     }
 
+    /**
+     * Returns the cards from a standard 52 card deck that aren't in this deck.  These are the possible identities of
+     * the unknown cards.
+     *
+     * @return a list (possibly empty) of the cards missing from the deck
+     */
+    public List<String> missingCards() {
+        List<String> missingCards = new ArrayList<>();
+        Set<String> cardSet = new HashSet<>(cards);
+        for (char suit : "cdhs".toCharArray()) {
+            for (char rank : "A23456789TJQK".toCharArray()) {
+                String card = String.format("%s%s", rank, suit);
+                if (!cardSet.contains(card)) {
+                    missingCards.add(card);
+                }
+            }
+        }
+        return missingCards;
+    }
+
     /**
      * Returns a mask with bits set (0 - 27) on the tableau cards indexes with cards of the given rank.
      *
@@ -132,6 +161,87 @@ public class Deck {
         return value1 == plusOneValue || value1 == minusOneValue;
     }
 
+    /**
+     * Returns a mask with bits set (0 - 51) on the deck indexes of the cards that can be on top of the waste pile
+     * for the tableau card to be moved onto it.  Unknown cards could be anything, so they're always included, and an
+     * unknown tableau card's mask includes every card.
+     *
+     * @param tableauIndex a tableau index from 0 to 27
+     * @return a mask with bits set on the deck indexes for the cards one rank above or below the tableau card
+     */
+    long matchingCardsMask(int tableauIndex) {
+        return matchingCardsMasks[tableauIndex];
+    }
+
+    /**
+     * Returns a numeric value for the card at the given deck index, Ace=0, ..., King=12, Unknown=13.
+     *
+     * @param index an integer from 0 to 51
+     * @return the card's numeric value
+     */
+    int cardValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns how many cards of each value (indexed by the numeric value 0 - 13) are in the stock pile when the given
+     * deck index is the top of the stock pile.  The caller must not modify the array.
+     *
+     * @param stockIndex the deck index of the top card of the stock pile, or 52 if it's empty (29 - 52)
+     * @return an array of the number of cards in the stock pile of each value
+     */
+    int[] stockValueCounts(int stockIndex) {
+        return stockValueCounts[stockIndex];
+    }
+
+    /**
+     * Returns a mask with bits set (0 - 27) on the tableau cards indexes with cards of the given numeric value.
+     *
+     * @param value a numeric card value, Ace=0, ..., King=12, Unknown=13
+     * @return a mask with bits set on the tableau indexes for the cards of the given value
+     */
+    int tableauValueMask(int value) {
+        return tableauValueMasks[value];
+    }
+
+    /**
+     * For each numeric card value, calculates the mask of the tableau cards with that value.
+     */
+    private int[] calcTableauValueMasks(int[] values) {
+        int[] masks = new int[14];
+        for (int i = 0; i < 28; i++) {
+            masks[values[i]] |= 1 << i;
+        }
+        return masks;
+    }
+
+    /**
+     * For each possible stock index, calculates the number of cards of each value remaining in the stock pile.
+     */
+    private int[][] calcStockValueCounts(int[] values) {
+        int[][] counts = new int[53][14];
+        for (int stockIndex = 51; stockIndex >= 29; stockIndex--) {
+            counts[stockIndex] = counts[stockIndex + 1].clone();
+            counts[stockIndex][values[stockIndex]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * For each of the 28 tableau cards, calculates the mask of the cards in the deck that it can be moved onto.
+     */
+    private long[] calcMatchingCardsMasks(int[] values) {
+        long[] masks = new long[28];
+        for (int i = 0; i < 28; i++) {
+            for (int j = 0; j < 52; j++) {
+                if ((values[i] == 13) || (values[j] == 13) || isOneAboveOrBelow(i, j)) {
+                    masks[i] |= 1L << j;
+                }
+            }
+        }
+        return masks;
+    }
+
     /**
      * Returns a card's rank, one of A23456789TJQK.
      */
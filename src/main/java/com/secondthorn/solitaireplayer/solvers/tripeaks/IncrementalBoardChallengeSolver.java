@@ -0,0 +1,127 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+
+/**
+ * An A* Board Challenge solver for solving the same game over and over while face down tableau cards are being
+ * turned over.  It keeps the search graph from the previous call to solve, and when the next deck only differs by
+ * having some unknown cards revealed, it only searches again from the states affected by the revealed cards instead
+ * of starting over.
+ * <p>
+ * This works because revealing a card never takes away a move.  Unknown cards can't be moved or have anything moved
+ * onto them, so all the previously searched moves are still possible, and the only new moves are from states where
+ * a revealed card is face up on the tableau or on top of the waste pile.  Every path to a state takes the same number
+ * of steps, so the previous search results don't need to be updated either.  States that couldn't be won before
+ * revealing a card still can't be won afterwards, since unknown cards are treated as matching anything.
+ */
+public class IncrementalBoardChallengeSolver extends BoardChallengeSolver {
+    /**
+     * The deck used in the previous call to solve, or null if there is no previous search to continue from.
+     */
+    private Deck previousDeck;
+
+    /**
+     * The starting state used in the previous call to solve.
+     */
+    private int previousStartingState;
+
+    /**
+     * The states seen in the previous call to solve, mapped to their previous states.
+     */
+    private TIntIntMap previousSeenStates;
+
+    public IncrementalBoardChallengeSolver() {
+        super(true);
+    }
+
+    /**
+     * Returns a new solver that continues from the same previous search, with its own copy of the search graph.
+     *
+     * @return a solver that continues from this solver's previous search
+     */
+    @Override
+    public IncrementalBoardChallengeSolver continuation() {
+        IncrementalBoardChallengeSolver continuation = new IncrementalBoardChallengeSolver();
+        if (previousDeck != null) {
+            continuation.previousDeck = previousDeck;
+            continuation.previousStartingState = previousStartingState;
+            continuation.previousSeenStates = new TIntIntHashMap(previousSeenStates);
+        }
+        return continuation;
+    }
+
+    /**
+     * Return either a solution for finishing a Board Challenge in TriPeaks, a solution indicating it's impossible,
+     * or a solution indicating there are unknown cards so it's unknown whether or not it's possible.  If the previous
+     * call to solve had the same starting state and a deck with the same cards except for some unknown cards, the
+     * search continues from where it left off.
+     *
+     * @param deck          the deck of cards to solve
+     * @param startingState the starting state of the game for the solver to begin searching from
+     * @return a list containing one Solution
+     */
+    @Override
+    public Solution solve(Deck deck, int startingState) {
+        long revealedCards = (previousDeck != null && previousStartingState == startingState) ?
+                revealedCards(previousDeck, deck) :
+                -1L;
+        TIntIntMap seenStates;
+        IntBucketQueue fringe = new IntBucketQueue(MAX_PRIORITY);
+        if (revealedCards == -1L) {
+            seenStates = new TIntIntHashMap();
+            if (!State.isUnwinnable(startingState, deck)) {
+                fringe.add(startingState, aStarPriority(startingState, startingState));
+            }
+        } else {
+            seenStates = previousSeenStates;
+            addIfAffected(deck, startingState, startingState, revealedCards, fringe);
+            for (int state : seenStates.keys()) {
+                addIfAffected(deck, state, startingState, revealedCards, fringe);
+            }
+        }
+        int goalState = aStar(deck, startingState, seenStates, fringe);
+        if (goalState == -1) {
+            previousDeck = deck;
+            previousStartingState = startingState;
+            previousSeenStates = seenStates;
+        } else {
+            // the search stopped at the goal without searching everything, so there's nothing to continue from
+            previousDeck = null;
+            previousSeenStates = null;
+        }
+        return solution(deck, startingState, seenStates, goalState);
+    }
+
+    /**
+     * Adds the state to the fringe if it needs to be searched again after revealing cards.  That's when one of the
+     * revealed cards is face up on the tableau or on the waste pile, and the board can still be cleared.
+     */
+    private void addIfAffected(Deck deck, int state, int startingState, long revealedCards, IntBucketQueue fringe) {
+        boolean affected = ((1L << State.getWasteIndex(state)) & revealedCards) != 0;
+        for (int i : State.TABLEAU_FACE_UP_INDEXES[State.getTableauIndex(state)]) {
+            affected |= ((1L << i) & revealedCards) != 0;
+        }
+        if (affected && !State.isUnwinnable(state, deck)) {
+            fringe.add(state, aStarPriority(state, startingState));
+        }
+    }
+
+    /**
+     * Returns a bitmask of the deck indexes of the cards that were unknown in the old deck and are known in the new
+     * deck, or -1 if any other card is different, meaning the search can't continue from the old deck.
+     */
+    private static long revealedCards(Deck oldDeck, Deck newDeck) {
+        long revealed = 0L;
+        for (int i = 0; i < 52; i++) {
+            if (oldDeck.isUnknownCard(i)) {
+                if (!newDeck.isUnknownCard(i)) {
+                    revealed |= 1L << i;
+                }
+            } else if (!oldDeck.cardAt(i).equals(newDeck.cardAt(i))) {
+                return -1L;
+            }
+        }
+        return revealed;
+    }
+}
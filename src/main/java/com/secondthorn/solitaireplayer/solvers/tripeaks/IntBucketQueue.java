@@ -0,0 +1,78 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A Bucket Queue for primitive (unboxed) ints, where the priorities are small integers and you only need to insert
+ * items and remove the item with the lowest priority.
+ * <p>
+ * It's an array of int stacks where the index into the array is the priority.  Within the same priority, the most
+ * recently added item is removed first.  For A* this means that among states with the same estimated total cost,
+ * the deepest ones are expanded first, so the search dives towards a goal instead of sweeping through each layer.
+ */
+public class IntBucketQueue {
+    private int[][] buckets;
+    private int[] sizes;
+    private int currentPriority;
+
+    /**
+     * Creates a bucket queue that allows priorities from 0 to maximumPriority inclusive.
+     *
+     * @param maximumPriority the maximum priority an item in the queue can have
+     */
+    IntBucketQueue(int maximumPriority) {
+        int capacity = maximumPriority + 1;
+        buckets = new int[capacity][];
+        sizes = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            buckets[i] = new int[16];
+        }
+        currentPriority = capacity;
+    }
+
+    /**
+     * Add an int to the bucket queue with the given priority.
+     *
+     * @param item     an int to be added to the queue
+     * @param priority the priority of the item
+     */
+    void add(int item, int priority) {
+        if (priority < currentPriority) {
+            currentPriority = priority;
+        }
+        int[] bucket = buckets[priority];
+        int size = sizes[priority];
+        if (size == bucket.length) {
+            int[] a = new int[size << 1];
+            System.arraycopy(bucket, 0, a, 0, size);
+            buckets[priority] = bucket = a;
+        }
+        bucket[size] = item;
+        sizes[priority] = size + 1;
+    }
+
+    /**
+     * Returns true if the queue is empty
+     */
+    boolean isEmpty() {
+        return currentPriority == buckets.length;
+    }
+
+    /**
+     * Removes and returns the most recently added item with the lowest priority in the queue.
+     *
+     * @return the lowest priority item in the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    int remove() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        int size = --sizes[currentPriority];
+        int item = buckets[currentPriority][size];
+        while ((currentPriority < buckets.length) && (sizes[currentPriority] == 0)) {
+            currentPriority++;
+        }
+        return item;
+    }
+}
@@ -0,0 +1,219 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the next move for a TriPeaks Solitaire Board Challenge when some cards are still unknown.
+ * <p>
+ * The unknown cards must be the cards missing from the deck, so it repeatedly deals them out randomly into the unknown
+ * positions and checks which of the currently possible moves can still lead to clearing the board.  The move that
+ * clears the board in the most sampled deals is chosen.  Samples are checked in parallel on every core until the time
+ * budget runs out, using a quick depth-first search that gives up on a sample after a fixed number of states.  If
+ * all the cards are known, it solves the deck exactly instead.
+ * <p>
+ * The sampling threads are started the first time they're needed and reused by later calls to solve, until shutdown
+ * is called.
+ */
+public class MonteCarloSolver implements TriPeaksSolver {
+    /**
+     * The number of states the depth-first search can expand for one sampled deal before it gives up and counts it as
+     * a loss.
+     */
+    public static final int DEFAULT_MAX_STATES_PER_SAMPLE = 5000;
+
+    private long timeBudgetMillis;
+    private int maxSamples;
+    private int maxStatesPerSample;
+    private long seed;
+    private int numSamples;
+    private ExecutorService executor;
+
+    /**
+     * Creates a Monte Carlo solver that samples as many deals as it can within the time budget.
+     *
+     * @param timeBudgetMillis how long to spend sampling deals, in milliseconds
+     */
+    public MonteCarloSolver(long timeBudgetMillis) {
+        this(timeBudgetMillis, Integer.MAX_VALUE, DEFAULT_MAX_STATES_PER_SAMPLE, new Random().nextLong());
+    }
+
+    /**
+     * Creates a Monte Carlo solver.
+     *
+     * @param timeBudgetMillis   how long to spend sampling deals, in milliseconds
+     * @param maxSamples         the maximum number of deals to sample, even if there is time left
+     * @param maxStatesPerSample the number of states to search in each deal before counting it as a loss
+     * @param seed               the random number seed for dealing out the unknown cards
+     */
+    public MonteCarloSolver(long timeBudgetMillis, int maxSamples, int maxStatesPerSample, long seed) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxSamples = maxSamples;
+        this.maxStatesPerSample = maxStatesPerSample;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns a solution for a Board Challenge.  If there are unknown cards, the solution is the single move that
+     * cleared the board in the most sampled deals, and it isn't definitive.
+     *
+     * @param deck          a deck of cards for TriPeaks Solitaire
+     * @param startingState the starting state for the solver to begin at (might not be the beginning of the game)
+     * @return a Solution (may indicate there is nothing possible to do)
+     */
+    @Override
+    public Solution solve(Deck deck, int startingState) {
+        numSamples = 0;
+        int[] moves = State.successors(startingState, deck);
+        if (!deck.hasUnknownCards() || moves.length == 0) {
+            return new BoardChallengeSolver(true).solve(deck, startingState);
+        }
+        int[] numWins = sample(deck, moves);
+        int bestMove = 0;
+        for (int i = 1; i < moves.length; i++) {
+            if (numWins[i] > numWins[bestMove]) {
+                bestMove = i;
+            }
+        }
+        int nextState = moves[bestMove];
+        List<Action> actions = new ArrayList<>();
+        actions.add(new Action(deck.cardAt(State.getWasteIndex(nextState)), deck));
+        String description = String.format("Best next move clears the board in %d of %d sampled deals",
+                numWins[bestMove], numSamples);
+        return new Solution(description, false, actions, nextState, startingState);
+    }
+
+    /**
+     * Returns the number of deals sampled during the most recent call to solve.
+     *
+     * @return the number of sampled deals
+     */
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    /**
+     * Stops the sampling threads.  They're started again if solve is called afterwards.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Samples deals in parallel until the time budget or maximum number of samples runs out, and returns the number
+     * of sampled deals where the board could be cleared after making each move.
+     */
+    private int[] sample(Deck deck, int[] moves) {
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        AtomicInteger samplesTaken = new AtomicInteger();
+        Random seeds = new Random(seed);
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(numThreads, runnable -> {
+                Thread thread = new Thread(runnable, "TriPeaks Monte Carlo solver");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            Random random = new Random(seeds.nextLong());
+            futures.add(executor.submit(() -> {
+                // the last element counts the deals sampled by this thread
+                int[] numWins = new int[moves.length + 1];
+                TIntSet seenStates = new TIntHashSet();
+                TIntList stack = new TIntArrayList();
+                while (System.nanoTime() < deadline && samplesTaken.getAndIncrement() < maxSamples &&
+                        !Thread.currentThread().isInterrupted()) {
+                    Deck sampleDeck = sampleDeck(deck, random);
+                    for (int j = 0; j < moves.length; j++) {
+                        if (canClearBoard(sampleDeck, moves[j], seenStates, stack)) {
+                            numWins[j]++;
+                        }
+                    }
+                    numWins[moves.length]++;
+                }
+                return numWins;
+            }));
+        }
+        int[] numWins = new int[moves.length];
+        numSamples = 0;
+        try {
+            for (Future<int[]> future : futures) {
+                int[] threadNumWins = future.get();
+                for (int i = 0; i < moves.length; i++) {
+                    numWins[i] += threadNumWins[i];
+                }
+                numSamples += threadNumWins[moves.length];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed while sampling TriPeaks deals", e.getCause());
+        } finally {
+            for (Future<int[]> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return numWins;
+    }
+
+    /**
+     * Returns a copy of the deck with the unknown cards replaced by a random arrangement of the missing cards.
+     */
+    private static Deck sampleDeck(Deck deck, Random random) {
+        List<String> missingCards = deck.missingCards();
+        Collections.shuffle(missingCards, random);
+        List<String> cards = new ArrayList<>(deck.getCards());
+        int next = 0;
+        for (int i = 0; i < cards.size(); i++) {
+            if (deck.isUnknownCard(i)) {
+                cards.set(i, missingCards.get(next++));
+            }
+        }
+        return new Deck(cards);
+    }
+
+    /**
+     * Returns true if a depth-first search finds a way to clear the board from the state within maxStatesPerSample
+     * states.  Removing tableau cards is tried before drawing from the stock pile.  The stack grows as needed and is
+     * reused between samples.
+     */
+    private boolean canClearBoard(Deck deck, int startingState, TIntSet seenStates, TIntList stack) {
+        seenStates.clear();
+        stack.clear();
+        stack.add(startingState);
+        int numStatesExpanded = 0;
+        while (!stack.isEmpty() && numStatesExpanded < maxStatesPerSample) {
+            int state = stack.removeAt(stack.size() - 1);
+            numStatesExpanded++;
+            if (State.isTableauEmpty(state)) {
+                return true;
+            }
+            if (State.isUnwinnable(state, deck)) {
+                continue;
+            }
+            for (int nextState : State.successors(state, deck)) {
+                if (seenStates.add(nextState)) {
+                    stack.add(nextState);
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,197 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A TriPeaks solver that can start solving before face down cards are turned over.  Unknown cards must be one of the
+ * cards missing from the deck, so while the moves to turn over cards are being played, it solves every possible deck
+ * in parallel in the background.  When the cards have been read and solve is called, the solution for that deck is
+ * already done or being worked on.  If the deck isn't one of the ones it speculated on, it solves it normally.
+ * <p>
+ * With a solver that can continue from its last search, like IncrementalBoardChallengeSolver, one copy of that search
+ * is shared by every possible deck, and each background task makes its own copy only when it starts running.  Only
+ * the solutions are kept, so the search to continue from for the next reveal is still the one from before
+ * speculating.
+ */
+public class SpeculativeSolver implements TriPeaksSolver {
+    /**
+     * The default maximum number of decks to solve in the background at once.  Revealing one card has at most 18
+     * possibilities, but revealing two cards at the same time can have hundreds.
+     */
+    public static final int DEFAULT_MAX_SPECULATIONS = 64;
+
+    private Supplier<TriPeaksSolver> solverFactory;
+    private TriPeaksSolver solver;
+    private int maxSpeculations;
+    private ExecutorService executor;
+    private Map<List<String>, Future<Solution>> speculations = new HashMap<>();
+    private int speculativeStartingState;
+    private int hits;
+
+    /**
+     * Creates a speculative solver that solves at most DEFAULT_MAX_SPECULATIONS decks in the background.
+     *
+     * @param solverFactory creates the solver to use, each background task uses its own solver
+     */
+    public SpeculativeSolver(Supplier<TriPeaksSolver> solverFactory) {
+        this(solverFactory, DEFAULT_MAX_SPECULATIONS);
+    }
+
+    /**
+     * Creates a speculative solver.
+     *
+     * @param solverFactory   creates the solver to use, each background task uses its own solver
+     * @param maxSpeculations the maximum number of possible decks to solve in the background at once
+     */
+    public SpeculativeSolver(Supplier<TriPeaksSolver> solverFactory, int maxSpeculations) {
+        this.solverFactory = solverFactory;
+        this.solver = solverFactory.get();
+        this.maxSpeculations = maxSpeculations;
+    }
+
+    /**
+     * Starts solving in the background for every possible identity of the unknown cards about to be revealed,
+     * cancelling any previous speculation.  If there are too many possibilities, nothing is solved in advance.
+     *
+     * @param deck            the deck of cards before the cards are revealed
+     * @param startingState   the state that solve will be called with after the cards are revealed
+     * @param revealedIndexes the deck indexes of the unknown cards that will be revealed
+     * @return the number of possible decks being solved in the background
+     */
+    public int speculate(Deck deck, int startingState, int[] revealedIndexes) {
+        cancel();
+        List<Deck> possibleDecks = possibleDecks(deck, revealedIndexes);
+        if (!possibleDecks.isEmpty()) {
+            if (executor == null) {
+                executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "TriPeaks speculative solver");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            speculativeStartingState = startingState;
+            // the solver may solve again while background tasks are starting, so they share a copy that never changes
+            TriPeaksSolver previousSearch = solver.continuation();
+            for (Deck possibleDeck : possibleDecks) {
+                Future<Solution> future = executor.submit(() -> {
+                    TriPeaksSolver speculativeSolver = (previousSearch != null) ?
+                            previousSearch.continuation() :
+                            solverFactory.get();
+                    return speculativeSolver.solve(possibleDeck, startingState);
+                });
+                speculations.put(possibleDeck.getCards(), future);
+            }
+        }
+        return possibleDecks.size();
+    }
+
+    /**
+     * Returns the solution for the deck, waiting for the background solver if the deck was speculated on.  Any other
+     * speculation is cancelled.  If the thread is interrupted while waiting, it returns a solution that isn't
+     * definitive and has no actions.
+     *
+     * @param deck          a deck of cards for TriPeaks Solitaire
+     * @param startingState the starting state for the solver to begin at (might not be the beginning of the game)
+     * @return a Solution (may indicate there is nothing possible to do)
+     */
+    @Override
+    public Solution solve(Deck deck, int startingState) {
+        Future<Solution> future = (startingState == speculativeStartingState) ?
+                speculations.remove(deck.getCards()) :
+                null;
+        cancel();
+        if (future != null) {
+            try {
+                Solution solution = future.get();
+                hits++;
+                return solution;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return new Solution("Interrupted before finding a solution", false, new ArrayList<>(), startingState,
+                        startingState);
+            } catch (ExecutionException e) {
+                // solve it again below, so that any exception is thrown from this thread
+            }
+        }
+        return solver.solve(deck, startingState);
+    }
+
+    /**
+     * Returns how many times solve returned the solution from a background solver instead of solving the deck.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Cancels all background solving.
+     */
+    public void cancel() {
+        for (Future<Solution> future : speculations.values()) {
+            future.cancel(true);
+        }
+        speculations.clear();
+    }
+
+    /**
+     * Cancels all background solving and stops the background threads.
+     */
+    public void shutdown() {
+        cancel();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Returns every deck that could result from revealing the cards at the given indexes, or an empty list if there
+     * are more than maxSpeculations of them.  Like when a TriPeaks player reads cards from the screen, if there's only
+     * one unknown card left it's filled in with the last missing card.
+     */
+    private List<Deck> possibleDecks(Deck deck, int[] revealedIndexes) {
+        List<String> missingCards = deck.missingCards();
+        long numPossibleDecks = 1;
+        for (int i = 0; i < revealedIndexes.length; i++) {
+            numPossibleDecks *= missingCards.size() - i;
+        }
+        List<Deck> possibleDecks = new ArrayList<>();
+        if (revealedIndexes.length > 0 && numPossibleDecks > 0 && numPossibleDecks <= maxSpeculations) {
+            addPossibleDecks(new ArrayList<>(deck.getCards()), revealedIndexes, 0, missingCards, possibleDecks);
+        }
+        return possibleDecks;
+    }
+
+    /**
+     * Fills in the unknown cards at revealedIndexes[i] onward with each remaining missing card in turn, and adds the
+     * resulting decks to possibleDecks.
+     */
+    private void addPossibleDecks(List<String> cards, int[] revealedIndexes, int i, List<String> missingCards,
+                                  List<Deck> possibleDecks) {
+        if (i == revealedIndexes.length) {
+            List<String> possibleCards = new ArrayList<>(cards);
+            int unknownIndex = possibleCards.indexOf(Deck.UNKNOWN_CARD);
+            if (missingCards.size() == 1 && unknownIndex >= 0 &&
+                    unknownIndex == possibleCards.lastIndexOf(Deck.UNKNOWN_CARD)) {
+                possibleCards.set(unknownIndex, missingCards.get(0));
+            }
+            possibleDecks.add(new Deck(possibleCards));
+            return;
+        }
+        for (int j = 0; j < missingCards.size(); j++) {
+            List<String> remainingCards = new ArrayList<>(missingCards);
+            cards.set(revealedIndexes[i], remainingCards.remove(j));
+            addPossibleDecks(cards, revealedIndexes, i + 1, remainingCards, possibleDecks);
+        }
+        cards.set(revealedIndexes[i], Deck.UNKNOWN_CARD);
+    }
+}
@@ -21,6 +21,46 @@ import gnu.trove.map.hash.TIntIntHashMap;
  * beginning of the game.
  */
 public class State {
+    /**
+     * For each of the 28 tableau cards, a mask with bits set on the card and the cards blocking it from below.
+     */
+    private static final int[] BLOCKING_MASKS = {
+            0b0000001111000000111000011001,
+            0b0001111000000111000001100010,
+            0b1111000000111000000110000100,
+            0b0000000111000000011000001000,
+            0b0000001110000000110000010000,
+            0b0000111000000011000000100000,
+            0b0001110000000110000001000000,
+            0b0111000000011000000010000000,
+            0b1110000000110000000100000000,
+            0b0000000011000000001000000000,
+            0b0000000110000000010000000000,
+            0b0000001100000000100000000000,
+            0b0000011000000001000000000000,
+            0b0000110000000010000000000000,
+            0b0001100000000100000000000000,
+            0b0011000000001000000000000000,
+            0b0110000000010000000000000000,
+            0b1100000000100000000000000000,
+            0b0000000001000000000000000000,
+            0b0000000010000000000000000000,
+            0b0000000100000000000000000000,
+            0b0000001000000000000000000000,
+            0b0000010000000000000000000000,
+            0b0000100000000000000000000000,
+            0b0001000000000000000000000000,
+            0b0010000000000000000000000000,
+            0b0100000000000000000000000000,
+            0b1000000000000000000000000000
+    };
+
+    /**
+     * For each of the 28 tableau cards, a mask with bits set on the cards it blocks, which can't be removed until
+     * it's removed first.
+     */
+    private static final int[] BLOCKED_MASKS = allBlockedMasks();
+
     /**
      * All 22932 possible values for tableau flags. Tableau flags are 28-bit values indicating which of the 28 cards
      * in the tableau remain in the game. The index into this array represents a tableau index or unique ID for each
@@ -97,6 +137,16 @@ public class State {
         return getTableauIndex(state) == 0;
     }
 
+    /**
+     * Returns the number of cards remaining on the board/tableau.
+     *
+     * @param state a TriPeaks Solitaire state
+     * @return the number of the 28 tableau cards that haven't been moved to the waste pile yet
+     */
+    public static int numTableauCards(int state) {
+        return Integer.bitCount(TABLEAU_FLAGS[getTableauIndex(state)]);
+    }
+
     /**
      * Returns true if the stock pile is empty
      *
@@ -136,6 +186,94 @@ public class State {
         return nextStates.toArray();
     }
 
+    /**
+     * Returns flags for the tableau cards remaining in the state that can never be moved to the waste pile, along
+     * with the cards they block.
+     * <p>
+     * A tableau card can only be removed when a card one rank above or below it is on top of the waste pile.  That
+     * card must be the current top of the waste pile, a card remaining in the stock pile, or another tableau card
+     * that isn't blocked by it.  If none of those exist, the card is stuck on the tableau forever.  Unknown cards
+     * could be anything, so they're never considered stuck and they can always help remove other cards.
+     *
+     * @param state a TriPeaks Solitaire state
+     * @param deck  a deck of cards, some of which may be unknown
+     * @return tableau flags for the cards that can never be removed
+     */
+    public static int unremovableTableauFlags(int state, Deck deck) {
+        int tableauFlags = TABLEAU_FLAGS[getTableauIndex(state)];
+        long availableCards = (-1L << getStockIndex(state)) | (1L << getWasteIndex(state)) | tableauFlags;
+        int unremovableFlags = 0;
+        for (int flags = tableauFlags; flags != 0; flags &= flags - 1) {
+            int tableauIndex = Integer.numberOfTrailingZeros(flags);
+            long helpers = availableCards & ~(long) BLOCKED_MASKS[tableauIndex];
+            if ((deck.matchingCardsMask(tableauIndex) & helpers) == 0) {
+                unremovableFlags |= (1 << tableauIndex) | BLOCKED_MASKS[tableauIndex];
+            }
+        }
+        return unremovableFlags & tableauFlags;
+    }
+
+    /**
+     * Returns an upper bound on how many of the given tableau cards can still be moved to the waste pile.
+     * <p>
+     * Besides skipping the cards in unremovableTableauFlags, it counts ranks: once a card is moved onto the top card
+     * of the waste pile, that card is covered forever.  So every card that can still reach the top of the waste pile
+     * (the current top, the stock cards, and the tableau cards) has at most one card moved onto it, and the number of
+     * cards of a rank that can be removed is at most the number of cards one rank above or below it.  Unknown cards
+     * could be anything, so they always count.
+     *
+     * @param state        a TriPeaks Solitaire state
+     * @param deck         a deck of cards, some of which may be unknown
+     * @param tableauFlags flags for the tableau cards to count
+     * @return the maximum number of those tableau cards that might still be moved to the waste pile
+     */
+    public static int maxRemovableTableauCards(int state, Deck deck, int tableauFlags) {
+        int remainingFlags = TABLEAU_FLAGS[getTableauIndex(state)];
+        int targetFlags = remainingFlags & tableauFlags & ~unremovableTableauFlags(state, deck);
+        if (targetFlags == 0) {
+            return 0;
+        }
+        int[] stockValueCounts = deck.stockValueCounts(getStockIndex(state));
+        int wasteValue = deck.cardValue(getWasteIndex(state));
+        int numUnknownSupports = stockValueCounts[13] +
+                Integer.bitCount(remainingFlags & deck.tableauValueMask(13)) +
+                ((wasteValue == 13) ? 1 : 0);
+        int maxRemovable = 0;
+        while (targetFlags != 0) {
+            int value = deck.cardValue(Integer.numberOfTrailingZeros(targetFlags));
+            int sameValueFlags = targetFlags & deck.tableauValueMask(value);
+            targetFlags &= ~sameValueFlags;
+            int numTargets = Integer.bitCount(sameValueFlags);
+            if (value == 13) {
+                maxRemovable += numTargets;
+            } else {
+                int below = (value + 12) % 13;
+                int above = (value + 1) % 13;
+                int neighborFlags = deck.tableauValueMask(below) | deck.tableauValueMask(above);
+                int numSupports = numUnknownSupports +
+                        stockValueCounts[below] + stockValueCounts[above] +
+                        Integer.bitCount(remainingFlags & neighborFlags) +
+                        (((wasteValue == below) || (wasteValue == above)) ? 1 : 0);
+                maxRemovable += Math.min(numTargets, numSupports);
+            }
+        }
+        return maxRemovable;
+    }
+
+    /**
+     * Returns true if it's impossible to clear the tableau from the given state, because some card remaining on the
+     * tableau can never be moved to the waste pile (see maxRemovableTableauCards).  Returning false isn't a guarantee
+     * that the tableau can be cleared, the check is just quick enough to prune states while searching.
+     *
+     * @param state a TriPeaks Solitaire state
+     * @param deck  a deck of cards, some of which may be unknown
+     * @return true if the tableau definitely can't be cleared
+     */
+    public static boolean isUnwinnable(int state, Deck deck) {
+        int remainingFlags = TABLEAU_FLAGS[getTableauIndex(state)];
+        return maxRemovableTableauCards(state, deck, remainingFlags) < Integer.bitCount(remainingFlags);
+    }
+
     /**
      * Returns an array of face up cards on the tableau (by their index 0 - 17) that are unknown cards.
      * Indexes 18-27 on the tableau start out face up so they're always known.
@@ -228,6 +366,21 @@ public class State {
         return rows.toArray();
     }
 
+    /**
+     * For each tableau card, creates a mask of the cards it blocks, by finding every card that it blocks from below.
+     */
+    private static int[] allBlockedMasks() {
+        int[] blockedMasks = new int[28];
+        for (int i = 0; i < 28; i++) {
+            for (int j = 0; j < 28; j++) {
+                if ((i != j) && ((BLOCKING_MASKS[j] & (1 << i)) != 0)) {
+                    blockedMasks[i] |= 1 << j;
+                }
+            }
+        }
+        return blockedMasks;
+    }
+
     /**
      * Creates a mapping from tableau flags to tableau index, the array index to TABLEAU_FLAGS for that value.
      */
@@ -243,40 +396,9 @@ public class State {
      * Creates a list of deck indexes for face up cards on the given tableau flags value.
      */
     private static TIntList tableauFaceUpIndexes(int tableauFlags) {
-        // bits set on the Ith card and the cards blocking it
-        final int[] masks = {
-                0b0000001111000000111000011001,
-                0b0001111000000111000001100010,
-                0b1111000000111000000110000100,
-                0b0000000111000000011000001000,
-                0b0000001110000000110000010000,
-                0b0000111000000011000000100000,
-                0b0001110000000110000001000000,
-                0b0111000000011000000010000000,
-                0b1110000000110000000100000000,
-                0b0000000011000000001000000000,
-                0b0000000110000000010000000000,
-                0b0000001100000000100000000000,
-                0b0000011000000001000000000000,
-                0b0000110000000010000000000000,
-                0b0001100000000100000000000000,
-                0b0011000000001000000000000000,
-                0b0110000000010000000000000000,
-                0b1100000000100000000000000000,
-                0b0000000001000000000000000000,
-                0b0000000010000000000000000000,
-                0b0000000100000000000000000000,
-                0b0000001000000000000000000000,
-                0b0000010000000000000000000000,
-                0b0000100000000000000000000000,
-                0b0001000000000000000000000000,
-                0b0010000000000000000000000000,
-                0b0100000000000000000000000000,
-                0b1000000000000000000000000000
-        };
         TIntList indexes = new TIntArrayList();
         for (int i = 0; i < 28; i++) {
-            int mask = masks[i];
+            int mask = BLOCKING_MASKS[i];
             if ((1 << i) == (tableauFlags & mask)) {
                 indexes.add(i);
             }
@@ -20,6 +20,17 @@ public interface TriPeaksSolver {
      */
     Solution solve(Deck deck, int startingState);
 
+    /**
+     * Returns a new solver that continues from this solver's previous search, with its own copy of anything kept
+     * between searches, or null if this solver starts over every time.  The new solver can solve on another thread as
+     * long as this solver isn't solving while the new one is being made.
+     *
+     * @return a solver that continues from this solver's previous search, or null if there's nothing to continue
+     */
+    default TriPeaksSolver continuation() {
+        return null;
+    }
+
     /**
      * Given a state and a mapping from state to previous state, return a list of Actions to go from the start of the
      * game to the given state.
@@ -0,0 +1,89 @@
+package com.secondthorn.solitaireplayer.players;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CardCacheTest {
+    private static final List<Rectangle> RECTANGLES = Arrays.asList(
+            new Rectangle(0, 0, 25, 43),
+            new Rectangle(30, 0, 25, 43),
+            new Rectangle(60, 0, 25, 43));
+
+    private void drawCharacter(Graphics2D g, char c, int x, int y) throws Exception {
+        String path = CardImageReader.characterImageFilenames("TriPeaks/", c).get(0);
+        g.drawImage(ImageIO.read(ClassLoader.getSystemResource(path)), x, y, null);
+    }
+
+    /**
+     * Creates a fake screenshot with the cards drawn side by side in the rectangles.
+     */
+    private BufferedImage screenshot(String... cards) throws Exception {
+        BufferedImage image = new BufferedImage(85, 43, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        for (int i = 0; i < cards.length; i++) {
+            Rectangle r = RECTANGLES.get(i);
+            drawCharacter(g, cards[i].charAt(0), r.x + 1, r.y + 1);
+            drawCharacter(g, cards[i].charAt(1), r.x + 1, r.y + 22);
+        }
+        g.dispose();
+        return image;
+    }
+
+    @Test
+    void unchangedRegionsAreHits() throws Exception {
+        CardCache cache = new CardCache(new CardImageReader("TriPeaks"), CardCache.DEFAULT_MAX_SIZE);
+        List<String> expected = Arrays.asList("Ac", "Td", "Kh");
+        assertEquals(expected, cache.cardsAt(screenshot("Ac", "Td", "Kh"), RECTANGLES));
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(expected, cache.cardsAt(screenshot("Ac", "Td", "Kh"), RECTANGLES));
+        assertEquals(3, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    void changedRegionsAreMisses() throws Exception {
+        CardCache cache = new CardCache(new CardImageReader("TriPeaks"), CardCache.DEFAULT_MAX_SIZE);
+        cache.cardsAt(screenshot("Ac", "Td", "Kh"), RECTANGLES);
+        assertEquals(Arrays.asList("Ac", "5s", "Kh"), cache.cardsAt(screenshot("Ac", "5s", "Kh"), RECTANGLES));
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedCardsAreEvicted() throws Exception {
+        CardCache cache = new CardCache(new CardImageReader("TriPeaks"), 2);
+        cache.cardsAt(screenshot("Ac", "Td", "Kh"), RECTANGLES);
+        assertEquals(2, cache.size());
+        cache.cardsAt(screenshot("Ac", "Td", "Kh"), RECTANGLES.subList(1, 3));
+        assertEquals(2, cache.getHits());
+        cache.cardsAt(screenshot("Ac", "Td", "Kh"), RECTANGLES.subList(0, 1));
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void hashDependsOnSize() {
+        int[] pixels = new int[12];
+        assertNotEquals(CardCache.pixelHash(pixels, 3, 4), CardCache.pixelHash(pixels, 4, 3));
+    }
+
+    @Test
+    void sizeMustBePositive() throws Exception {
+        CardImageReader reader = new CardImageReader("TriPeaks");
+        assertThrows(IllegalArgumentException.class, () -> new CardCache(reader, 0));
+    }
+}
@@ -0,0 +1,233 @@
+package com.secondthorn.solitaireplayer.players;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class CardImageReaderTest {
+    /**
+     * Returns the tableau rectangles from the game's regions.json file.
+     */
+    private List<Rectangle> tableauRectangles(String gameName) throws IOException {
+        JsonNode regions = new ObjectMapper().readTree(ClassLoader.getSystemResource(gameName + "/regions.json"));
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (JsonNode node : regions.get("tableau")) {
+            rectangles.add(new Rectangle(node.get("x").asInt(), node.get("y").asInt(),
+                    node.get("width").asInt(), node.get("height").asInt()));
+        }
+        return rectangles;
+    }
+
+    /**
+     * Returns the tableau rectangles from the game's regions.json file, scaled from 1440x900.
+     */
+    private List<Rectangle> scaledTableauRectangles(String gameName, double scale) throws IOException {
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (Rectangle r : tableauRectangles(gameName)) {
+            rectangles.add(new Rectangle((int) Math.round(r.x * scale), (int) Math.round(r.y * scale),
+                    (int) Math.round(r.width * scale), (int) Math.round(r.height * scale)));
+        }
+        return rectangles;
+    }
+
+    private BufferedImage characterImage(String gameName, char c) throws Exception {
+        String path = CardImageReader.characterImageFilenames(gameName + "/", c).get(0);
+        return ImageIO.read(ClassLoader.getSystemResource(path));
+    }
+
+    /**
+     * Creates and saves a fake screenshot with each card's rank and suit images drawn in the corner of its region,
+     * then reads it back in.
+     */
+    private BufferedImage screenshot(String gameName, List<Rectangle> rectangles, List<String> cards)
+            throws Exception {
+        return screenshot(gameName, rectangles, cards, 1.0);
+    }
+
+    /**
+     * Creates and saves a fake screenshot of a game window scaled from 1440x900, then reads it back in.  The
+     * rectangles should already be scaled.
+     */
+    private BufferedImage screenshot(String gameName, List<Rectangle> rectangles, List<String> cards, double scale)
+            throws Exception {
+        Rectangle bounds = new Rectangle(rectangles.get(0));
+        rectangles.forEach(bounds::add);
+        BufferedImage image = new BufferedImage(bounds.x + bounds.width, bounds.y + bounds.height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        for (int i = 0; i < cards.size(); i++) {
+            Rectangle r = rectangles.get(i);
+            if (!cards.get(i).equals("??")) {
+                String card = cards.get(i);
+                BufferedImage rank = CardImageReader.scaleImage(characterImage(gameName, card.charAt(0)), scale);
+                BufferedImage suit = CardImageReader.scaleImage(characterImage(gameName, card.charAt(1)), scale);
+                g.drawImage(rank, r.x + (int) Math.round(scale), r.y + (int) Math.round(scale), null);
+                g.drawImage(suit, r.x + (int) Math.round(scale), r.y + (int) Math.round(22 * scale), null);
+            }
+        }
+        g.dispose();
+        File file = File.createTempFile(gameName, ".png");
+        file.deleteOnExit();
+        ImageIO.write(image, "png", file);
+        return ImageIO.read(file);
+    }
+
+    private void readsCardsFromScreenshot(String gameName) throws Exception {
+        List<Rectangle> rectangles = tableauRectangles(gameName);
+        List<String> cards = new ArrayList<>();
+        String ranks = "A23456789TJQK";
+        String suits = "cdhs";
+        for (int i = 0; i < rectangles.size(); i++) {
+            cards.add((i == 3) ? "??" : "" + ranks.charAt(i % 13) + suits.charAt(i % 4));
+        }
+        CardImageReader reader = new CardImageReader(gameName);
+        assertEquals(cards, reader.cardsAt(screenshot(gameName, rectangles, cards), rectangles));
+    }
+
+    private void readsScaledScreenshot(String gameName, double scale) throws Exception {
+        List<Rectangle> rectangles = scaledTableauRectangles(gameName, scale);
+        List<String> cards = new ArrayList<>();
+        String ranks = "A23456789TJQK";
+        String suits = "cdhs";
+        for (int i = 0; i < rectangles.size(); i++) {
+            cards.add("" + ranks.charAt(i % 13) + suits.charAt(i % 4));
+        }
+        CardImageReader reader = CardImageReader.forScale(gameName, scale);
+        assertEquals(cards, reader.cardsAt(screenshot(gameName, rectangles, cards, scale), rectangles));
+    }
+
+    /**
+     * Reads the cards from every saved capture of the game listed in captures/captures.txt and checks them against
+     * the cards the capture is known to show.  Unlike the fake screenshots, these are real game windows, so they catch
+     * anti-aliasing and scaling differences between the templates and what the game actually draws.  The test is
+     * skipped if there are no captures of the game.
+     */
+    private void readsSavedCaptures(String gameName) throws Exception {
+        List<String> lines = Files.readAllLines(
+                Paths.get(ClassLoader.getSystemResource("captures/captures.txt").toURI()));
+        boolean found = false;
+        for (String line : lines) {
+            String[] fields = line.trim().split("\\s+");
+            if (line.startsWith("#") || fields.length < 4 || !fields[0].equals(gameName)) {
+                continue;
+            }
+            found = true;
+            double scale = Double.parseDouble(fields[1]);
+            BufferedImage capture = ImageIO.read(ClassLoader.getSystemResource("captures/" + fields[2]));
+            assertNotNull(capture, fields[2]);
+            List<String> cards = Arrays.asList(fields).subList(3, fields.length);
+            CardImageReader reader = CardImageReader.forScale(gameName, scale);
+            assertEquals(cards, reader.cardsAt(capture, scaledTableauRectangles(gameName, scale)), fields[2]);
+        }
+        assumeTrue(found, "No saved captures of " + gameName);
+    }
+
+    /**
+     * Checks that every card is recognized by looking up its glyph hashes, without falling back to template matching.
+     */
+    private void looksUpEveryCard(String gameName) throws Exception {
+        CardImageReader reader = new CardImageReader(gameName);
+        for (char suit : "cdhs".toCharArray()) {
+            for (char rank : "A23456789TJQK".toCharArray()) {
+                String card = "" + rank + suit;
+                Rectangle r = new Rectangle(0, 0, 25, 43);
+                BufferedImage image = screenshot(gameName, Collections.singletonList(r), Collections.singletonList(card))
+                        .getSubimage(r.x, r.y, r.width, r.height);
+                int[] pixels = image.getRGB(0, 0, r.width, r.height, null, 0, r.width);
+                CardGuess guess = reader.lookupCard(pixels, r.width, r.height);
+                assertNotNull(guess, card);
+                assertEquals(card, guess.getCard());
+                assertTrue(guess.getConfidence() >= CardImageReader.MIN_CONFIDENCE);
+            }
+        }
+    }
+
+    @Test
+    void looksUpEveryTriPeaksCard() throws Exception {
+        looksUpEveryCard("TriPeaks");
+    }
+
+    @Test
+    void looksUpEveryPyramidCard() throws Exception {
+        looksUpEveryCard("Pyramid");
+    }
+
+    @Test
+    void looksUpEveryFreeCellCard() throws Exception {
+        looksUpEveryCard("FreeCell");
+    }
+
+    @Test
+    void blankRegionIsUnknown() throws Exception {
+        CardImageReader reader = new CardImageReader("TriPeaks");
+        BufferedImage image = new BufferedImage(25, 43, BufferedImage.TYPE_INT_RGB);
+        CardGuess guess = reader.guessCard(image);
+        assertEquals("??", guess.getCard());
+        assertEquals(0.0, guess.getConfidence());
+    }
+
+    @Test
+    void readsTriPeaksScreenshot() throws Exception {
+        readsCardsFromScreenshot("TriPeaks");
+    }
+
+    @Test
+    void readsPyramidScreenshot() throws Exception {
+        readsCardsFromScreenshot("Pyramid");
+    }
+
+    @Test
+    void readsFreeCellScreenshot() throws Exception {
+        readsCardsFromScreenshot("FreeCell");
+    }
+
+    @Test
+    void readsScaledTriPeaksScreenshot() throws Exception {
+        readsScaledScreenshot("TriPeaks", 1.25);
+        readsScaledScreenshot("TriPeaks", 1.5);
+    }
+
+    @Test
+    void readsScaledPyramidScreenshot() throws Exception {
+        readsScaledScreenshot("Pyramid", 1.5);
+    }
+
+    @Test
+    void readsSavedTriPeaksCaptures() throws Exception {
+        readsSavedCaptures("TriPeaks");
+    }
+
+    @Test
+    void readsSavedPyramidCaptures() throws Exception {
+        readsSavedCaptures("Pyramid");
+    }
+
+    @Test
+    void readersAreCachedByScale() throws Exception {
+        assertSame(CardImageReader.forScale("TriPeaks", 1.5), CardImageReader.forScale("TriPeaks", 1.5));
+        assertNotSame(CardImageReader.forScale("TriPeaks", 1.5), CardImageReader.forScale("TriPeaks", 1.25));
+    }
+}
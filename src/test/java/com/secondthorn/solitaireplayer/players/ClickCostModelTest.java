@@ -0,0 +1,43 @@
+package com.secondthorn.solitaireplayer.players;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClickCostModelTest {
+    private ClickCostModel costModel = new ClickCostModel(100, 2.5, 500, 150);
+
+    @Test
+    void moveTimeGrowsWithDistance() {
+        assertEquals(100 + 40, costModel.moveMillis(new Point(100, 100), new Point(160, 180)));
+        assertEquals(100 + 200, costModel.moveMillis(new Point(100, 100), new Point(600, 100)));
+    }
+
+    @Test
+    void moveTimeIsCapped() {
+        assertEquals(500, costModel.moveMillis(new Point(0, 0), new Point(1440, 900)));
+        assertEquals(500, costModel.moveMillis(null, new Point(100, 100)));
+    }
+
+    @Test
+    void clickingInPlaceDoesntMove() {
+        assertEquals(0, costModel.moveMillis(new Point(100, 100), new Point(100, 100)));
+        assertEquals(150, costModel.clickMillis(new Point(100, 100), new Point(100, 100)));
+        assertEquals(150 + 140, costModel.clickMillis(new Point(100, 100), new Point(160, 180)));
+    }
+
+    @Test
+    void instantMovementOnlyCountsClicks() {
+        ClickCostModel instant = new ClickCostModel(150);
+        assertEquals(0, instant.moveMillis(new Point(0, 0), new Point(1440, 900)));
+        assertEquals(150, instant.clickMillis(null, null));
+    }
+
+    @Test
+    void maxMoveTimeCantBeLessThanMin() {
+        assertThrows(IllegalArgumentException.class, () -> new ClickCostModel(500, 1, 100, 0));
+    }
+}
@@ -0,0 +1,79 @@
+package com.secondthorn.solitaireplayer.players;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ClickPlannerTest {
+    private static final Map<String, Point> LOCATIONS = new HashMap<>();
+
+    static {
+        LOCATIONS.put("Stock", new Point(700, 600));
+        LOCATIONS.put("Waste", new Point(800, 600));
+        LOCATIONS.put("0", new Point(720, 180));
+        LOCATIONS.put("27", new Point(1100, 480));
+    }
+
+    private ClickPlanner planner(long moveMillis, Point cursor) {
+        return new ClickPlanner(LOCATIONS::get, new ClickCostModel(moveMillis, 1, moveMillis, 100), cursor);
+    }
+
+    @Test
+    void pairStartsWhereTheMouseAlreadyIs() {
+        ClickPlanner planner = planner(500, new Point(700, 600));
+        planner.clickInAnyOrder(Arrays.asList("27", "Stock"));
+        assertEquals(Arrays.asList("Stock", "27"), planner.getTargets());
+        assertEquals(100 + 600, planner.getEstimatedMillis());
+    }
+
+    @Test
+    void pairOrderWithEqualTimeMinimizesTravel() {
+        ClickPlanner planner = planner(500, new Point(1000, 500));
+        planner.clickInAnyOrder(Arrays.asList("0", "27"));
+        assertEquals(Arrays.asList("27", "0"), planner.getTargets());
+        assertEquals(1200, planner.getEstimatedMillis());
+        assertEquals(new Point(1000, 500).distance(1100, 480) + new Point(1100, 480).distance(720, 180),
+                planner.getTravelDistance(), 1e-9);
+    }
+
+    @Test
+    void pairOrderMinimizesDistanceBasedTime() {
+        ClickCostModel costModel = new ClickCostModel(0, 1, 1000, 100);
+        ClickPlanner planner = new ClickPlanner(LOCATIONS::get, costModel, new Point(700, 600));
+        planner.clickInAnyOrder(Arrays.asList("0", "Waste"));
+        assertEquals(Arrays.asList("Waste", "0"), planner.getTargets());
+        assertEquals(100 + 100 + 428 + 100, planner.getEstimatedMillis());
+    }
+
+    @Test
+    void repeatedClicksDontMove() {
+        ClickPlanner planner = planner(500, null);
+        planner.click("Stock");
+        planner.click("Stock");
+        planner.click("Stock");
+        assertEquals(600 + 100 + 100, planner.getEstimatedMillis());
+        assertEquals(0.0, planner.getTravelDistance());
+    }
+
+    @Test
+    void unknownLocationsAlwaysMove() {
+        ClickPlanner planner = planner(500, new Point(700, 600));
+        planner.click("UndoBoard");
+        planner.addDelay(500);
+        planner.click("Stock");
+        assertEquals(600 + 500 + 600, planner.getEstimatedMillis());
+    }
+
+    @Test
+    void instantMovementOnlyCountsClicks() {
+        ClickPlanner planner = planner(0, new Point(1, 1));
+        planner.clickInAnyOrder(Arrays.asList("0", "27"));
+        planner.click("Waste");
+        assertEquals(300, planner.getEstimatedMillis());
+    }
+}
@@ -0,0 +1,65 @@
+package com.secondthorn.solitaireplayer.players;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.cardList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class DealIndexTest {
+    private static final List<String> DEAL = cardList(WINNABLE_CARDS);
+
+    @TempDir
+    Path tempDir;
+
+    private List<String> with(List<String> cards, int index, String card) {
+        List<String> result = new ArrayList<>(cards);
+        result.set(index, card);
+        return result;
+    }
+
+    @Test
+    void findsDealsByPrefix() throws Exception {
+        DealIndex index = new DealIndex("Pyramid", tempDir.resolve("deals.txt"));
+        index.add(DEAL);
+        assertEquals(DEAL, index.lookup(DEAL.subList(0, 30)));
+        assertEquals(DEAL, index.lookup(with(DEAL, 0, "??").subList(0, 30)));
+        assertNull(index.lookup(with(DEAL, 29, "Ks").subList(0, 30)));
+    }
+
+    @Test
+    void dealsArePersistedPerGame() throws Exception {
+        Path file = tempDir.resolve("deals.txt");
+        new DealIndex("Pyramid", file).add(DEAL);
+        new DealIndex("Pyramid", file).add(DEAL);
+        assertEquals(1, Files.readAllLines(file).size());
+        assertEquals(1, new DealIndex("Pyramid", file).size());
+        assertEquals(DEAL, new DealIndex("Pyramid", file).lookup(DEAL.subList(0, 30)));
+        assertNull(new DealIndex("TriPeaks", file).lookup(DEAL.subList(0, 30)));
+    }
+
+    @Test
+    void conflictingDealsAreAmbiguous() throws Exception {
+        DealIndex index = new DealIndex("Pyramid", tempDir.resolve("deals.txt"));
+        index.add(DEAL);
+        index.add(with(with(DEAL, 50, "Ad"), 51, "7h"));
+        assertNull(index.lookup(DEAL.subList(0, 30)));
+    }
+
+    @Test
+    void laterDealsWithMoreKnownCardsArePreferred() throws Exception {
+        DealIndex index = new DealIndex("TriPeaks", tempDir.resolve("deals.txt"));
+        List<String> unknownCards = with(DEAL, 0, "??");
+        index.add(unknownCards);
+        assertEquals(unknownCards, index.lookup(unknownCards.subList(0, 31)));
+        index.add(DEAL);
+        assertEquals(DEAL, index.lookup(unknownCards.subList(0, 31)));
+    }
+}
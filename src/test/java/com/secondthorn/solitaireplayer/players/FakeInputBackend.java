@@ -0,0 +1,47 @@
+package com.secondthorn.solitaireplayer.players;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An input backend that records the batches of input sent to it instead of moving the real mouse, and tracks where
+ * the cursor would be.
+ */
+class FakeInputBackend implements InputBackend {
+    private Point cursor;
+    private List<List<MouseInput>> batches = new ArrayList<>();
+
+    FakeInputBackend(Point cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public Point getCursorPosition() {
+        return (cursor == null) ? null : new Point(cursor);
+    }
+
+    @Override
+    public void send(List<MouseInput> inputs) {
+        batches.add(new ArrayList<>(inputs));
+        for (MouseInput input : inputs) {
+            if (input.getType() == MouseInput.Type.MOVE) {
+                cursor = new Point(input.getX(), input.getY());
+            }
+        }
+    }
+
+    /**
+     * Returns each batch of inputs sent, in order.
+     */
+    List<List<MouseInput>> getBatches() {
+        return batches;
+    }
+
+    /**
+     * Moves the cursor as if the user moved the mouse.
+     */
+    void setCursor(Point cursor) {
+        this.cursor = cursor;
+    }
+}
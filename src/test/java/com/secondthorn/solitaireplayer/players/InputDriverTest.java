@@ -0,0 +1,109 @@
+package com.secondthorn.solitaireplayer.players;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InputDriverTest {
+    /**
+     * Returns a cost model where every movement takes the same time.
+     */
+    private static ClickCostModel fixedMoves(long moveMillis) {
+        return new ClickCostModel(moveMillis, 1, moveMillis, 0);
+    }
+
+    @Test
+    void instantClickIsOneBatch() throws Exception {
+        FakeInputBackend backend = new FakeInputBackend(new Point(500, 500));
+        InputDriver driver = new InputDriver(backend, fixedMoves(500), 16);
+        driver.setInstant(true);
+        driver.click(100, 200);
+        assertEquals(1, backend.getBatches().size());
+        assertEquals("[MOVE(100, 200), PRIMARY_DOWN, PRIMARY_UP]", backend.getBatches().get(0).toString());
+        assertEquals(new Point(100, 200), backend.getCursorPosition());
+    }
+
+    @Test
+    void smoothClickMovesOncePerFrame() throws Exception {
+        FakeInputBackend backend = new FakeInputBackend(new Point(1000, 800));
+        InputDriver driver = new InputDriver(backend, fixedMoves(100), 10);
+        long start = System.nanoTime();
+        driver.click(100, 200);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        List<List<MouseInput>> batches = backend.getBatches();
+        // the last two frames round to the same point, which is only sent once
+        assertEquals(10, batches.size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(1, batches.get(i).size());
+            assertEquals(MouseInput.Type.MOVE, batches.get(i).get(0).getType());
+        }
+        assertEquals("[PRIMARY_DOWN, PRIMARY_UP]", batches.get(9).toString());
+        assertEquals(new Point(100, 200), backend.getCursorPosition());
+        assertTrue(elapsedMillis >= 90, "took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void shortMovesTakeFewerFrames() throws Exception {
+        FakeInputBackend backend = new FakeInputBackend(new Point(100, 100));
+        InputDriver driver = new InputDriver(backend, new ClickCostModel(20, 1, 200, 0), 10);
+        // 70ms for 50 pixels, then the 200ms maximum for 1000 pixels
+        driver.moveTo(130, 140);
+        int shortMoves = backend.getBatches().size();
+        backend.getBatches().clear();
+        long start = System.nanoTime();
+        driver.moveTo(1130, 140);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        assertTrue(shortMoves <= 7, shortMoves + " moves");
+        assertTrue(backend.getBatches().size() > 7, backend.getBatches().size() + " moves");
+        assertTrue(elapsedMillis >= 190, "took " + elapsedMillis + "ms");
+        assertEquals(new Point(1130, 140), backend.getCursorPosition());
+    }
+
+    @Test
+    void clickingWhereTheMouseIsDoesntMoveIt() throws Exception {
+        FakeInputBackend backend = new FakeInputBackend(new Point(100, 200));
+        InputDriver driver = new InputDriver(backend, fixedMoves(500), 16);
+        long start = System.nanoTime();
+        driver.click(100, 200);
+        assertTrue((System.nanoTime() - start) / 1000000 < 500);
+        assertEquals(1, backend.getBatches().size());
+        assertEquals("[PRIMARY_DOWN, PRIMARY_UP]", backend.getBatches().get(0).toString());
+    }
+
+    @Test
+    void pathEasesOutToDestination() {
+        List<Point> path = InputDriver.path(new Point(0, 0), new Point(1000, -1000), 500, 16);
+        assertEquals(31, path.size());
+        assertEquals(new Point(1000, -1000), path.get(path.size() - 1));
+        int firstStep = path.get(0).x;
+        int lastStep = path.get(30).x - path.get(29).x;
+        assertTrue(firstStep > lastStep);
+        for (int i = 1; i < path.size(); i++) {
+            assertTrue(path.get(i).x >= path.get(i - 1).x);
+        }
+    }
+
+    @Test
+    void mouseAtOriginAborts() {
+        FakeInputBackend backend = new FakeInputBackend(new Point(0, 0));
+        InputDriver driver = new InputDriver(backend, fixedMoves(500), 16);
+        assertThrows(PlayException.class, () -> driver.click(100, 200));
+        driver.setInstant(true);
+        assertThrows(PlayException.class, () -> driver.click(100, 200));
+        assertTrue(backend.getBatches().isEmpty());
+    }
+
+    @Test
+    void unknownCursorMovesInstantly() throws Exception {
+        FakeInputBackend backend = new FakeInputBackend(null);
+        InputDriver driver = new InputDriver(backend, fixedMoves(500), 16);
+        driver.click(100, 200);
+        assertEquals(2, backend.getBatches().size());
+        assertEquals("[MOVE(100, 200)]", backend.getBatches().get(0).toString());
+    }
+}
@@ -0,0 +1,103 @@
+package com.secondthorn.solitaireplayer.players;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StableFrameWaiterTest {
+    private static final List<Rectangle> WINDOW = Collections.singletonList(new Rectangle(0, 0, 4, 4));
+
+    /**
+     * Supplies captures of a 4x4 window whose top left pixel changes for the given number of captures and then stays
+     * the same, after an optional number of unchanged captures before the animation starts.  The bottom right pixel
+     * always changes.
+     */
+    private static class AnimatedFrames implements Function<Rectangle, BufferedImage> {
+        private int delayFrames;
+        private int changingFrames;
+        private int captures;
+
+        AnimatedFrames(int changingFrames) {
+            this(0, changingFrames);
+        }
+
+        AnimatedFrames(int delayFrames, int changingFrames) {
+            this.delayFrames = delayFrames;
+            this.changingFrames = changingFrames;
+        }
+
+        @Override
+        public BufferedImage apply(Rectangle bounds) {
+            BufferedImage window = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+            window.setRGB(0, 0, Math.max(0, Math.min(captures - delayFrames, changingFrames)));
+            window.setRGB(3, 3, captures);
+            captures++;
+            return window.getSubimage(bounds.x, bounds.y, bounds.width, bounds.height);
+        }
+    }
+
+    @Test
+    void stableWindowEndsWaitImmediately() throws Exception {
+        AnimatedFrames frames = new AnimatedFrames(0);
+        StableFrameWaiter waiter = new StableFrameWaiter(frames, 3, 1);
+        assertTrue(waiter.waitUntilStable(Collections.singletonList(new Rectangle(0, 0, 2, 2)), 0, 10000));
+        assertEquals(3, frames.captures);
+    }
+
+    @Test
+    void waitsForAnimationToFinish() throws Exception {
+        AnimatedFrames frames = new AnimatedFrames(10);
+        StableFrameWaiter waiter = new StableFrameWaiter(frames, 3, 1);
+        assertTrue(waiter.waitUntilStable(Collections.singletonList(new Rectangle(0, 0, 2, 2)), 0, 10000));
+        assertEquals(13, frames.captures);
+    }
+
+    @Test
+    void waitsForAnimationToStart() throws Exception {
+        AnimatedFrames frames = new AnimatedFrames(5, 2);
+        StableFrameWaiter waiter = new StableFrameWaiter(frames, 3, 1);
+        assertTrue(waiter.waitUntilStable(Collections.singletonList(new Rectangle(0, 0, 2, 2)), 10000, 20000));
+        assertEquals(10, frames.captures);
+    }
+
+    @Test
+    void waitsForSettleDelayIfNothingChanges() throws Exception {
+        StableFrameWaiter waiter = new StableFrameWaiter(new AnimatedFrames(0), 1, 1);
+        long start = System.nanoTime();
+        assertTrue(waiter.waitUntilStable(Collections.singletonList(new Rectangle(0, 0, 2, 2)), 50, 10000));
+        assertTrue((System.nanoTime() - start) / 1000000 >= 50);
+    }
+
+    @Test
+    void onlyWatchesTheGivenRectangles() throws Exception {
+        AnimatedFrames frames = new AnimatedFrames(0);
+        StableFrameWaiter waiter = new StableFrameWaiter(frames, 3, 1);
+        List<Rectangle> corners = Arrays.asList(new Rectangle(0, 0, 1, 1), new Rectangle(3, 0, 1, 1));
+        assertTrue(waiter.waitUntilStable(corners, 0, 10000));
+        assertEquals(3, frames.captures);
+        assertFalse(waiter.waitUntilStable(WINDOW, 0, 50));
+    }
+
+    @Test
+    void timesOutIfWindowKeepsChanging() throws Exception {
+        StableFrameWaiter waiter = new StableFrameWaiter(new AnimatedFrames(Integer.MAX_VALUE), 3, 1);
+        long start = System.nanoTime();
+        assertFalse(waiter.waitUntilStable(WINDOW, 0, 50));
+        assertTrue((System.nanoTime() - start) / 1000000 >= 50);
+    }
+
+    @Test
+    void needsAtLeastOneStableFrame() {
+        assertThrows(IllegalArgumentException.class, () -> new StableFrameWaiter(new AnimatedFrames(0), 0, 1));
+    }
+}
@@ -0,0 +1,69 @@
+package com.secondthorn.solitaireplayer.players;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TemplateAtlasTest {
+    private TemplateAtlas roundTrip(TemplateAtlas atlas) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        atlas.write(out);
+        return TemplateAtlas.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private void readsWhatWasWritten(String gameName) throws Exception {
+        TemplateAtlas atlas = TemplateAtlas.fromResourceFiles(gameName);
+        TemplateAtlas copy = roundTrip(atlas);
+        assertEquals(atlas.getRegionsJson(), copy.getRegionsJson());
+        String characters = "A23456789TJQKcdhs";
+        List<TemplateAtlas.Glyph> glyphs = atlas.glyphsFor(characters);
+        List<TemplateAtlas.Glyph> copyGlyphs = copy.glyphsFor(characters);
+        assertEquals(glyphs.size(), copyGlyphs.size());
+        for (int i = 0; i < glyphs.size(); i++) {
+            TemplateAtlas.Glyph glyph = glyphs.get(i);
+            TemplateAtlas.Glyph copyGlyph = copyGlyphs.get(i);
+            int width = glyph.image.getWidth();
+            int height = glyph.image.getHeight();
+            assertEquals(glyph.character, copyGlyph.character);
+            assertEquals(width, copyGlyph.image.getWidth());
+            assertEquals(height, copyGlyph.image.getHeight());
+            assertArrayEquals(glyph.image.getRGB(0, 0, width, height, null, 0, width),
+                    copyGlyph.image.getRGB(0, 0, width, height, null, 0, width));
+        }
+    }
+
+    @Test
+    void readsWhatWasWrittenForEachGame() throws Exception {
+        readsWhatWasWritten("TriPeaks");
+        readsWhatWasWritten("Pyramid");
+        readsWhatWasWritten("FreeCell");
+    }
+
+    @Test
+    void hasEveryRankAndSuit() throws Exception {
+        TemplateAtlas atlas = TemplateAtlas.forGame("Pyramid");
+        for (char c : "A23456789TJQKcdhs".toCharArray()) {
+            assertEquals(c, atlas.glyphsFor("" + c).get(0).character);
+        }
+        assertEquals(2, atlas.glyphsFor("c").size());
+    }
+
+    @Test
+    void loadsEachGameOnce() throws Exception {
+        assertSame(TemplateAtlas.forGame("TriPeaks"), TemplateAtlas.forGame("TriPeaks"));
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        assertThrows(IOException.class, () -> TemplateAtlas.read(new ByteArrayInputStream(png)));
+    }
+}
@@ -1,11 +1,26 @@
 package com.secondthorn.solitaireplayer.players.pyramid;
 
+import com.secondthorn.solitaireplayer.players.SimulatedLatency;
+import com.secondthorn.solitaireplayer.players.SolitairePlayer;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.UNWINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.cardList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PyramidPlayerTest {
     @Test
@@ -29,4 +44,157 @@ public class PyramidPlayerTest {
                 "3h 4h 5h 6h 7h 8h 9h Th Jh Qh Kh As 2s 3s 4s 5s 6s 7s 8s 9s Ts Js Qs Ks";
         assertEquals(expectedString, player.cardsToString(cards));
     }
+
+    @Test
+    void autoplayClearsSimulatedBoard() throws Exception {
+        SimulatedPyramidWindow window = new SimulatedPyramidWindow(cardList(WINNABLE_CARDS),
+                SimulatedLatency.NONE);
+        PyramidPlayer player = new PyramidPlayer(new String[]{"Board"});
+        player.setWindowFactory(() -> window);
+        player.autoplay();
+        assertTrue(window.isBoardCleared());
+    }
+
+    @Test
+    void autoplaySolvesAgainAfterAMissedClick() throws Exception {
+        SimulatedPyramidWindow window = new SimulatedPyramidWindow(cardList(WINNABLE_CARDS),
+                SimulatedLatency.NONE);
+        // the solution removes 4h and 9d at pyramid indexes 9 and 11 shortly before the first recycle, so losing the
+        // click on 9d leaves both cards covering others that the rest of the solution needs to remove
+        boolean[] dropped = {false};
+        PyramidWindow missesAClick = (PyramidWindow) Proxy.newProxyInstance(PyramidWindow.class.getClassLoader(),
+                new Class<?>[]{PyramidWindow.class}, (proxy, method, methodArgs) -> {
+                    if (method.getName().equals("click") && methodArgs[0].equals("11") && !dropped[0]) {
+                        dropped[0] = true;
+                        return null;
+                    }
+                    try {
+                        return method.invoke(window, methodArgs);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+        PyramidPlayer player = new PyramidPlayer(new String[]{"Board"});
+        player.setWindowFactory(() -> missesAClick);
+        player.autoplay();
+        assertTrue(dropped[0]);
+        assertTrue(window.isBoardCleared());
+    }
+
+    @Test
+    void autoplaySolvesAgainAfterAMissedDraw() throws Exception {
+        String cards = "Kh Kd 9d 3c Js 3s 9s Tc 2c 8s Ks Jh 6c Jc 7h Qs 6s 2d 7d 6h Ah 4c 9c 5c Ad 6d 5h 4d " +
+                       "3d Ts 4h 8h Ac Td Qc As Qd 4s 3h Jd 7s 2h 7c 9h 2s Qh Th Kc 8c 5d 5s 8d";
+        SimulatedPyramidWindow window = new SimulatedPyramidWindow(Arrays.asList(cards.split(" ")),
+                SimulatedLatency.NONE);
+        // the solution draws the last stock card just before a recycle, so each Draw click while playing is held back
+        // until the next call, and the first one followed by reading the board is lost, leaving a card on the stock
+        boolean[] heldDraw = {false};
+        boolean[] dropped = {false};
+        PyramidWindow missesADraw = (PyramidWindow) Proxy.newProxyInstance(PyramidWindow.class.getClassLoader(),
+                new Class<?>[]{PyramidWindow.class}, (proxy, method, methodArgs) -> {
+                    try {
+                        if (heldDraw[0]) {
+                            heldDraw[0] = false;
+                            if (!dropped[0] && method.getName().startsWith("card")) {
+                                dropped[0] = true;
+                            } else {
+                                window.click("Draw");
+                            }
+                        }
+                        if (method.getName().equals("click") && methodArgs[0].equals("Draw")) {
+                            heldDraw[0] = true;
+                            return null;
+                        }
+                        return method.invoke(window, methodArgs);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+        PyramidPlayer player = new PyramidPlayer(new String[]{"Board"});
+        player.setWindowFactory(() -> missesADraw);
+        player.autoplay();
+        assertTrue(dropped[0]);
+        assertTrue(window.isBoardCleared());
+    }
+
+    @Test
+    void observedRemainingCardsFollowTheScreen() {
+        List<String> cards = cardList(WINNABLE_CARDS);
+        Set<String> expected = new HashSet<>(cards);
+        expected.removeAll(Arrays.asList("Kd", "Ad", "7h"));
+        List<String> pyramidCards = new ArrayList<>(cards.subList(0, 28));
+        pyramidCards.set(24, "??");
+        assertEquals(expected, PyramidPlayer.observedRemainingCards(cards, expected, pyramidCards, "??", "As"));
+
+        pyramidCards.set(24, "Kd");
+        pyramidCards.set(27, "??");
+        Set<String> observed = PyramidPlayer.observedRemainingCards(cards, expected, pyramidCards, "??", "5h");
+        Set<String> expectedObserved = new HashSet<>(expected);
+        expectedObserved.add("Kd");
+        expectedObserved.removeAll(Arrays.asList("2c", "As"));
+        assertEquals(expectedObserved, observed);
+
+        observed = PyramidPlayer.observedRemainingCards(cards, expected, pyramidCards, "??", "??");
+        expectedObserved.removeAll(cards.subList(28, 52));
+        assertEquals(expectedObserved, observed);
+    }
+
+    @Test
+    void observedRemainingCardsIncludeAStockCardLeftByAMissedDraw() {
+        List<String> cards = cardList(WINNABLE_CARDS);
+        Set<String> expected = new HashSet<>(cards);
+        expected.removeAll(Arrays.asList("Qc", "2h", "Ad"));
+        List<String> pyramidCards = cards.subList(0, 28);
+        Set<String> observed = PyramidPlayer.observedRemainingCards(cards, expected, pyramidCards, "7h", "As");
+        assertEquals(expected, observed);
+
+        observed = PyramidPlayer.observedRemainingCards(cards, expected, pyramidCards, "7h", "2s");
+        Set<String> expectedObserved = new HashSet<>(expected);
+        expectedObserved.removeAll(Arrays.asList("5h", "As"));
+        assertEquals(expectedObserved, observed);
+    }
+
+    @Test
+    void autoplayLosesUnwinnableSimulatedBoardQuickly() throws Exception {
+        SimulatedPyramidWindow window = new SimulatedPyramidWindow(cardList(UNWINNABLE_CARDS),
+                SimulatedLatency.NONE);
+        PyramidPlayer player = new PyramidPlayer(new String[]{"Board"});
+        player.setWindowFactory(() -> window);
+        player.autoplay();
+        assertFalse(window.isBoardCleared());
+    }
+
+    @Test
+    void autoplaySkipsStockScanForKnownDeals(@TempDir Path tempDir) throws Exception {
+        String[] args = {"--deal-index", tempDir.resolve("deals.txt").toString(), "Pyramid", "Board"};
+        int[] numClicks = new int[2];
+        for (int i = 0; i < 2; i++) {
+            SimulatedPyramidWindow window = new SimulatedPyramidWindow(cardList(WINNABLE_CARDS),
+                    SimulatedLatency.NONE);
+            PyramidPlayer player = (PyramidPlayer) SolitairePlayer.newInstance(args);
+            player.setWindowFactory(() -> window);
+            player.autoplay();
+            assertTrue(window.isBoardCleared());
+            numClicks[i] = window.getNumClicks();
+        }
+        assertEquals(numClicks[0] - 23, numClicks[1]);
+    }
+
+    @Test
+    void autoplayClearsSimulatedBoardWithinTimeBudget() throws Exception {
+        SimulatedPyramidWindow window = new SimulatedPyramidWindow(cardList(WINNABLE_CARDS),
+                SimulatedLatency.NONE);
+        String[] args = {"--time-budget", "100", "Pyramid", "Board"};
+        PyramidPlayer player = (PyramidPlayer) SolitairePlayer.newInstance(args);
+        player.setWindowFactory(() -> window);
+        player.autoplay();
+        assertTrue(window.isBoardCleared());
+    }
+
+    @Test
+    void timeBudgetMustBePositive() {
+        String[] args = {"--time-budget", "0", "Pyramid", "Board"};
+        assertThrows(IllegalArgumentException.class, () -> SolitairePlayer.newInstance(args));
+    }
 }
@@ -0,0 +1,60 @@
+package com.secondthorn.solitaireplayer.players.pyramid;
+
+import com.secondthorn.solitaireplayer.players.PlayException;
+import com.secondthorn.solitaireplayer.players.SimulatedLatency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.cardList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SimulatedPyramidWindowTest {
+    private static final List<String> CARDS = cardList(WINNABLE_CARDS);
+
+    private SimulatedPyramidWindow window;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        window = new SimulatedPyramidWindow(CARDS, SimulatedLatency.NONE);
+    }
+
+    @Test
+    void readsTheDealtCards() {
+        assertEquals(CARDS.subList(0, 28), window.cardsAtPyramid());
+        assertEquals("4c", window.cardAtDeck());
+    }
+
+    @Test
+    void removesKingsAndPairs() throws Exception {
+        window.clickPyramidCardIndex(24);
+        assertEquals("??", window.cardAtPyramid(24));
+        window.clickPyramidCardIndex(23);
+        window.clickPyramidCardIndex(26);
+        assertEquals("??", window.cardAtPyramid(23));
+        assertEquals("??", window.cardAtPyramid(26));
+    }
+
+    @Test
+    void drawsAndRecyclesTheStockPile() throws Exception {
+        for (int i = 0; i < 24; i++) {
+            window.draw();
+        }
+        assertEquals("??", window.cardAtDeck());
+        window.recycle();
+        assertEquals("4c", window.cardAtDeck());
+        window.undoBoard();
+        assertThrows(PlayException.class, () -> window.recycle());
+    }
+
+    @Test
+    void rejectsInvalidMoves() throws Exception {
+        assertThrows(PlayException.class, () -> window.clickPyramidCardIndex(0));
+        window.clickPyramidCardIndex(21);
+        assertThrows(PlayException.class, () -> window.clickPyramidCardIndex(22));
+        assertEquals(CARDS.subList(0, 28), window.cardsAtPyramid());
+    }
+}
@@ -0,0 +1,60 @@
+package com.secondthorn.solitaireplayer.players.tripeaks;
+
+import com.secondthorn.solitaireplayer.players.PlayException;
+import com.secondthorn.solitaireplayer.players.SimulatedLatency;
+import com.secondthorn.solitaireplayer.solvers.tripeaks.Deck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SimulatedTriPeaksWindowTest {
+    private static final Deck DECK = new Deck(
+            "      6d          5h          Ah\n" +
+            "    Jd  4s      Ks  6s      8c  2h\n" +
+            "  4d  9s  Kd  6c  Ad  8s  Ac  5c  9d\n" +
+            "7h  3h  8d  5s  4c  Qc  Jh  Kc  Kh  3c\n" +
+            "3s" +
+            " 9c As 5d Qh Ts 4h 7s Td 9h Th 7c 8h 2c 7d Tc 2d 6h 2s Js Qd 3d Qs Jc"
+    );
+
+    private SimulatedTriPeaksWindow window;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        window = new SimulatedTriPeaksWindow(DECK, SimulatedLatency.NONE);
+    }
+
+    @Test
+    void faceDownCardsAreUnknown() {
+        List<String> cards = window.cardsAtTableau();
+        for (int i = 0; i < 18; i++) {
+            assertEquals("??", cards.get(i));
+        }
+        assertEquals(DECK.getCards().subList(18, 28), cards.subList(18, 28));
+        assertEquals("3s", window.cardAtWaste());
+    }
+
+    @Test
+    void playsValidMoves() throws Exception {
+        window.clickTableauCard(22);
+        assertEquals("4c", window.cardAtWaste());
+        assertEquals("??", window.cardAtTableau(22));
+        window.draw();
+        assertEquals("9c", window.cardAtWaste());
+        window.undoBoard();
+        assertEquals("3s", window.cardAtWaste());
+        assertEquals("4c", window.cardAtTableau(22));
+    }
+
+    @Test
+    void rejectsInvalidMoves() throws Exception {
+        assertThrows(PlayException.class, () -> window.clickTableauCard(18));
+        assertThrows(PlayException.class, () -> window.clickTableauCard(0));
+        assertFalse(window.undoWhenNoMoreMoves());
+    }
+}
@@ -1,11 +1,20 @@
 package com.secondthorn.solitaireplayer.players.tripeaks;
 
+import com.secondthorn.solitaireplayer.players.SimulatedLatency;
+import com.secondthorn.solitaireplayer.players.SolitairePlayer;
+import com.secondthorn.solitaireplayer.solvers.tripeaks.Deck;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.UNWINNABLE;
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.WINNABLE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TriPeaksPlayerTest {
     @Test
@@ -28,4 +37,50 @@ public class TriPeaksPlayerTest {
         assertEquals(expectedString, player.cardsToString(cards));
     }
 
+    @Test
+    void autoplayClearsSimulatedBoard() throws Exception {
+        Deck deck = WINNABLE;
+        SimulatedTriPeaksWindow window = new SimulatedTriPeaksWindow(deck, SimulatedLatency.NONE);
+        TriPeaksPlayer player = new TriPeaksPlayer(new String[]{"Board"});
+        player.setWindowFactory(() -> window);
+        player.autoplay();
+        assertTrue(window.isBoardCleared());
+    }
+
+    @Test
+    void autoplayLosesUnsolvableSimulatedBoard() throws Exception {
+        Deck deck = UNWINNABLE;
+        SimulatedTriPeaksWindow window = new SimulatedTriPeaksWindow(deck, SimulatedLatency.NONE);
+        TriPeaksPlayer player = new TriPeaksPlayer(new String[]{"Board"});
+        player.setWindowFactory(() -> window);
+        player.autoplay();
+        assertFalse(window.isBoardCleared());
+    }
+
+    @Test
+    void autoplayWithMonteCarloClearsSimulatedBoard() throws Exception {
+        Deck deck = WINNABLE;
+        SimulatedTriPeaksWindow window = new SimulatedTriPeaksWindow(deck, SimulatedLatency.NONE);
+        String[] args = {"--monte-carlo", "100", "TriPeaks", "Board"};
+        TriPeaksPlayer player = (TriPeaksPlayer) SolitairePlayer.newInstance(args);
+        player.setWindowFactory(() -> window);
+        player.autoplay();
+        assertTrue(window.isBoardCleared());
+    }
+
+    @Test
+    void autoplaySkipsStockScanForKnownDeals(@TempDir Path tempDir) throws Exception {
+        Deck deck = WINNABLE;
+        String[] args = {"--deal-index", tempDir.resolve("deals.txt").toString(), "TriPeaks", "Board"};
+        int[] numClicks = new int[2];
+        for (int i = 0; i < 2; i++) {
+            SimulatedTriPeaksWindow window = new SimulatedTriPeaksWindow(deck, SimulatedLatency.NONE);
+            TriPeaksPlayer player = (TriPeaksPlayer) SolitairePlayer.newInstance(args);
+            player.setWindowFactory(() -> window);
+            player.autoplay();
+            assertTrue(window.isBoardCleared());
+            numClicks[i] = window.getNumClicks();
+        }
+        assertTrue(numClicks[1] < numClicks[0] - 21);
+    }
 }
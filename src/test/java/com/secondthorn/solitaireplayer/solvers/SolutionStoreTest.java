@@ -0,0 +1,95 @@
+package com.secondthorn.solitaireplayer.solvers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolutionStoreTest {
+    @TempDir
+    Path tempDir;
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void getsWhatWasPut() throws Exception {
+        SolutionStore store = new SolutionStore(tempDir.resolve("solutions.bin"));
+        assertNull(store.get(bytes("deck 1")));
+        store.put(bytes("deck 1"), bytes("solution 1"));
+        store.put(bytes("deck 2"), bytes("solution 2"));
+        assertArrayEquals(bytes("solution 1"), store.get(bytes("deck 1")));
+        assertArrayEquals(bytes("solution 2"), store.get(bytes("deck 2")));
+        assertNull(store.get(bytes("deck 3")));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void reopenedStoreHasTheSameRecords() throws Exception {
+        Path file = tempDir.resolve("solutions.bin");
+        new SolutionStore(file).put(bytes("deck 1"), bytes("solution 1"));
+        SolutionStore store = new SolutionStore(file);
+        assertArrayEquals(bytes("solution 1"), store.get(bytes("deck 1")));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void latestRecordWins() throws Exception {
+        Path file = tempDir.resolve("solutions.bin");
+        SolutionStore store = new SolutionStore(file);
+        store.put(bytes("deck 1"), bytes("old"));
+        store.put(bytes("deck 1"), bytes("new"));
+        assertArrayEquals(bytes("new"), store.get(bytes("deck 1")));
+        assertArrayEquals(bytes("new"), new SolutionStore(file).get(bytes("deck 1")));
+    }
+
+    @Test
+    void partlyWrittenRecordIsIgnored() throws Exception {
+        Path file = tempDir.resolve("solutions.bin");
+        new SolutionStore(file).put(bytes("deck 1"), bytes("solution 1"));
+        long goodSize = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 6, 0, 0, 0, 10, 'd', 'e'}, StandardOpenOption.APPEND);
+        SolutionStore store = new SolutionStore(file);
+        assertEquals(1, store.size());
+        store.put(bytes("deck 2"), bytes("solution 2"));
+        assertArrayEquals(bytes("solution 2"), new SolutionStore(file).get(bytes("deck 2")));
+        assertEquals(goodSize + 8 + 6 + 10, Files.size(file));
+    }
+
+    @Test
+    void longerPartlyWrittenRecordIsOverwritten() throws Exception {
+        Path file = tempDir.resolve("solutions.bin");
+        new SolutionStore(file).put(bytes("deck 1"), bytes("solution 1"));
+        byte[] partialRecord = new byte[64];
+        partialRecord[3] = 6;
+        partialRecord[7] = 100;
+        Files.write(file, partialRecord, StandardOpenOption.APPEND);
+        long size = Files.size(file);
+        SolutionStore store = new SolutionStore(file);
+        store.put(bytes("deck 2"), bytes("solution 2"));
+        assertEquals(size, Files.size(file));
+        store = new SolutionStore(file);
+        assertEquals(2, store.size());
+        assertArrayEquals(bytes("solution 2"), store.get(bytes("deck 2")));
+        store.put(bytes("deck 3"), bytes("solution 3"));
+        assertArrayEquals(bytes("solution 3"), new SolutionStore(file).get(bytes("deck 3")));
+        assertEquals(3, new SolutionStore(file).size());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws Exception {
+        Path file = tempDir.resolve("solutions.bin");
+        Files.write(file, bytes("not a solution store"));
+        assertThrows(IOException.class, () -> new SolutionStore(file));
+    }
+}
@@ -2,10 +2,17 @@ package com.secondthorn.solitaireplayer.solvers.pyramid;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.UNWINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BoardChallengeSolverTest {
     @Test
@@ -20,6 +27,29 @@ public class BoardChallengeSolverTest {
         assertEquals(44, solution.size());
     }
 
+    @Test
+    public void midGameTest() {
+        BoardChallengeSolver solver = new BoardChallengeSolver();
+        Deck deck = new Deck(WINNABLE_CARDS);
+        List<Action> solution = solver.solve(deck).values().iterator().next();
+        int recycleIndex = 0;
+        while (solution.get(recycleIndex).getCommand() != Action.Command.RECYCLE) {
+            recycleIndex++;
+        }
+        Set<String> remainingCards = new HashSet<>(deck.getCards());
+        for (Action action : solution.subList(0, recycleIndex)) {
+            if (action.getCommand() == Action.Command.REMOVE) {
+                remainingCards.removeAll(action.getCards());
+            }
+        }
+        long state = State.create(deck, remainingCards, null, 1);
+        Map<String, List<Action>> solutions = solver.solve(deck, state);
+        assertEquals(1, solutions.size());
+        List<Action> rest = solutions.values().iterator().next();
+        assertEquals(solution.size() - recycleIndex, rest.size());
+        assertEquals(Action.Command.RECYCLE, rest.get(0).getCommand());
+    }
+
     @Test
     public void unwinnableTest() {
         BoardChallengeSolver solver = new BoardChallengeSolver();
@@ -29,4 +59,54 @@ public class BoardChallengeSolverTest {
         Map<String, List<Action>> solutions = solver.solve(deck);
         assertEquals(0, solutions.size());
     }
+
+    @Test
+    public void breadthFirstSearchTest() {
+        BoardChallengeSolver solver = new BoardChallengeSolver(false);
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertEquals(1, solutions.size());
+        assertEquals(44, solutions.values().iterator().next().size());
+        assertTrue(solver.isConclusive());
+    }
+
+    @Test
+    public void stopsWhenOutOfBudget() {
+        BoardChallengeSolver solver = new BoardChallengeSolver(false);
+        StateBudget budget = new StateBudget(10000);
+        solver.setStateBudget(budget);
+        assertEquals(0, solver.solve(new Deck(WINNABLE_CARDS)).size());
+        assertFalse(solver.isConclusive());
+        assertEquals(0, budget.getReservedStates());
+    }
+
+    @Test
+    public void anytimeFindsShortestWithEnoughTime() {
+        List<String> progress = new ArrayList<>();
+        BoardChallengeSolver solver = new BoardChallengeSolver(60000, progress::add);
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertEquals(44, solutions.values().iterator().next().size());
+        assertEquals(1.0, solver.getSuboptimalityBound());
+        assertTrue(progress.get(progress.size() - 1).contains("shortest possible"));
+    }
+
+    @Test
+    public void anytimeReturnsFirstSolutionWhenOutOfTime() {
+        BoardChallengeSolver solver = new BoardChallengeSolver(1, message -> {
+        });
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertEquals(1, solutions.size());
+        int length = solutions.values().iterator().next().size();
+        assertTrue(length >= 44);
+        assertTrue(solver.isConclusive());
+        assertTrue(solver.getSuboptimalityBound() >= 1.0);
+        assertTrue(length <= 44 * solver.getSuboptimalityBound());
+    }
+
+    @Test
+    public void anytimeProvesUnwinnable() {
+        BoardChallengeSolver solver = new BoardChallengeSolver(1, message -> {
+        });
+        assertEquals(0, solver.solve(new Deck(UNWINNABLE_CARDS)).size());
+        assertTrue(solver.isConclusive());
+    }
 }
@@ -0,0 +1,70 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import com.secondthorn.solitaireplayer.solvers.SolutionStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingSolverTest {
+    @TempDir
+    Path tempDir;
+
+    private void assertSameSolutions(Map<String, List<Action>> expected, Map<String, List<Action>> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String description : expected.keySet()) {
+            assertEquals(expected.get(description).toString(), actual.get(description).toString());
+        }
+    }
+
+    @Test
+    void storedSolutionsAreReused() throws Exception {
+        Deck deck = new Deck(WINNABLE_CARDS);
+        SolutionStore store = new SolutionStore(tempDir.resolve("solutions.bin"));
+        CachingSolver solver = new CachingSolver(new BoardChallengeSolver(), store, "Board");
+        Map<String, List<Action>> solutions = solver.solve(deck);
+        assertEquals(0, solver.getHits());
+        assertSameSolutions(solutions, solver.solve(deck));
+        assertEquals(1, solver.getHits());
+    }
+
+    @Test
+    void decksWithTheSameRanksShareSolutions() throws Exception {
+        Deck swappedSuits = new Deck(WINNABLE_CARDS.replace('c', 'x').replace('d', 'c').replace('x', 'd'));
+        SolutionStore store = new SolutionStore(tempDir.resolve("solutions.bin"));
+        new CachingSolver(new BoardChallengeSolver(), store, "Board").solve(new Deck(WINNABLE_CARDS));
+        CachingSolver solver = new CachingSolver(new BoardChallengeSolver(), store, "Board");
+        Map<String, List<Action>> solutions = solver.solve(swappedSuits);
+        assertEquals(1, solver.getHits());
+        assertSameSolutions(new BoardChallengeSolver().solve(swappedSuits), solutions);
+    }
+
+    @Test
+    void goalsAreKeptApart() throws Exception {
+        Deck deck = new Deck(WINNABLE_CARDS);
+        SolutionStore store = new SolutionStore(tempDir.resolve("solutions.bin"));
+        new CachingSolver(new BoardChallengeSolver(), store, "Board").solve(deck);
+        CachingSolver solver = new CachingSolver(new ScoreChallengeSolver(1290, 0), store, "Score 1290 0");
+        assertSameSolutions(new ScoreChallengeSolver(1290, 0).solve(deck), solver.solve(deck));
+        assertEquals(0, solver.getHits());
+    }
+
+    @Test
+    void inconclusiveResultsAreNotStored() throws Exception {
+        Deck deck = new Deck(WINNABLE_CARDS);
+        SolutionStore store = new SolutionStore(tempDir.resolve("solutions.bin"));
+        BoardChallengeSolver breadthFirstSolver = new BoardChallengeSolver(false);
+        breadthFirstSolver.setStateBudget(new StateBudget(0));
+        CachingSolver solver = new CachingSolver(breadthFirstSolver, store, "Board");
+        assertTrue(solver.solve(deck).isEmpty());
+        assertFalse(solver.isConclusive());
+        assertEquals(0, store.size());
+    }
+}
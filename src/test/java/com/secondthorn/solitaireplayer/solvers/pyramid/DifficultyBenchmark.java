@@ -0,0 +1,51 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Compares DifficultyPredictor's predictions against what actually happens when solving the first few random decks,
+ * to tune the predictor.  The optional argument is the number of decks, 50 by default.
+ */
+public class DifficultyBenchmark {
+    public static void main(String[] args) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Paths.get(ClassLoader.getSystemResource("random-decks.txt").toURI()));
+        } catch (IOException | URISyntaxException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        int numDecks = Math.min(lines.size(), (args.length > 0) ? Integer.parseInt(args[0]) : 50);
+        int numProven = 0;
+        int numSolved = 0;
+        double expectedSolved = 0;
+        double sumSquaredLogError = 0;
+        int numEstimated = 0;
+        for (int i = 0; i < numDecks; i++) {
+            Deck deck = new Deck(lines.get(i));
+            int deckNumber = i + 1;
+            AdaptiveSolver solver = new AdaptiveSolver(message -> System.out.println(deckNumber + ": " + message));
+            boolean solved = !solver.solve(deck).isEmpty();
+            DifficultyPredictor.Prediction prediction = solver.getPrediction();
+            if (prediction.getStrategy() == DifficultyPredictor.Strategy.UNSOLVABLE) {
+                numProven++;
+                continue;
+            }
+            numSolved += solved ? 1 : 0;
+            expectedSolved += prediction.getSolvableChance();
+            if (solver.getNumStatesSeen() > 0) {
+                double error = Math.log(prediction.getEstimatedStates()) - Math.log(solver.getNumStatesSeen());
+                sumSquaredLogError += error * error;
+                numEstimated++;
+            }
+        }
+        System.out.println(String.format("%d decks, %d proven unsolvable without searching", numDecks, numProven));
+        System.out.println(String.format("Of the rest, %d solved, %.1f predicted", numSolved, expectedSolved));
+        System.out.println(String.format("State estimates are off by a factor of %.1f on average (geometric)",
+                Math.exp(Math.sqrt(sumSquaredLogError / Math.max(1, numEstimated)))));
+    }
+}
@@ -0,0 +1,53 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import org.junit.jupiter.api.Test;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.UNWINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DifficultyPredictorTest {
+    // passes the unwinnable check at the start, but the pyramid can't be cleared even with unlimited stock cards
+    private static final String RELAXED_UNWINNABLE_CARDS =
+            "8h 9c Td 3c Kc 6h 9d Th 9s 8d 7h Kd Ac 3d 9h 3s 7d Jh Ts 4s 2s As 8s Qc 4h Qs Ad 5s " +
+            "2h Ks 8c 5c 6c 6s 5d 4d Jd 7c 7s Kh Ah 3h Js 5h Tc 4c 2d Qd Jc Qh 6d 2c";
+
+    @Test
+    public void winnableDeckIsSearched() {
+        DifficultyPredictor.Prediction prediction =
+                DifficultyPredictor.predict(new Deck(WINNABLE_CARDS), State.INITIAL_STATE);
+        assertNotEquals(DifficultyPredictor.Strategy.UNSOLVABLE, prediction.getStrategy());
+        assertTrue(prediction.getSolvableChance() > 0);
+        assertTrue(prediction.getEstimatedStates() > 0);
+    }
+
+    @Test
+    public void unwinnableStartIsProvenUnsolvable() {
+        DifficultyPredictor.Prediction prediction =
+                DifficultyPredictor.predict(new Deck(UNWINNABLE_CARDS), State.INITIAL_STATE);
+        assertEquals(DifficultyPredictor.Strategy.UNSOLVABLE, prediction.getStrategy());
+    }
+
+    @Test
+    public void relaxedPyramidProvesMoreDecksUnsolvable() {
+        Deck deck = new Deck(RELAXED_UNWINNABLE_CARDS);
+        long state = State.INITIAL_STATE;
+        assertFalse(deck.getStateCache(State.getPyramidFlags(state)).isUnwinnable(state));
+        assertEquals(DifficultyPredictor.Strategy.UNSOLVABLE, DifficultyPredictor.predict(deck, state).getStrategy());
+        assertEquals(0, new BoardChallengeSolver().solve(deck).size());
+    }
+
+    @Test
+    public void adaptiveSolverLogsPredictionAndResult() {
+        StringBuilder log = new StringBuilder();
+        AdaptiveSolver solver = new AdaptiveSolver(log::append);
+        assertEquals(44, solver.solve(new Deck(WINNABLE_CARDS)).values().iterator().next().size());
+        assertTrue(solver.isConclusive());
+        assertTrue(log.toString().contains("Actual: solved"), log.toString());
+        assertEquals(0, solver.solve(new Deck(RELAXED_UNWINNABLE_CARDS)).size());
+        assertEquals(0, solver.getNumStatesSeen());
+    }
+}
@@ -0,0 +1,57 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares re-planning with a DistanceTable against running BoardChallengeSolver again, from every state along the
+ * shortest solution of the first few random decks.  The optional argument is the number of decks, 5 by default.
+ */
+public class DistanceTableBenchmark {
+    public static void main(String[] args) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Paths.get(ClassLoader.getSystemResource("random-decks.txt").toURI()));
+        } catch (IOException | URISyntaxException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        int numDecks = Math.min(lines.size(), (args.length > 0) ? Integer.parseInt(args[0]) : 5);
+        long buildMillis = 0;
+        long tableNanos = 0;
+        long solverNanos = 0;
+        long numStates = 0;
+        int numReplans = 0;
+        for (int i = 0; i < numDecks; i++) {
+            Deck deck = new Deck(lines.get(i));
+            long start = System.nanoTime();
+            DistanceTable table = DistanceTable.build(deck);
+            buildMillis += (System.nanoTime() - start) / 1000000;
+            numStates += table.size();
+            if (table.distance(State.INITIAL_STATE) == DistanceTable.UNSOLVABLE) {
+                continue;
+            }
+            BoardChallengeSolver solver = new BoardChallengeSolver();
+            for (long state = State.INITIAL_STATE; table.distance(state) > 0; state = table.nextState(state)) {
+                start = System.nanoTime();
+                List<Action> tableSolution = table.solution(state);
+                tableNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                Map<String, List<Action>> solutions = solver.solve(deck, state);
+                solverNanos += System.nanoTime() - start;
+                if (solutions.values().iterator().next().size() != tableSolution.size()) {
+                    throw new RuntimeException("Solution lengths differ for deck " + (i + 1));
+                }
+                numReplans++;
+            }
+        }
+        System.out.println(String.format("%d decks, %d states in the tables, built in %d ms",
+                numDecks, numStates, buildMillis));
+        System.out.println(String.format("Re-planning from %d states: DistanceTable %d ms, BoardChallengeSolver %d ms",
+                numReplans, tableNanos / 1000000, solverNanos / 1000000));
+    }
+}
@@ -0,0 +1,45 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.UNWINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DistanceTableTest {
+    @Test
+    public void distancesMatchBoardChallengeSolver() {
+        Deck deck = new Deck(WINNABLE_CARDS);
+        DistanceTable table = DistanceTable.build(deck);
+        assertEquals(44, table.distance(State.INITIAL_STATE));
+        assertEquals(44, table.solution(State.INITIAL_STATE).size());
+
+        // a different start: 8s and 5d removed in the first cycle, then Kd, and the waste pile recycled
+        Set<String> remainingCards = new HashSet<>(deck.getCards());
+        remainingCards.removeAll(Arrays.asList("8s", "5d", "Kd"));
+        long state = State.create(deck, remainingCards, "4c", 2);
+        List<Action> expected = new BoardChallengeSolver().solve(deck, state).values().iterator().next();
+        assertEquals(expected.size(), table.distance(state));
+        assertEquals(expected.size(), table.solution(state).size());
+
+        // a state that can't happen because 8s was removed without a card to add up to 13
+        remainingCards.add("5d");
+        long unreachable = State.create(deck, remainingCards, "4c", 2);
+        assertThrows(IllegalArgumentException.class, () -> table.distance(unreachable));
+    }
+
+    @Test
+    public void unwinnableDeck() {
+        Deck deck = new Deck(UNWINNABLE_CARDS);
+        DistanceTable table = DistanceTable.build(deck);
+        assertEquals(DistanceTable.UNSOLVABLE, table.distance(State.INITIAL_STATE));
+        assertNull(table.solution(State.INITIAL_STATE));
+    }
+}
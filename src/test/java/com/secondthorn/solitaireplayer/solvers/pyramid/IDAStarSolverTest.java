@@ -0,0 +1,98 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import gnu.trove.list.TLongList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.UNWINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IDAStarSolverTest {
+    @Test
+    public void simpleTest() {
+        IDAStarSolver solver = new IDAStarSolver();
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertEquals(1, solutions.size());
+        assertEquals(44, solutions.values().iterator().next().size());
+        assertTrue(solver.getNumStatesSeen() > 0);
+    }
+
+    @Test
+    public void smallTableStillFindsTheShortestSolution() {
+        IDAStarSolver solver = new IDAStarSolver(12);
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertEquals(44, solutions.values().iterator().next().size());
+    }
+
+    @Test
+    public void midGameMatchesAStar() {
+        Deck deck = new Deck(WINNABLE_CARDS);
+        List<Action> solution = new BoardChallengeSolver().solve(deck).values().iterator().next();
+        // follow the first ten steps, including the draws, to reach a state from the middle of the game
+        long state = State.INITIAL_STATE;
+        for (Action action : solution.subList(0, 10)) {
+            state = successorFor(deck, state, action);
+        }
+        Map<String, List<Action>> expected = new BoardChallengeSolver().solve(deck, state);
+        Map<String, List<Action>> actual = new IDAStarSolver().solve(deck, state);
+        assertEquals(1, expected.size());
+        assertEquals(1, actual.size());
+        assertEquals(solution.size() - 10, expected.values().iterator().next().size());
+        assertEquals(solution.size() - 10, actual.values().iterator().next().size());
+    }
+
+    @Test
+    public void unwinnableTest() {
+        assertEquals(0, new IDAStarSolver().solve(new Deck(UNWINNABLE_CARDS)).size());
+    }
+
+    @Test
+    public void inconclusiveWhenInterrupted() {
+        IDAStarSolver solver = new IDAStarSolver();
+        Thread.currentThread().interrupt();
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertTrue(Thread.interrupted());
+        assertEquals(0, solutions.size());
+        assertFalse(solver.isConclusive());
+    }
+
+    @Test
+    public void tableSizeMustBeReasonable() {
+        assertThrows(IllegalArgumentException.class, () -> new IDAStarSolver(0));
+        assertThrows(IllegalArgumentException.class, () -> new IDAStarSolver(31));
+        assertEquals(20, IDAStarSolver.tableBitsFor(10L << 20));
+    }
+
+    @Test
+    public void adaptiveSolverUsesIDAStarWhenHeapIsTight() {
+        List<String> log = new ArrayList<>();
+        AdaptiveSolver solver = new AdaptiveSolver(log::add, 1000);
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertEquals(DifficultyPredictor.Strategy.IDA_STAR, solver.getPrediction().getStrategy());
+        assertTrue(solver.isConclusive());
+        assertEquals(44, solutions.values().iterator().next().size());
+        assertEquals(1, log.size());
+    }
+
+    /**
+     * Returns the state the action leads to from the state.
+     */
+    private static long successorFor(Deck deck, long state, Action action) {
+        TLongList successors = deck.getStateCache(State.getPyramidFlags(state)).getSuccessors(state);
+        for (int i = 0; i < successors.size(); i++) {
+            long nextState = successors.get(i);
+            Action nextAction = new Node(nextState, new Node(state, null)).actions(deck).get(0);
+            if (nextAction.toString().equals(action.toString())) {
+                return nextState;
+            }
+        }
+        throw new AssertionError("The action isn't possible from the state: " + action);
+    }
+}
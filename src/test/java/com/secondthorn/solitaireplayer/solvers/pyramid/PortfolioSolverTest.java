@@ -0,0 +1,49 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.UNWINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PortfolioSolverTest {
+    @Test
+    public void solvesWinnableDeck() {
+        PortfolioSolver solver = new PortfolioSolver();
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertEquals(1, solutions.size());
+        assertEquals(44, solutions.values().iterator().next().size());
+        assertTrue(solver.isConclusive());
+    }
+
+    @Test
+    public void provesUnwinnableDeck() {
+        PortfolioSolver solver = new PortfolioSolver();
+        assertEquals(0, solver.solve(new Deck(UNWINNABLE_CARDS)).size());
+        assertTrue(solver.isConclusive());
+    }
+
+    @Test
+    public void fallsBackToIDAStarWhenOutOfBudget() {
+        PortfolioSolver solver = new PortfolioSolver(10000);
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertEquals(1, solutions.size());
+        assertEquals(44, solutions.values().iterator().next().size());
+        assertTrue(solver.isConclusive());
+    }
+
+    @Test
+    public void inconclusiveWhenInterrupted() {
+        PortfolioSolver solver = new PortfolioSolver();
+        Thread.currentThread().interrupt();
+        Map<String, List<Action>> solutions = solver.solve(new Deck(WINNABLE_CARDS));
+        assertTrue(Thread.interrupted());
+        assertEquals(0, solutions.size());
+        assertFalse(solver.isConclusive());
+    }
+}
@@ -5,8 +5,10 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 import java.util.Map;
 
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.UNWINNABLE_CARDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ScoreChallengeSolverTest {
     @Test
@@ -42,4 +44,49 @@ public class ScoreChallengeSolverTest {
         assertEquals(34, solution.size());
         assertEquals(60, solver.getBestScore());
     }
+
+    @Test
+    public void beamSearchReachesGoalScore() {
+        ScoreChallengeSolver solver = new ScoreChallengeSolver(1225, 0, 100);
+        String cards = "Kd Kc Qh Ah 7d 6d 8d 5d 9d 4d Td 3d Jd 2d Qd Ad 7c 6c 8c 5c 9c 4c Tc 3c Jc 2c " +
+                       "Qc Ac 6h 7h 5h 8h 4h 9h 3h Th 2h Jh Kh As 2s 3s 4s 5s 6s 7s 8s 9s Ts Js Qs Ks";
+        Map<String, List<Action>> solutions = solver.solve(new Deck(cards));
+        assertEquals(1, solutions.size());
+        assertEquals(15, solutions.values().iterator().next().size());
+        assertEquals(1225, solver.getBestScore());
+    }
+
+    @Test
+    public void beamSearchReportsGapToUpperBound() {
+        Deck deck = new Deck(UNWINNABLE_CARDS);
+        ScoreChallengeSolver exactSolver = new ScoreChallengeSolver(ScoreChallengeSolver.MAX_POSSIBLE_SCORE, 0);
+        exactSolver.solve(deck);
+        ScoreChallengeSolver solver = new ScoreChallengeSolver(ScoreChallengeSolver.MAX_POSSIBLE_SCORE, 0, 10);
+        String description = solver.solve(deck).keySet().iterator().next();
+        assertTrue(solver.getBestScore() <= exactSolver.getBestScore());
+        assertTrue(exactSolver.getBestScore() <= solver.getUpperBound());
+        assertTrue(solver.getUpperBound() < ScoreChallengeSolver.MAX_POSSIBLE_SCORE);
+        if (solver.getUpperBound() > solver.getBestScore()) {
+            int gap = solver.getUpperBound() - solver.getBestScore();
+            assertTrue(description.endsWith("at most " + gap + " short of the best possible score."), description);
+        }
+    }
+
+    @Test
+    public void upperBoundsCoverTheBestScore() {
+        ScoreChallengeSolver solver = new ScoreChallengeSolver(ScoreChallengeSolver.MAX_POSSIBLE_SCORE, 0);
+        String cards = "4s 4d 4h Ah As 4c Qh Qd Qc Ad Th Ts 3s Ac Qs Jc Jd Jh Js Tc Td 2c 2d 2h 2s 3c " +
+                       "3d 3h Kc Kd Kh Ks 5c 6c 7c 8c 9c 5d 6d 7d 8d 9d 5h 6h 7h 8h 9h 5s 6s 7s 8s 9s";
+        Deck deck = new Deck(cards);
+        solver.solve(deck);
+        assertTrue(solver.maxReachableScore(State.INITIAL_STATE, deck) >= solver.getBestScore());
+        int relaxedUpperBound = solver.maxRelaxedScore(State.INITIAL_STATE, deck);
+        assertTrue(relaxedUpperBound >= solver.getBestScore());
+        assertTrue(relaxedUpperBound < 100);
+    }
+
+    @Test
+    public void beamWidthMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ScoreChallengeSolver(1290, 0, 0));
+    }
 }
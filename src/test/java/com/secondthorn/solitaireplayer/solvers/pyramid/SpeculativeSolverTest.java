@@ -0,0 +1,113 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.UNWINNABLE_CARDS;
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpeculativeSolverTest {
+    @Test
+    void speculatedDeckHasSameSolution() {
+        List<String> cards = Arrays.asList(WINNABLE_CARDS.split(" "));
+        SpeculativeSolver solver = new SpeculativeSolver(BoardChallengeSolver::new);
+        solver.prepare(cards.subList(0, 28));
+        assertTrue(solver.speculate(cards));
+        Map<String, List<Action>> solutions = solver.solve(new Deck(cards));
+        assertEquals(1, solver.getHits());
+        solver.shutdown();
+        Map<String, List<Action>> expected = new BoardChallengeSolver().solve(new Deck(cards));
+        assertEquals(expected.keySet(), solutions.keySet());
+        for (String description : expected.keySet()) {
+            assertEquals(expected.get(description).toString(), solutions.get(description).toString());
+        }
+    }
+
+    @Test
+    void otherDecksAreSolvedNormally() {
+        SpeculativeSolver solver = new SpeculativeSolver(BoardChallengeSolver::new);
+        assertTrue(solver.speculate(Arrays.asList(WINNABLE_CARDS.split(" "))));
+        Map<String, List<Action>> solutions = solver.solve(new Deck(UNWINNABLE_CARDS));
+        assertEquals(0, solver.getHits());
+        solver.shutdown();
+        assertEquals(0, solutions.size());
+    }
+
+    @Test
+    void unwinnablePyramidIsNotSearched() {
+        List<String> cards = Arrays.asList(UNWINNABLE_CARDS.split(" "));
+        SpeculativeSolver solver = new SpeculativeSolver(() -> {
+            throw new AssertionError("The deck shouldn't be searched.");
+        }, true);
+        solver.prepare(cards.subList(0, 28));
+        Map<String, List<Action>> solutions = solver.solve(new Deck(cards));
+        assertEquals(1, solver.getHits());
+        assertTrue(solver.isConclusive());
+        assertEquals(0, solutions.size());
+        solver.shutdown();
+    }
+
+    @Test
+    void preparingDoesNotBuildStateCaches() {
+        Deck deck = new Deck(UNWINNABLE_CARDS);
+        long misses = StateCacheTables.SHARED.getMisses();
+        long hits = StateCacheTables.SHARED.getHits();
+        SpeculativeSolver solver = new SpeculativeSolver(() -> {
+            throw new AssertionError("The pyramid can't be cleared, so there's nothing to search");
+        }, true);
+        solver.prepare(deck.getCards().subList(0, 28));
+        assertTrue(solver.solve(deck).isEmpty());
+        assertEquals(misses, StateCacheTables.SHARED.getMisses());
+        assertEquals(hits, StateCacheTables.SHARED.getHits());
+        solver.shutdown();
+    }
+
+    @Test
+    void pyramidOnlyCheckMatchesStateCache() {
+        List<String> decks = new ArrayList<>(Arrays.asList(WINNABLE_CARDS, UNWINNABLE_CARDS));
+        Random random = new Random(1);
+        for (int i = 0; i < 8; i++) {
+            List<String> cards = new ArrayList<>(Arrays.asList(WINNABLE_CARDS.split(" ")));
+            Collections.shuffle(cards, random);
+            decks.add(String.join(" ", cards));
+        }
+        for (String cards : decks) {
+            Deck deck = new Deck(cards);
+            boolean expected = deck.getStateCache(State.getPyramidFlags(State.INITIAL_STATE))
+                    .isUnwinnable(State.INITIAL_STATE);
+            assertEquals(expected, SpeculativeSolver.isPyramidUnwinnable(deck.getCards().subList(0, 28)), cards);
+        }
+        assertTrue(SpeculativeSolver.isPyramidUnwinnable(Arrays.asList(UNWINNABLE_CARDS.split(" ")).subList(0, 28)));
+    }
+
+    @Test
+    void unwinnablePyramidIsSearchedForOtherGoals() {
+        List<String> cards = Arrays.asList(UNWINNABLE_CARDS.split(" "));
+        Map<String, List<Action>> expected = new HashMap<>();
+        SpeculativeSolver solver = new SpeculativeSolver(() -> (deck, startingState) -> expected);
+        solver.prepare(cards.subList(0, 28));
+        assertSame(expected, solver.solve(new Deck(cards)));
+        assertEquals(0, solver.getHits());
+        solver.shutdown();
+    }
+
+    @Test
+    void unknownCardsAreNotSpeculatedOn() {
+        List<String> cards = Arrays.asList(WINNABLE_CARDS.split(" "));
+        cards.set(51, "??");
+        SpeculativeSolver solver = new SpeculativeSolver(BoardChallengeSolver::new);
+        assertFalse(solver.speculate(cards));
+        solver.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.junit.jupiter.api.Test;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StateCacheTablesTest {
+    @Test
+    void decksWithTheSameRanksShareStateCaches() {
+        Deck deck = new Deck(WINNABLE_CARDS);
+        Deck swappedSuits = new Deck(WINNABLE_CARDS.replace('c', 'x').replace('d', 'c').replace('x', 'd'));
+        Deck otherRanks = new Deck(WINNABLE_CARDS.replace("Th", "XX").replace("Kh", "Th").replace("XX", "Kh"));
+        long flags = Pyramid.ALL[0].getFlags();
+        assertSame(deck.getStateCache(flags), swappedSuits.getStateCache(flags));
+        assertNotSame(deck.getStateCache(flags), otherRanks.getStateCache(flags));
+    }
+
+    @Test
+    void leastRecentlyUsedTablesAreEvicted() {
+        StateCacheTables tables = new StateCacheTables(2);
+        tables.get("A", TLongObjectHashMap::new);
+        tables.get("B", TLongObjectHashMap::new);
+        tables.get("A", TLongObjectHashMap::new);
+        tables.get("C", TLongObjectHashMap::new);
+        assertEquals(2, tables.size());
+        assertEquals(1, tables.getHits());
+        tables.get("A", TLongObjectHashMap::new);
+        assertEquals(2, tables.getHits());
+        tables.get("B", TLongObjectHashMap::new);
+        assertEquals(2, tables.getHits());
+        assertEquals(4, tables.getMisses());
+    }
+
+    @Test
+    void sizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new StateCacheTables(0));
+    }
+}
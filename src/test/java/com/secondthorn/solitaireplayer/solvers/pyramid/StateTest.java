@@ -2,7 +2,12 @@ package com.secondthorn.solitaireplayer.solvers.pyramid;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.secondthorn.solitaireplayer.solvers.pyramid.TestDecks.WINNABLE_CARDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class StateTest {
     static final long FULL_STATE = makeUnadjustedState(0xFFFFFFFFFFFFFL, 28, 1);
@@ -26,6 +31,30 @@ public class StateTest {
         assertEquals(FULL_STATE, State.INITIAL_STATE);
     }
 
+    @Test
+    public void createMidGameState() {
+        Deck deck = new Deck(WINNABLE_CARDS);
+        List<String> remainingCards = new ArrayList<>(deck.getCards());
+        assertEquals(State.INITIAL_STATE, State.create(deck, remainingCards, "4c", 1));
+        remainingCards.remove("Kd");
+        remainingCards.remove("Jc");
+        long state = State.create(deck, remainingCards, "7c", 2);
+        assertEquals(FULL_STATE & State.removalMask(24) & State.removalMask(29), State.getDeckFlags(state));
+        assertEquals(30, State.getStockIndex(state));
+        assertEquals(2, State.getCycle(state));
+        assertEquals(52, State.getStockIndex(State.create(deck, remainingCards, null, 3)));
+    }
+
+    @Test
+    public void createRejectsImpossibleStates() {
+        Deck deck = new Deck(WINNABLE_CARDS);
+        List<String> remainingCards = new ArrayList<>(deck.getCards());
+        assertThrows(IllegalArgumentException.class, () -> State.create(deck, remainingCards, "Th", 1));
+        assertThrows(IllegalArgumentException.class, () -> State.create(deck, remainingCards, null, 4));
+        remainingCards.remove("Th");
+        assertThrows(IllegalArgumentException.class, () -> State.create(deck, remainingCards, null, 1));
+    }
+
     @Test
     public void isStockEmpty() {
         for (int stockIndex = 28; stockIndex <= 52; stockIndex++) {
@@ -0,0 +1,36 @@
+package com.secondthorn.solitaireplayer.solvers.pyramid;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pyramid Solitaire decks shared by the tests, as space-separated cards in the order Deck expects.
+ */
+public class TestDecks {
+    /**
+     * A deck where the pyramid can be cleared, in 44 steps at the fewest.
+     */
+    public static final String WINNABLE_CARDS =
+            "Th Js Jh 9c Qd 5c 2d 9h Td 4h Qs 9d 3s 8d Kh 6c 3h 6d 8c Kc Ah Qh Tc 9s Kd 8s " +
+            "4s 2c 4c Jc 7c Jd 8h 6s 5d 3c 4d 3d 6h Ts 5s Ks 7d Ac 7s 2s Qc 2h 5h As 7h Ad";
+
+    /**
+     * A deck where the pyramid can't be cleared.
+     */
+    public static final String UNWINNABLE_CARDS =
+            "2d 9s 7c 5d 2s Qc Jd 5c Jc Td 4s 6s 8c 8s Jh 5h As Js 6d 2c Qd Qh 4c 8h Ks 7d " +
+            "Ah 4d 9h 3d 5s 4h Th Ad 3s 8d Ts Tc 9d Kc 7h Kd 6h Qs 2h Ac 7s 6c 3c 3h 9c Kh";
+
+    private TestDecks() {
+    }
+
+    /**
+     * Returns the cards as a list, the way the players read them from the screen.
+     *
+     * @param cards space-separated cards
+     * @return a list of the cards
+     */
+    public static List<String> cardList(String cards) {
+        return Arrays.asList(cards.split(" "));
+    }
+}
@@ -0,0 +1,60 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Compares the number of states expanded and the time taken by Breadth-First Search and A* for Board Challenges on
+ * the random decks.
+ */
+public class BoardChallengeBenchmark {
+    public static void main(String[] args) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Paths.get(ClassLoader.getSystemResource("random-decks.txt").toURI()));
+        } catch (IOException | URISyntaxException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        BoardChallengeSolver bfsSolver = new BoardChallengeSolver(false);
+        BoardChallengeSolver aStarSolver = new BoardChallengeSolver(true);
+        long[] bfsTotals = new long[2];
+        long[] aStarTotals = new long[2];
+        long bfsClearableTotal = 0;
+        long aStarClearableTotal = 0;
+        int numClearable = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            Deck deck = new Deck(lines.get(i));
+            Solution bfsSolution = run(bfsSolver, deck, bfsTotals);
+            Solution aStarSolution = run(aStarSolver, deck, aStarTotals);
+            if (bfsSolution.getActions().size() != aStarSolution.getActions().size() ||
+                    !bfsSolution.getDescription().equals(aStarSolution.getDescription())) {
+                throw new RuntimeException("Solutions differ for deck " + (i + 1));
+            }
+            if (State.isTableauEmpty(bfsSolution.getEndingState())) {
+                numClearable++;
+                bfsClearableTotal += bfsSolver.getNumStatesExpanded();
+                aStarClearableTotal += aStarSolver.getNumStatesExpanded();
+            }
+        }
+        System.out.println(String.format("%d decks, %d clearable", lines.size(), numClearable));
+        System.out.println(String.format("BFS: %d states expanded (%d on clearable decks), %d ms",
+                bfsTotals[0], bfsClearableTotal, bfsTotals[1]));
+        System.out.println(String.format("A*:  %d states expanded (%d on clearable decks), %d ms",
+                aStarTotals[0], aStarClearableTotal, aStarTotals[1]));
+    }
+
+    /**
+     * Solves the deck, adding the number of states expanded and the milliseconds taken to the totals.
+     */
+    private static Solution run(BoardChallengeSolver solver, Deck deck, long[] totals) {
+        long start = System.nanoTime();
+        Solution solution = solver.solve(deck, State.INITIAL_STATE);
+        totals[1] += (System.nanoTime() - start) / 1000000;
+        totals[0] += solver.getNumStatesExpanded();
+        return solution;
+    }
+}
@@ -3,6 +3,8 @@ package com.secondthorn.solitaireplayer.solvers.tripeaks;
 
 import org.junit.jupiter.api.Test;
 
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.UNWINNABLE;
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.WINNABLE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -41,4 +43,29 @@ public class BoardChallengeSolverTest {
         assertEquals(23, solution.getActions().size());
         assertTrue(new PlayTester(deck).areActionsPlayable(solution));
     }
+
+    @Test
+    void aStarFindsShortestSolution() {
+        Deck deck = WINNABLE;
+        BoardChallengeSolver bfsSolver = new BoardChallengeSolver();
+        bfsSolver.solve(deck, State.INITIAL_STATE);
+        BoardChallengeSolver aStarSolver = new BoardChallengeSolver(true);
+        Solution solution = aStarSolver.solve(deck, State.INITIAL_STATE);
+        assertTrue(solution.isDefinitiveSolution());
+        assertEquals("Clear the board in 42 steps", solution.getDescription());
+        assertEquals(42, solution.getActions().size());
+        assertTrue(new PlayTester(deck).areActionsPlayable(solution));
+        assertTrue(aStarSolver.getNumStatesExpanded() < bfsSolver.getNumStatesExpanded());
+    }
+
+    @Test
+    void aStarUnsolvableDeckHasEmptySolution() {
+        Deck deck = UNWINNABLE;
+        BoardChallengeSolver solver = new BoardChallengeSolver(true);
+        Solution solution = solver.solve(deck, State.INITIAL_STATE);
+        assertTrue(solution.isDefinitiveSolution());
+        assertEquals("Lose Quickly: Impossible to clear the board", solution.getDescription());
+        assertEquals(23, solution.getActions().size());
+        assertTrue(new PlayTester(deck).areActionsPlayable(solution));
+    }
 }
@@ -0,0 +1,45 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.WINNABLE;
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.hideFirstCards;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IncrementalBoardChallengeSolverTest {
+    @Test
+    void revealingCardsContinuesTheSearch() {
+        IncrementalBoardChallengeSolver solver = new IncrementalBoardChallengeSolver();
+        Solution solution = solver.solve(hideFirstCards(WINNABLE, 18), State.INITIAL_STATE);
+        assertFalse(solution.isDefinitiveSolution());
+        solution = solver.solve(hideFirstCards(WINNABLE, 9), State.INITIAL_STATE);
+        assertFalse(solution.isDefinitiveSolution());
+        solution = solver.solve(WINNABLE, State.INITIAL_STATE);
+        int numStatesExpanded = solver.getNumStatesExpanded();
+        assertTrue(solution.isDefinitiveSolution());
+        assertEquals("Clear the board in 42 steps", solution.getDescription());
+        assertTrue(new PlayTester(WINNABLE).areActionsPlayable(solution));
+
+        BoardChallengeSolver aStarSolver = new BoardChallengeSolver(true);
+        aStarSolver.solve(WINNABLE, State.INITIAL_STATE);
+        assertTrue(numStatesExpanded < aStarSolver.getNumStatesExpanded());
+    }
+
+    @Test
+    void changingKnownCardsStartsOver() {
+        IncrementalBoardChallengeSolver solver = new IncrementalBoardChallengeSolver();
+        List<String> cards = new ArrayList<>(hideFirstCards(WINNABLE, 18).getCards());
+        Collections.swap(cards, 28, 29);
+        solver.solve(new Deck(cards), State.INITIAL_STATE);
+        Solution solution = solver.solve(WINNABLE, State.INITIAL_STATE);
+        assertTrue(solution.isDefinitiveSolution());
+        assertEquals("Clear the board in 42 steps", solution.getDescription());
+        assertTrue(new PlayTester(WINNABLE).areActionsPlayable(solution));
+    }
+}
@@ -0,0 +1,56 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntBucketQueueTest {
+    @Test
+    public void newBucketQueueIsEmpty() {
+        IntBucketQueue bq = new IntBucketQueue(51);
+        assertTrue(bq.isEmpty());
+        assertThrows(NoSuchElementException.class, bq::remove);
+    }
+
+    @Test
+    public void addAndRemoveLeavesQueueEmpty() {
+        IntBucketQueue bq = new IntBucketQueue(51);
+        bq.add(1234, 1);
+        assertEquals(1234, bq.remove());
+        assertTrue(bq.isEmpty());
+    }
+
+    @Test
+    public void lowestPriorityIsRemovedFirst() {
+        IntBucketQueue bq = new IntBucketQueue(20);
+        bq.add(14, 14);
+        bq.add(12, 12);
+        bq.add(20, 20);
+        bq.add(0, 0);
+        assertEquals(0, bq.remove());
+        assertEquals(12, bq.remove());
+        assertEquals(14, bq.remove());
+        assertEquals(20, bq.remove());
+        assertTrue(bq.isEmpty());
+    }
+
+    @Test
+    public void samePriorityIsLastInFirstOut() {
+        IntBucketQueue bq = new IntBucketQueue(51);
+        for (int i = 0; i < 100; i++) {
+            bq.add(i, 28);
+        }
+        bq.add(-1, 30);
+        for (int i = 99; i >= 0; i--) {
+            assertFalse(bq.isEmpty());
+            assertEquals(i, bq.remove());
+        }
+        assertEquals(-1, bq.remove());
+        assertTrue(bq.isEmpty());
+    }
+}
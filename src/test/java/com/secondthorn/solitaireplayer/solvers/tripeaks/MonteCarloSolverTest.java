@@ -0,0 +1,31 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import org.junit.jupiter.api.Test;
+
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.WINNABLE;
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.hideFirstCards;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MonteCarloSolverTest {
+    @Test
+    void knownDeckIsSolvedExactly() {
+        MonteCarloSolver solver = new MonteCarloSolver(1000);
+        Solution solution = solver.solve(WINNABLE, State.INITIAL_STATE);
+        assertTrue(solution.isDefinitiveSolution());
+        assertEquals("Clear the board in 42 steps", solution.getDescription());
+        assertEquals(0, solver.getNumSamples());
+    }
+
+    @Test
+    void unknownCardsSuggestOneMove() {
+        Deck deck = hideFirstCards(WINNABLE, 18);
+        MonteCarloSolver solver = new MonteCarloSolver(60000, 200, MonteCarloSolver.DEFAULT_MAX_STATES_PER_SAMPLE, 1);
+        Solution solution = solver.solve(deck, State.INITIAL_STATE);
+        assertFalse(solution.isDefinitiveSolution());
+        assertEquals(200, solver.getNumSamples());
+        assertEquals(1, solution.getActions().size());
+        assertTrue(new PlayTester(deck).areActionsPlayable(solution));
+    }
+}
@@ -0,0 +1,77 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.WINNABLE;
+import static com.secondthorn.solitaireplayer.solvers.tripeaks.TestDecks.hideCards;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpeculativeSolverTest {
+    @Test
+    void speculatesOnEveryMissingCard() {
+        SpeculativeSolver solver = new SpeculativeSolver(BoardChallengeSolver::new);
+        Deck deck = hideCards(WINNABLE, 9, 10, 11);
+        assertEquals(3, solver.speculate(deck, State.INITIAL_STATE, new int[]{9}));
+        assertEquals(6, solver.speculate(deck, State.INITIAL_STATE, new int[]{9, 10}));
+        Solution solution = solver.solve(WINNABLE, State.INITIAL_STATE);
+        assertEquals(1, solver.getHits());
+        assertTrue(solution.isDefinitiveSolution());
+        assertEquals("Clear the board in 42 steps", solution.getDescription());
+        assertTrue(new PlayTester(WINNABLE).areActionsPlayable(solution));
+        solver.shutdown();
+    }
+
+    @Test
+    void speculationContinuesTheIncrementalSearch() {
+        SpeculativeSolver solver = new SpeculativeSolver(IncrementalBoardChallengeSolver::new);
+        Deck deck = hideCards(WINNABLE, 9, 10, 11);
+        assertFalse(solver.solve(deck, State.INITIAL_STATE).isDefinitiveSolution());
+        assertEquals(3, solver.speculate(deck, State.INITIAL_STATE, new int[]{9}));
+        Deck revealedDeck = hideCards(WINNABLE, 10, 11);
+        Solution solution = solver.solve(revealedDeck, State.INITIAL_STATE);
+        assertEquals(1, solver.getHits());
+        assertEquals(new BoardChallengeSolver().solve(revealedDeck, State.INITIAL_STATE).getDescription(), solution.getDescription());
+        assertEquals(2, solver.speculate(revealedDeck, State.INITIAL_STATE, new int[]{10}));
+        solution = solver.solve(WINNABLE, State.INITIAL_STATE);
+        assertEquals(2, solver.getHits());
+        assertEquals("Clear the board in 42 steps", solution.getDescription());
+        assertTrue(new PlayTester(WINNABLE).areActionsPlayable(solution));
+        solver.shutdown();
+    }
+
+    @Test
+    void interruptedWhileWaitingIsNotDefinitive() {
+        SpeculativeSolver solver = new SpeculativeSolver(() -> (deck, startingState) -> {
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Solution("Cancelled", false, new ArrayList<>(), startingState, startingState);
+        });
+        assertEquals(3, solver.speculate(hideCards(WINNABLE, 9, 10, 11), State.INITIAL_STATE, new int[]{9}));
+        Thread.currentThread().interrupt();
+        Solution solution = solver.solve(WINNABLE, State.INITIAL_STATE);
+        assertTrue(Thread.interrupted());
+        assertFalse(solution.isDefinitiveSolution());
+        assertTrue(solution.getActions().isEmpty());
+        assertEquals(0, solver.getHits());
+        solver.shutdown();
+    }
+
+    @Test
+    void tooManyPossibilitiesSolvesNormally() {
+        SpeculativeSolver solver = new SpeculativeSolver(BoardChallengeSolver::new, 10);
+        Deck deck = hideCards(WINNABLE, 9, 10, 11, 12);
+        assertEquals(0, solver.speculate(deck, State.INITIAL_STATE, new int[]{9, 10}));
+        Solution solution = solver.solve(deck, State.INITIAL_STATE);
+        assertFalse(solution.isDefinitiveSolution());
+        solution = solver.solve(WINNABLE, State.INITIAL_STATE);
+        assertEquals("Clear the board in 42 steps", solution.getDescription());
+        solver.shutdown();
+    }
+}
@@ -4,7 +4,10 @@ import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -125,4 +128,65 @@ public class StateTest {
             assertTrue(isValidFaceUpIndexes(tableauFlags, faceUpIndexes));
         }
     }
+
+    private Deck orderedDeck() {
+        StringBuilder cards = new StringBuilder();
+        for (char suit : "cdhs".toCharArray()) {
+            for (char rank : "A23456789TJQK".toCharArray()) {
+                cards.append(rank).append(suit).append(' ');
+            }
+        }
+        return new Deck(cards.toString());
+    }
+
+    @Test
+    void initialStateIsNotUnwinnable() {
+        assertFalse(State.isUnwinnable(State.INITIAL_STATE, orderedDeck()));
+    }
+
+    @Test
+    void cardWithNoMatchingCardsLeftIsUnremovable() {
+        Deck deck = orderedDeck();
+        int tableauIndex = State.TABLEAU_FLAGS_TO_ID.get(0b1);
+        // Ac is the only card left on the tableau, and the stock pile is empty
+        int kingOnWaste = State.create(tableauIndex, 51, 52);
+        int queenOnWaste = State.create(tableauIndex, 50, 52);
+        int queenOnWasteWithStock = State.create(tableauIndex, 50, 51);
+        assertEquals(0, State.unremovableTableauFlags(kingOnWaste, deck));
+        assertFalse(State.isUnwinnable(kingOnWaste, deck));
+        assertEquals(0b1, State.unremovableTableauFlags(queenOnWaste, deck));
+        assertTrue(State.isUnwinnable(queenOnWaste, deck));
+        assertFalse(State.isUnwinnable(queenOnWasteWithStock, deck));
+    }
+
+    @Test
+    void cardsBlockedByUnremovableCardsAreUnremovable() {
+        Deck deck = orderedDeck();
+        // Ac at index 0 could be moved onto the Ks, but 4c at index 3 is blocking it and has no matching cards left
+        int state = State.create(State.TABLEAU_FLAGS_TO_ID.get(0b1001), 51, 52);
+        assertEquals(0b1001, State.unremovableTableauFlags(state, deck));
+    }
+
+    @Test
+    void unknownCardsAreNeverUnremovable() {
+        List<String> cards = new ArrayList<>(orderedDeck().getCards());
+        cards.set(0, Deck.UNKNOWN_CARD);
+        Deck deck = new Deck(cards);
+        int state = State.create(State.TABLEAU_FLAGS_TO_ID.get(0b1), 50, 52);
+        assertFalse(State.isUnwinnable(state, deck));
+    }
+
+    @Test
+    void moreCardsOfARankThanCardsToMoveThemOntoIsUnwinnable() {
+        List<String> cards = new ArrayList<>(orderedDeck().getCards());
+        Collections.swap(cards, 0, cards.indexOf("7c"));
+        Collections.swap(cards, 1, cards.indexOf("7d"));
+        Collections.swap(cards, 28, cards.indexOf("8c"));
+        Deck deck = new Deck(cards);
+        // 7c and 7d are left on the tableau, but only the 8c on the waste pile can be used to remove either of them
+        int state = State.create(State.TABLEAU_FLAGS_TO_ID.get(0b11), 28, 52);
+        assertEquals(0, State.unremovableTableauFlags(state, deck));
+        assertEquals(1, State.maxRemovableTableauCards(state, deck, 0b11));
+        assertTrue(State.isUnwinnable(state, deck));
+    }
 }
@@ -0,0 +1,66 @@
+package com.secondthorn.solitaireplayer.solvers.tripeaks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TriPeaks Solitaire decks shared by the tests.
+ */
+public class TestDecks {
+    /**
+     * A deck where the board can be cleared, in 42 steps at the fewest.
+     */
+    public static final Deck WINNABLE = new Deck(
+            "      6d          5h          Ah\n" +
+            "    Jd  4s      Ks  6s      8c  2h\n" +
+            "  4d  9s  Kd  6c  Ad  8s  Ac  5c  9d\n" +
+            "7h  3h  8d  5s  4c  Qc  Jh  Kc  Kh  3c\n" +
+            "3s" +
+            " 9c As 5d Qh Ts 4h 7s Td 9h Th 7c 8h 2c 7d Tc 2d 6h 2s Js Qd 3d Qs Jc"
+    );
+
+    /**
+     * A deck where the board can't be cleared, and the quickest way to lose takes 23 steps.
+     */
+    public static final Deck UNWINNABLE = new Deck(
+            "      9s          3s          Kc\n" +
+            "    Qd  Jc      7h  Ah      5h  Ad\n" +
+            "  Jd  3c  Ks  5c  9h  9d  Qh  6d  7c\n" +
+            "4h  Qc  8d  5s  Js  As  4d  8s  8c  8h\n" +
+            "4s\n" +
+            "Td Qs 6c 2c Kh 6s 3d 2h 4c 3h Jh Kd 2s 6h 7s Tc 9c 2d 7d Ts 5d Ac Th\n"
+    );
+
+    private TestDecks() {
+    }
+
+    /**
+     * Returns a copy of the deck with the cards at the given indexes replaced by unknown cards.
+     *
+     * @param deck    a deck of cards
+     * @param indexes the deck indexes of the cards to hide
+     * @return the deck with the cards hidden
+     */
+    public static Deck hideCards(Deck deck, int... indexes) {
+        List<String> cards = new ArrayList<>(deck.getCards());
+        for (int index : indexes) {
+            cards.set(index, Deck.UNKNOWN_CARD);
+        }
+        return new Deck(cards);
+    }
+
+    /**
+     * Returns a copy of the deck with the first tableau cards replaced by unknown cards, the way they start face down.
+     *
+     * @param deck     a deck of cards
+     * @param numCards how many cards to hide, from the top of the tableau
+     * @return the deck with the cards hidden
+     */
+    public static Deck hideFirstCards(Deck deck, int numCards) {
+        int[] indexes = new int[numCards];
+        for (int i = 0; i < numCards; i++) {
+            indexes[i] = i;
+        }
+        return hideCards(deck, indexes);
+    }
+}